@@ -3,7 +3,10 @@
 CREATE TABLE departments (
                              id NUMBER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
                              name VARCHAR2(100) NOT NULL,
-                             manager_id NUMBER
+                             manager_id NUMBER,
+                             created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                             updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                             version NUMBER DEFAULT 0 NOT NULL
 );
 
 -- Employees Table
@@ -22,7 +25,8 @@ CREATE TABLE employees (
                            phone VARCHAR2(20),
                            address VARCHAR2(200),
                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                           updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                           updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                           version NUMBER DEFAULT 0 NOT NULL
 );
 
 
@@ -37,6 +41,15 @@ CREATE TABLE audit_log (
                            timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                            changes CLOB
 );
+-- Tombstones of deleted rows, read by the delta sync
+CREATE TABLE deleted_records (
+                           id NUMBER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+                           entity_type VARCHAR2(50) NOT NULL,
+                           entity_id NUMBER NOT NULL,
+                           -- department an employee was deleted from or moved out of
+                           department_id NUMBER,
+                           deleted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
 
 -- Add foreign key for department manager
 ALTER TABLE departments
@@ -47,4 +60,8 @@ ALTER TABLE departments
 CREATE INDEX idx_employee_search ON employees(employee_id, full_name, job_title);
 CREATE INDEX idx_employee_department ON employees(department_id);
 CREATE INDEX idx_audit_entity ON audit_log(entity_type, entity_id);
-CREATE INDEX idx_audit_timestamp ON audit_log(timestamp);
\ No newline at end of file
+CREATE INDEX idx_audit_timestamp ON audit_log(timestamp, id);
+-- range scans of the delta sync
+CREATE INDEX idx_employee_updated_at ON employees(updated_at);
+CREATE INDEX idx_department_updated_at ON departments(updated_at);
+CREATE INDEX idx_deleted_records_deleted_at ON deleted_records(deleted_at, entity_type);
\ No newline at end of file
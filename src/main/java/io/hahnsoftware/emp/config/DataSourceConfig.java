@@ -0,0 +1,27 @@
+package io.hahnsoftware.emp.config;
+
+import io.hahnsoftware.emp.dao.AuditLogWriter;
+import io.hahnsoftware.emp.util.DatabaseConnection;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+public class DataSourceConfig {
+
+    // reuse the pool the DAOs borrow from instead of letting spring open a second one
+    @Bean(destroyMethod = "")
+    public DataSource dataSource() throws SQLException {
+        return DatabaseConnection.getDataSource();
+    }
+
+    // flush the queued audit rows before the pool goes away
+    @PreDestroy
+    public void shutdown() {
+        AuditLogWriter.shutdown();
+        DatabaseConnection.closeConnection();
+    }
+}
@@ -1,6 +1,8 @@
 package io.hahnsoftware.emp.controller;
 
 import io.hahnsoftware.emp.model.AuditLog;
+import io.hahnsoftware.emp.records.AuditLogPage;
+import io.hahnsoftware.emp.records.AuditWriterStats;
 import io.hahnsoftware.emp.service.AuditService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +13,6 @@ import org.springframework.web.bind.annotation.*;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/audit")
@@ -24,8 +25,9 @@ public class AuditController {
         this.auditService = auditService;
     }
 
+    // newest first, a page at a time: pass the nextCursor of a page as cursor to get the following one
     @GetMapping("/logs")
-    public ResponseEntity<List<AuditLog>> getAuditLogs(
+    public ResponseEntity<AuditLogPage> getAuditLogs(
             @RequestParam(required = false) String entityType,
             @RequestParam(required = false) String action,
             @RequestParam(required = false)
@@ -33,16 +35,36 @@ public class AuditController {
             LocalDate startDate,
             @RequestParam(required = false)
             @DateTimeFormat(pattern = "yyyy-MM-dd")
-            LocalDate endDate) {
+            LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
         try {
             // Convert LocalDate to LocalDateTime for midnight start and end of day
             LocalDateTime startDateTime = startDate != null ? startDate.atStartOfDay() : null;
             LocalDateTime endDateTime = endDate != null ? endDate.plusDays(1).atStartOfDay() : null;
 
-            List<AuditLog> logs = auditService.getAuditLogs(entityType, action, startDateTime, endDateTime);
-            return ResponseEntity.ok(logs);
+            return ResponseEntity.ok(auditService.getAuditLogPage(entityType, action, startDateTime, endDateTime,
+                    cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to fetch audit logs", e);
         }
     }
+
+    // the listed changes are cut short, the whole entry is read here
+    @GetMapping("/logs/{id}")
+    public ResponseEntity<AuditLog> getAuditLog(@PathVariable Long id) {
+        try {
+            AuditLog log = auditService.getAuditLog(id);
+            return log != null ? ResponseEntity.ok(log) : ResponseEntity.notFound().build();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to fetch audit log", e);
+        }
+    }
+
+    @GetMapping("/writer/metrics")
+    public ResponseEntity<AuditWriterStats> getWriterMetrics() {
+        return ResponseEntity.ok(auditService.getWriterStats());
+    }
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package io.hahnsoftware.emp.controller;
 
+import io.hahnsoftware.emp.dao.StaleVersionException;
 import io.hahnsoftware.emp.dto.DepartmentDTO;
 import io.hahnsoftware.emp.model.Department;
+import io.hahnsoftware.emp.records.DepartmentCacheStats;
+import io.hahnsoftware.emp.records.ResourceVersion;
 import io.hahnsoftware.emp.service.DepartmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,6 +17,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.sql.SQLException;
 import java.util.List;
@@ -57,9 +61,18 @@ public class DepartmentController {
         @ApiResponse(responseCode = "404", description = "Department not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Department> getDepartmentById(
-            @Parameter(description = "Department ID") @PathVariable Long id) {
+    public ResponseEntity<?> getDepartmentById(
+            @Parameter(description = "Department ID") @PathVariable Long id,
+            @Parameter(description = "Comma separated fields to return, id is always included")
+            @RequestParam(required = false) String fields) {
         try {
+            if (fields != null) {
+                List<String> selection = parseFields(fields);
+                if (selection == null) {
+                    return ResponseEntity.badRequest().build();
+                }
+                return ResponseEntity.ok(departmentService.getDepartmentFieldsById(id, selection));
+            }
             return ResponseEntity.ok(departmentService.getDepartmentById(id));
         } catch (SQLException e) {
             throw new RuntimeException("Failed to fetch department", e);
@@ -82,21 +95,48 @@ public class DepartmentController {
     }
 
     @Operation(summary = "Get all departments")
-    @ApiResponse(responseCode = "200", description = "List of all departments")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "List of all departments"),
+        @ApiResponse(responseCode = "304", description = "Unchanged since the ETag sent by the client")
+    })
     @GetMapping
-    public ResponseEntity<List<Department>> getAllDepartments() {
+    public ResponseEntity<List<?>> getAllDepartments(
+            @Parameter(description = "Comma separated fields to return, id is always included")
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        List<String> selection = fields != null ? parseFields(fields) : null;
+        if (fields != null && selection == null) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            return ResponseEntity.ok(departmentService.getAllDepartments());
+            // sets the ETag, or the 304 status when the client copy is current. no Last-Modified, a deleted
+            // department does not move the newest updated_at. the body is read at this version, the cached list is
+            // dropped when another writer moved it on
+            ResourceVersion version = departmentService.getDepartmentsVersion();
+            if (webRequest.checkNotModified(version.eTag("fields=" + selection))) {
+                return null;
+            }
+            if (selection != null) {
+                return ResponseEntity.ok(departmentService.getAllDepartmentFields(selection, version));
+            }
+            return ResponseEntity.ok(departmentService.getAllDepartments(version));
         } catch (SQLException e) {
             throw new RuntimeException("Failed to fetch departments", e);
         }
     }
 
+    @Operation(summary = "Department cache hit, miss and eviction counters")
+    @GetMapping("/cache/metrics")
+    public ResponseEntity<DepartmentCacheStats> getCacheMetrics() {
+        return ResponseEntity.ok(departmentService.getCacheStats());
+    }
+
     @Operation(summary = "Update department")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Department updated"),
         @ApiResponse(responseCode = "404", description = "Department not found"),
-        @ApiResponse(responseCode = "400", description = "Invalid input")
+        @ApiResponse(responseCode = "400", description = "Invalid input"),
+        @ApiResponse(responseCode = "409", description = "The version sent is no longer the stored one")
     })
     @PutMapping("/{id}")
     public ResponseEntity<Department> updateDepartment(
@@ -104,6 +144,8 @@ public class DepartmentController {
             @RequestBody DepartmentDTO department) {
         try {
             return ResponseEntity.ok(departmentService.updateDepartment(department, id));
+        } catch (StaleVersionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update department", e);
         }
@@ -124,4 +166,13 @@ public class DepartmentController {
             throw new RuntimeException("Failed to delete department", e);
         }
     }
+
+    // null when a field is not allowed
+    private List<String> parseFields(String fields) {
+        try {
+            return departmentService.parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
\ No newline at end of file
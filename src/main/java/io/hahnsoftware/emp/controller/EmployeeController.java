@@ -1,18 +1,40 @@
 package io.hahnsoftware.emp.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.hahnsoftware.emp.dao.StaleVersionException;
 import io.hahnsoftware.emp.dto.EmployeeDto;
 import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.model.PageResult;
 import io.hahnsoftware.emp.model.SearchCriteria;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.records.BulkCreateResponse;
+import io.hahnsoftware.emp.records.BulkEmployeeRow;
+import io.hahnsoftware.emp.records.EmployeeBatchResponse;
+import io.hahnsoftware.emp.records.ResourceVersion;
 import io.hahnsoftware.emp.service.EmployeeService;
+import io.hahnsoftware.emp.service.EmployeeView;
+import io.hahnsoftware.emp.service.ExportFormat;
+import io.hahnsoftware.emp.util.UserContext;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/employees")
@@ -38,54 +60,263 @@ public class EmployeeController {
         }
     }
 
-    @Operation(summary = "Get employee by ID")
+    @Operation(summary = "Create employees in bulk",
+            description = "Validates every row first, then inserts the valid ones in batches. " +
+                    "Returns the outcome of each row in request order, invalid rows are skipped.")
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkCreateResponse> createEmployeesBulk(@RequestBody List<BulkEmployeeRow> rows) {
+        try {
+            return ResponseEntity.ok(employeeService.createEmployeesBulk(rows));
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create employees", e);
+        }
+    }
+
+    @Operation(summary = "Get employee by ID",
+            description = "fields=a,b,... returns only those fields, the id is always included. " +
+                    "Answers If-None-Match and If-Modified-Since with 304 when the employee is unchanged.")
     @GetMapping("/{id}")
-    public ResponseEntity<Employee> getEmployee(
-            @Parameter(description = "Employee ID") @PathVariable Long id) {
+    public ResponseEntity<?> getEmployee(
+            @Parameter(description = "Employee ID") @PathVariable Long id,
+            @Parameter(description = "Comma separated fields to return") @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        List<String> selection = fields != null ? parseFields(fields) : null;
+        if (fields != null && selection == null) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
+            // an unknown id has no version and falls through to the not found below
+            ResourceVersion version = employeeService.getEmployeeVersion(id);
+            if (version != null && notModified(webRequest, version, null, selection)) {
+                return null;
+            }
+            if (selection != null) {
+                return ResponseEntity.ok(employeeService.getEmployeeFieldsById(id, selection));
+            }
             return ResponseEntity.ok(employeeService.getEmployeeById(id));
         } catch (SQLException e) {
             throw new RuntimeException("Failed to fetch employee", e);
         }
     }
 
-    @Operation(summary = "Get all employees")
+    @Operation(summary = "Get all employees",
+            description = "view=summary returns flat rows with department and manager names instead of full entities. " +
+                    "fields=a,b,... returns only those fields and takes precedence over view.")
     @GetMapping
-    public ResponseEntity<List<Employee>> getAllEmployees() {
+    public ResponseEntity<List<?>> getAllEmployees(
+            @Parameter(description = "full or summary") @RequestParam(defaultValue = "full") String view,
+            @Parameter(description = "Comma separated fields to return") @RequestParam(required = false) String fields) {
+        EmployeeView employeeView = EmployeeView.fromName(view);
+        List<String> selection = fields != null ? parseFields(fields) : null;
+        if (employeeView == null || (fields != null && selection == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            if (selection != null) {
+                return ResponseEntity.ok(employeeService.getAllEmployeeFields(selection));
+            }
+            return ResponseEntity.ok(employeeView == EmployeeView.SUMMARY
+                    ? employeeService.getAllEmployeeSummaries()
+                    : employeeService.getAllEmployees());
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to fetch employees", e);
+        }
+    }
+
+    @Operation(summary = "Get employees by id",
+            description = "Returns the employees in the order of ids, each id once, and lists the ids that do not " +
+                    "exist in missingIds. view and fields work as for the full list. Use POST /lookup for long lists.")
+    @GetMapping(params = "ids")
+    public ResponseEntity<EmployeeBatchResponse> getEmployeesByIds(
+            @Parameter(description = "Comma separated employee ids") @RequestParam List<Long> ids,
+            @Parameter(description = "full or summary") @RequestParam(defaultValue = "full") String view,
+            @Parameter(description = "Comma separated fields to return") @RequestParam(required = false) String fields) {
+        return lookupEmployees(ids, view, fields);
+    }
+
+    @Operation(summary = "Get employees by id, with the ids in the body",
+            description = "Same as GET with ids for lists too long for a URL, up to 10000 ids.")
+    @PostMapping("/lookup")
+    public ResponseEntity<EmployeeBatchResponse> lookupEmployees(
+            @RequestBody List<Long> ids,
+            @Parameter(description = "full or summary") @RequestParam(defaultValue = "full") String view,
+            @Parameter(description = "Comma separated fields to return") @RequestParam(required = false) String fields) {
+        EmployeeView employeeView = EmployeeView.fromName(view);
+        List<String> selection = fields != null ? parseFields(fields) : null;
+        if (employeeView == null || (fields != null && selection == null)) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            return ResponseEntity.ok(employeeService.getAllEmployees());
+            return ResponseEntity.ok(employeeService.getEmployeesByIds(ids, employeeView, selection));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to fetch employees", e);
         }
     }
 
-    @Operation(summary = "Get all managers")
+    @Operation(summary = "Get all managers",
+            description = "view=summary returns flat rows with department and manager names instead of full entities. " +
+                    "fields=a,b,... returns only those fields and takes precedence over view. " +
+                    "Answers If-None-Match with 304 when no manager changed.")
     @GetMapping("/managers")
-    public ResponseEntity<List<Employee>> getAllManagers() {
+    public ResponseEntity<List<?>> getAllManagers(
+            @Parameter(description = "full or summary") @RequestParam(defaultValue = "full") String view,
+            @Parameter(description = "Comma separated fields to return") @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        EmployeeView employeeView = EmployeeView.fromName(view);
+        List<String> selection = fields != null ? parseFields(fields) : null;
+        if (employeeView == null || (fields != null && selection == null)) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            return ResponseEntity.ok(employeeService.getAllManagers());
+            if (listNotModified(webRequest, employeeService.getManagersVersion(), employeeView, selection)) {
+                return null;
+            }
+            if (selection != null) {
+                return ResponseEntity.ok(employeeService.getAllManagerFields(selection));
+            }
+            return ResponseEntity.ok(employeeView == EmployeeView.SUMMARY
+                    ? employeeService.getAllManagerSummaries()
+                    : employeeService.getAllManagers());
         } catch (SQLException e) {
             throw new RuntimeException("Failed to fetch managers", e);
         }
     }
 
-    @Operation(summary = "Search employees")
+    @Operation(summary = "Search employees",
+            description = "Returns one page of matching employees with the total count. " +
+                    "Pass the returned nextCursor back as cursor to read the next page with keyset pagination. " +
+                    "view=summary returns flat rows instead of full entities.")
     @PostMapping("/search")
-    public ResponseEntity<List<Employee>> searchEmployees(@RequestBody SearchCriteria criteria) {
+    public ResponseEntity<PageResult<?>> searchEmployees(
+            @RequestBody SearchCriteria criteria,
+            @Parameter(description = "full or summary") @RequestParam(defaultValue = "full") String view) {
+        EmployeeView employeeView = EmployeeView.fromName(view);
+        if (employeeView == null) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            return ResponseEntity.ok(employeeService.searchEmployees(criteria));
+            return ResponseEntity.ok(employeeView == EmployeeView.SUMMARY
+                    ? employeeService.searchEmployeeSummaries(criteria)
+                    : employeeService.searchEmployees(criteria));
+        } catch (IllegalArgumentException e) {
+            // a malformed cursor or an unknown sort field
+            return ResponseEntity.badRequest().build();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to search employees", e);
         }
     }
 
-    @Operation(summary = "Update employee")
+    @Operation(summary = "Export employees",
+            description = "Streams the employees matching the filters that the caller may see, as CSV or NDJSON. " +
+                    "Rows are written while they are read, so the export does not load the whole table in memory.")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String jobTitle,
+            @RequestParam(required = false) String employeeId,
+            @RequestParam(required = false)
+            @DateTimeFormat(pattern = "yyyy-MM-dd")
+            LocalDate startDate,
+            @RequestParam(required = false)
+            @DateTimeFormat(pattern = "yyyy-MM-dd")
+            LocalDate endDate,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "ASC") String sortDirection) {
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        SearchCriteria criteria = new SearchCriteria()
+                .withName(name)
+                .withDepartment(department)
+                .withStatus(status)
+                .withJobTitle(jobTitle)
+                .withEmployeeId(employeeId)
+                .withDateRange(startDate, endDate)
+                .withSort(sortBy, sortDirection);
+        // once the body streams the status is sent, bad criteria must be refused before
+        try {
+            employeeService.checkSearchCriteria(criteria);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // the body is written on another thread, capture the caller of this request now
+        ActingUser caller = UserContext.current();
+
+        StreamingResponseBody body = out -> {
+            try {
+                employeeService.exportEmployees(criteria, exportFormat, caller, out);
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to export employees", e);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"employees." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    @Operation(summary = "Import employees from CSV",
+            description = "Reads the CSV body as a stream, with a header line naming the columns. " +
+                    "Streams back one NDJSON line per rejected row and a final summary with the throughput. " +
+                    "With dryRun=true rows are only validated and nothing is written.")
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<StreamingResponseBody> importEmployees(
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            InputStream csv) {
+        // the body is written on another thread, capture the caller of this request now
+        ActingUser caller = UserContext.current();
+
+        StreamingResponseBody body = out -> {
+            UserContext.bind(caller);
+            try {
+                employeeService.importEmployees(new InputStreamReader(csv, StandardCharsets.UTF_8), dryRun, out);
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to import employees", e);
+            } finally {
+                UserContext.clear();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportFormat.NDJSON.getContentType()))
+                .body(body);
+    }
+
+    @Operation(summary = "Update employee",
+            description = "Send the version of the employee that was read, 409 means it was changed since.")
     @PutMapping("/{id}")
     public ResponseEntity<Employee> updateEmployee(
             @PathVariable Long id,
             @RequestBody EmployeeDto employee) {
         try {
             return ResponseEntity.ok(employeeService.updateEmployee(id, employee));
+        } catch (StaleVersionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update employee", e);
+        }
+    }
+
+    @Operation(summary = "Partially update employee",
+            description = "JSON merge patch: members set a field, null clears it, absent fields stay as they are. " +
+                    "Only the sent fields are validated and written. An optional version member must match the " +
+                    "stored version, 409 otherwise. Returns the id, the written fields and the new version.")
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Map<String, Object>> patchEmployee(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch) {
+        try {
+            return ResponseEntity.ok(employeeService.patchEmployee(id, patch));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (StaleVersionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update employee", e);
         }
@@ -114,4 +345,33 @@ public class EmployeeController {
             throw new RuntimeException("Failed to delete employee", e);
         }
     }
+
+    /**
+     * compares the request validators with the version, the ETag varies with the representation and the caller
+     * since full entities carry isCurrentUserManager. checkNotModified sets ETag and Last-Modified on the response
+     * and the 304 status when they match, the handler then returns null instead of a body.
+     */
+    private static boolean notModified(WebRequest webRequest, ResourceVersion version, EmployeeView view,
+                                       List<String> selection) {
+        return webRequest.checkNotModified(eTag(version, view, selection), version.lastModifiedMillis());
+    }
+
+    // a list is compared by ETag only, a row deleted from it or leaving it does not move its newest updated_at
+    private static boolean listNotModified(WebRequest webRequest, ResourceVersion version, EmployeeView view,
+                                           List<String> selection) {
+        return webRequest.checkNotModified(eTag(version, view, selection));
+    }
+
+    private static String eTag(ResourceVersion version, EmployeeView view, List<String> selection) {
+        return version.eTag("view=" + view + ";fields=" + selection + ";caller=" + UserContext.currentUserId());
+    }
+
+    // null when a field is not allowed
+    private List<String> parseFields(String fields) {
+        try {
+            return employeeService.parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package io.hahnsoftware.emp.controller;
+
+import io.hahnsoftware.emp.records.SyncResponse;
+import io.hahnsoftware.emp.service.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.sql.SQLException;
+
+@RestController
+@RequestMapping("/api/sync")
+@Tag(name = "Sync", description = "Incremental sync of employees and departments")
+@SecurityRequirement(name = "bearer-jwt")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    @Operation(summary = "Employees and departments changed since a sync token",
+            description = "Without since every row is returned. Pass the returned token as since on the next call " +
+                    "to get only the rows created, updated or deleted after it. Rows changed close to the token " +
+                    "can be returned again and should be applied as upserts. A token older than the retention of " +
+                    "deleted rows gets a full response, flagged by full.")
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(
+            @Parameter(description = "Token of the previous sync") @RequestParam(required = false) String since) {
+        try {
+            return ResponseEntity.ok(syncService.sync(since));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to sync", e);
+        }
+    }
+}
@@ -2,22 +2,34 @@ package io.hahnsoftware.emp.dao;
 
 
 import io.hahnsoftware.emp.model.AuditLog;
-import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.records.AuditLogPage;
+import io.hahnsoftware.emp.records.AuditLogSummary;
 import io.hahnsoftware.emp.util.DatabaseConnection;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
 public class AuditDAO {
-    private final Connection connection;
+    // characters of the changes a listed entry carries
+    static final int CHANGES_PREVIEW_LENGTH = 200;
+    private static final int MAX_PAGE_SIZE = 200;
 
+    // the columns of AuditLogSummary in record order, read by index. the CLOB is cut in the database and its length
+    // read alongside, a VARCHAR2 of 4 bytes per character holds any 200 characters
+    private static final String SUMMARY_SELECT = "SELECT a.id, a.action, a.entity_type, a.entity_id, a.employee_id, " +
+            "u.username, a.timestamp, CAST(SUBSTR(a.changes, 1, " + CHANGES_PREVIEW_LENGTH + ") AS VARCHAR2(" +
+            (4 * CHANGES_PREVIEW_LENGTH) + ")), LENGTH(a.changes) " +
+            "FROM audit_log a " +
+            "LEFT JOIN employees u ON u.id = a.employee_id";
 
     private final EmployeeDAO employeeDAO;
-
-
-    private static Employee actionUser;
+    // null for the shared writer of the process, resolved on the first logged action
+    private final AuditLogWriter writer;
 
 
     public enum ActionAudit {
@@ -30,74 +42,148 @@ public class AuditDAO {
         DEPARTMENT
     }
     public AuditDAO(EmployeeDAO employeeDAO) throws SQLException {
+        this(employeeDAO, null);
+    }
+
+    AuditDAO(EmployeeDAO employeeDAO, AuditLogWriter writer) {
         this.employeeDAO = employeeDAO;
-        this.connection = DatabaseConnection.getConnection();
+        this.writer = writer;
     }
     
+    // queued for the background writer, the row is inserted with the next batch
     public void logAction(String action, String entityType, Long entityId, Long employee_id, String changes) throws SQLException {
-        String sql = "INSERT INTO audit_log (action, entity_type, entity_id, employee_id, timestamp, changes) " +
-                    "VALUES (?, ?, ?, ?, ?,?)";
-                    
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, action);
-            stmt.setString(2, entityType);
-            stmt.setLong(3, entityId);
-            stmt.setLong(4, employee_id);
-            stmt.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
-            stmt.setString(6, changes);
-            
-            stmt.executeUpdate();
-            connection.commit();
-        } catch (SQLException e) {
-            connection.rollback();
-            throw e;
+        writer().enqueue(action, entityType, entityId, employee_id, changes);
+    }
+
+    private AuditLogWriter writer() {
+        return writer != null ? writer : AuditLogWriter.getInstance();
+    }
+
+    // written with the caller's transaction, so the audit rows commit or roll back together with the change
+    void logActions(Connection connection, List<AuditLogWriter.AuditEntry> entries) throws SQLException {
+        if (!entries.isEmpty()) {
+            AuditLogWriter.insertEntries(connection, entries);
         }
     }
     
-    public List<AuditLog> getAuditLogs(String entityType, String action,
-                                       LocalDateTime startDate, LocalDateTime endDate) throws SQLException {
-        List<AuditLog> auditLogs = new ArrayList<>();
-        StringBuilder sql = new StringBuilder("SELECT * FROM audit_log WHERE 1=1");
+    /**
+     * one page of the entries matching the filters, newest first, paged with a (timestamp, id) keyset: cursor is
+     * the nextCursor of the previous page, null for the first. the changes are cut to CHANGES_PREVIEW_LENGTH
+     * characters in the query, so the CLOB is never read whole for a list.
+     */
+    public AuditLogPage getAuditLogPage(String entityType, String action, LocalDateTime startDate,
+                                        LocalDateTime endDate, String cursor, int size) throws SQLException {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        StringBuilder sql = new StringBuilder(SUMMARY_SELECT).append(" WHERE 1=1");
         List<Object> params = new ArrayList<>();
         
         if (entityType != null) {
-            sql.append(" AND entity_type = ?");
+            sql.append(" AND a.entity_type = ?");
             params.add(entityType);
         }
         
         if (action != null) {
-            sql.append(" AND action = ?");
+            sql.append(" AND a.action = ?");
             params.add(action);
         }
         
         if (startDate != null) {
-            sql.append(" AND timestamp >= ?");
+            sql.append(" AND a.timestamp >= ?");
             params.add(Timestamp.valueOf(startDate));
         }
         
         if (endDate != null) {
-            sql.append(" AND timestamp <= ?");
+            sql.append(" AND a.timestamp <= ?");
             params.add(Timestamp.valueOf(endDate));
         }
-        
-        sql.append(" ORDER BY timestamp DESC");
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+
+        // seeks past the last entry of the previous page instead of skipping rows with OFFSET
+        if (cursor != null && !cursor.isEmpty()) {
+            Object[] position = decodeCursor(cursor);
+            sql.append(" AND (a.timestamp < ? OR (a.timestamp = ? AND a.id < ?))");
+            params.add(position[0]);
+            params.add(position[0]);
+            params.add(position[1]);
+        }
+
+        // one row more than the page tells whether another page follows without counting
+        sql.append(" ORDER BY a.timestamp DESC, a.id DESC FETCH NEXT ? ROWS ONLY");
+        params.add(pageSize + 1);
+
+        List<AuditLogSummary> items = new ArrayList<>();
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
             for (int i = 0; i < params.size(); i++) {
                 stmt.setObject(i + 1, params.get(i));
             }
             
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    auditLogs.add(mapResultSetToAuditLog(rs));
+                    items.add(mapResultSetToSummary(rs));
                 }
             }
         }
-        
-        return auditLogs;
+
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            AuditLogSummary last = items.get(pageSize - 1);
+            nextCursor = encodeCursor(last.timestamp(), last.id());
+        }
+        return new AuditLogPage(List.copyOf(items), pageSize, nextCursor);
     }
-    
-    private AuditLog mapResultSetToAuditLog(ResultSet rs) throws SQLException {
+
+    // one entry with its full changes and the employee who made them, null when the id does not exist
+    public AuditLog findById(Long id) throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement("SELECT * FROM audit_log WHERE id = ?")) {
+            stmt.setLong(1, id);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapResultSetToAuditLog(connection, rs) : null;
+            }
+        }
+    }
+
+    // by column index in the order of SUMMARY_SELECT
+    private AuditLogSummary mapResultSetToSummary(ResultSet rs) throws SQLException {
+        long employeeId = rs.getLong(5);
+        Long employee = rs.wasNull() ? null : employeeId;
+        Timestamp timestamp = rs.getTimestamp(7);
+        return new AuditLogSummary(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getLong(4),
+                employee,
+                rs.getString(6),
+                timestamp != null ? timestamp.toLocalDateTime() : null,
+                rs.getString(8),
+                rs.getLong(9) > CHANGES_PREVIEW_LENGTH
+        );
+    }
+
+    // the cursor is the timestamp and id of the last entry of a page
+    private static String encodeCursor(LocalDateTime timestamp, Long id) {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new Object[]{Timestamp.valueOf(LocalDateTime.parse(raw.substring(0, separator))),
+                    Long.parseLong(raw.substring(separator + 1))};
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private AuditLog mapResultSetToAuditLog(Connection connection, ResultSet rs) throws SQLException {
         AuditLog auditLog = new AuditLog();
         auditLog.setId(rs.getLong("id"));
         auditLog.setAction(rs.getString("action"));
@@ -109,21 +195,11 @@ public class AuditDAO {
         if (employeeDAO != null) {
             Long userId = rs.getLong("employee_id");
             if (!rs.wasNull()) {
-                auditLog.setEmployee(employeeDAO.findById(userId));
+                auditLog.setEmployee(employeeDAO.findById(connection, userId));
             }
         }
 
         return auditLog;
     }
 
-    // get current logged user
-    public static Employee getActionUser() {
-        return actionUser;
-    }
-
-    // set current logged user
-    public static void setActionUser(Employee actionUser) {
-        AuditDAO.actionUser = actionUser;
-    }
-
 }
\ No newline at end of file
@@ -0,0 +1,286 @@
+package io.hahnsoftware.emp.dao;
+
+import io.hahnsoftware.emp.records.AuditWriterStats;
+import io.hahnsoftware.emp.util.DatabaseConnection;
+import io.hahnsoftware.emp.util.DatabaseProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * writes audit rows off the request path. {@link #enqueue} puts the row in a bounded queue and a background
+ * thread drains it with JDBC batch inserts and one commit per batch, flushing when the batch is full or the
+ * flush interval is over. when the queue stays full for longer than the enqueue timeout the caller writes
+ * its row itself, which slows producers down without dropping audit records. a batch that fails is written
+ * again one row at a time, so a bad row, e.g. of an employee deleted while its entries were queued, loses only
+ * itself. a row failing with a transient error is tried up to WRITE_ATTEMPTS times.
+ */
+public class AuditLogWriter {
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO audit_log (action, entity_type, entity_id, employee_id, timestamp, changes) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final int WRITE_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 100;
+
+    private static AuditLogWriter instance;
+
+    @FunctionalInterface
+    interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    record AuditEntry(String action, String entityType, Long entityId, Long employeeId,
+                      LocalDateTime timestamp, String changes) {
+    }
+
+    private final BlockingQueue<AuditEntry> queue;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long enqueueTimeoutMs;
+    private final ConnectionSupplier connectionSupplier;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // metrics
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong callerRunsWrites = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong totalFlushMillis = new AtomicLong();
+    private final AtomicInteger maxBatchSize = new AtomicInteger();
+    private final AtomicLong maxFlushMillis = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile long lastFlushMillis;
+
+    AuditLogWriter(int capacity, int batchSize, long flushIntervalMs, long enqueueTimeoutMs,
+                   ConnectionSupplier connectionSupplier) {
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.connectionSupplier = connectionSupplier;
+        this.worker = new Thread(this::run, "audit-log-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    // shared writer of the process, created on first use and flushed when the JVM exits
+    public static synchronized AuditLogWriter getInstance() {
+        if (instance == null) {
+            Properties props = DatabaseProperties.loadOrDefaults();
+            instance = new AuditLogWriter(
+                    DatabaseProperties.intProperty(props, "audit.queue.capacity", 10000),
+                    DatabaseProperties.intProperty(props, "audit.batch.size", 200),
+                    DatabaseProperties.longProperty(props, "audit.flush.intervalMs", 200),
+                    DatabaseProperties.longProperty(props, "audit.enqueue.timeoutMs", 1000),
+                    DatabaseConnection::getConnection
+            );
+            Runtime.getRuntime().addShutdownHook(new Thread(AuditLogWriter::shutdown, "audit-log-writer-shutdown"));
+        }
+        return instance;
+    }
+
+    // stop accepting work in the background and write everything still queued
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    public void enqueue(String action, String entityType, Long entityId, Long employeeId, String changes) throws SQLException {
+        AuditEntry entry = new AuditEntry(action, entityType, entityId, employeeId, LocalDateTime.now(), changes);
+        enqueued.incrementAndGet();
+        try {
+            if (running && queue.offer(entry, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // queue full for too long or writer stopped, write on the caller thread
+        callerRunsWrites.incrementAndGet();
+        writeBatch(List.of(entry));
+    }
+
+    void close() {
+        // the worker sees the flag within one flush interval, it is not interrupted so a running JDBC call can finish
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // entries offered while the worker was stopping are written here
+        List<AuditEntry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    public AuditWriterStats getStats() {
+        long batchCount = batches.get();
+        return new AuditWriterStats(
+                queue.size(),
+                capacity,
+                enqueued.get(),
+                written.get(),
+                failed.get(),
+                callerRunsWrites.get(),
+                batchCount,
+                lastBatchSize,
+                maxBatchSize.get(),
+                batchCount == 0 ? 0 : (double) written.get() / batchCount,
+                lastFlushMillis,
+                maxFlushMillis.get(),
+                batchCount == 0 ? 0 : (double) totalFlushMillis.get() / batchCount
+        );
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            List<AuditEntry> batch = new ArrayList<>(batchSize);
+            try {
+                AuditEntry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // group commit, keep collecting until the batch is full or the flush interval is over
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    AuditEntry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            queue.drainTo(batch, batchSize - batch.size());
+
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        }
+    }
+
+    // the batch in one transaction, or row by row when that fails so only the failing rows are lost
+    private void write(List<AuditEntry> batch) {
+        try {
+            writeBatch(batch);
+            return;
+        } catch (SQLException e) {
+            if (batch.size() == 1) {
+                retry(batch.get(0), e);
+                return;
+            }
+            log.warn("Failed to write {} audit entries, writing them one at a time", batch.size(), e);
+        }
+        for (AuditEntry entry : batch) {
+            try {
+                writeBatch(List.of(entry));
+            } catch (SQLException e) {
+                retry(entry, e);
+            }
+        }
+    }
+
+    // a transient failure is tried again with a growing delay, any other failure loses the row right away
+    private void retry(AuditEntry entry, SQLException failure) {
+        for (int attempt = 2; attempt <= WRITE_ATTEMPTS && isTransient(failure); attempt++) {
+            try {
+                Thread.sleep(RETRY_DELAY_MS * (attempt - 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            try {
+                writeBatch(List.of(entry));
+                return;
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+        failed.incrementAndGet();
+        log.error("Lost audit entry: {}", entry, failure);
+    }
+
+    private static boolean isTransient(SQLException e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e.getNextException();
+        return e instanceof SQLTransientException || e instanceof SQLRecoverableException
+                || cause instanceof SQLTransientException || cause instanceof SQLRecoverableException;
+    }
+
+    private void writeBatch(List<AuditEntry> batch) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = connectionSupplier.get()) {
+            try {
+                insertEntries(connection, batch);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        written.addAndGet(batch.size());
+        batches.incrementAndGet();
+        totalFlushMillis.addAndGet(elapsed);
+        lastBatchSize = batch.size();
+        maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+        lastFlushMillis = elapsed;
+        maxFlushMillis.accumulateAndGet(elapsed, Math::max);
+    }
+
+    // one batched insert on the given connection, the caller owns the transaction
+    static void insertEntries(Connection connection, List<AuditEntry> entries) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL)) {
+            for (AuditEntry entry : entries) {
+                stmt.setString(1, entry.action());
+                stmt.setString(2, entry.entityType());
+                stmt.setLong(3, entry.entityId());
+                if (entry.employeeId() != null) {
+                    stmt.setLong(4, entry.employeeId());
+                } else {
+                    stmt.setNull(4, Types.NUMERIC);
+                }
+                stmt.setTimestamp(5, Timestamp.valueOf(entry.timestamp()));
+                stmt.setString(6, entry.changes());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package io.hahnsoftware.emp.dao;
+
+import io.hahnsoftware.emp.model.Department;
+import io.hahnsoftware.emp.records.DepartmentCacheStats;
+import io.hahnsoftware.emp.records.ResourceVersion;
+import io.hahnsoftware.emp.util.DatabaseProperties;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * read-through cache of departments by id and by name, shared by every {@link DepartmentDAO} of the process.
+ * entries expire after the TTL and the least recently used one is evicted once the cache is full.
+ * writes go to the database first and then invalidate the entries they touched. a load that overlaps an
+ * invalidation is returned to its caller but not stored, so a stale row never goes back into the cache.
+ * writes of other processes are not seen that way: the list can be read against a database version, and the whole
+ * cache is dropped when the version differs from the one the cached list was loaded at.
+ * callers get copies and can change them freely, the manager employee is shared.
+ */
+public class DepartmentCache {
+    private static DepartmentCache instance;
+
+    @FunctionalInterface
+    interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    private record Entry(Department department, long loadedAt) {
+    }
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<Long, Entry> byId;
+    private final Map<String, Long> idByName = new HashMap<>();
+    // ids returned by the last findAll, in order, and the database version read before that load
+    private List<Long> allIds;
+    private long allLoadedAt;
+    private ResourceVersion allVersion;
+    // bumped by every invalidation, loads that started before it are not stored
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    DepartmentCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > DepartmentCache.this.maxSize) {
+                    idByName.remove(eldest.getValue().department().getName());
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static synchronized DepartmentCache getInstance() {
+        if (instance == null) {
+            Properties props = DatabaseProperties.loadOrDefaults();
+            instance = new DepartmentCache(
+                    DatabaseProperties.intProperty(props, "cache.department.maxSize", 500),
+                    TimeUnit.SECONDS.toMillis(DatabaseProperties.longProperty(props, "cache.department.ttlSeconds", 300)),
+                    System::currentTimeMillis
+            );
+        }
+        return instance;
+    }
+
+    Department getById(Long id, Loader<Department> loader) throws SQLException {
+        long loadGeneration;
+        synchronized (this) {
+            Department cached = lookup(id);
+            if (cached != null) {
+                hits++;
+                return copy(cached);
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+        return store(loader.load(), loadGeneration);
+    }
+
+    Department getByName(String name, Loader<Department> loader) throws SQLException {
+        long loadGeneration;
+        synchronized (this) {
+            Long id = idByName.get(name);
+            Department cached = id != null ? lookup(id) : null;
+            if (cached != null) {
+                hits++;
+                return copy(cached);
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+        return store(loader.load(), loadGeneration);
+    }
+
+    List<Department> getAll(Loader<List<Department>> loader) throws SQLException {
+        return getAll(null, loader);
+    }
+
+    /**
+     * the list at version or newer. version must be read from the database before this call, a cached list loaded
+     * at another version is dropped together with every department, which may be just as stale. null takes the
+     * cached list whatever its version.
+     */
+    List<Department> getAll(ResourceVersion version, Loader<List<Department>> loader) throws SQLException {
+        long loadGeneration;
+        synchronized (this) {
+            if (version != null && allIds != null && !version.equals(allVersion)) {
+                invalidateAll();
+            }
+            List<Department> cached = cachedAll();
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        List<Department> departments = loader.load();
+        synchronized (this) {
+            if (loadGeneration == generation && departments.size() <= maxSize) {
+                List<Long> ids = new ArrayList<>(departments.size());
+                for (Department department : departments) {
+                    put(department);
+                    ids.add(department.getId());
+                }
+                allIds = ids;
+                allLoadedAt = clock.getAsLong();
+                allVersion = version;
+            }
+        }
+        // the cache keeps its own copies, the loaded objects go to the caller as they are
+        return departments;
+    }
+
+    // drop one department, and the cached list it is part of
+    public synchronized void invalidate(Long id) {
+        Entry removed = byId.remove(id);
+        if (removed != null) {
+            idByName.remove(removed.department().getName());
+        }
+        allIds = null;
+        generation++;
+        invalidations++;
+    }
+
+    // drop the departments whose manager is this employee, after the employee changed
+    public synchronized void invalidateManagedBy(Long employeeId) {
+        boolean found = byId.values().removeIf(entry -> {
+            Department department = entry.department();
+            if (department.getManager() != null && employeeId.equals(department.getManager().getId())) {
+                idByName.remove(department.getName());
+                return true;
+            }
+            return false;
+        });
+        if (found) {
+            allIds = null;
+            invalidations++;
+        }
+        // a load running right now may still carry the old manager
+        generation++;
+    }
+
+    public synchronized void invalidateAll() {
+        byId.clear();
+        idByName.clear();
+        allIds = null;
+        generation++;
+        invalidations++;
+    }
+
+    public synchronized DepartmentCacheStats getStats() {
+        long requests = hits + misses;
+        return new DepartmentCacheStats(
+                byId.size(),
+                maxSize,
+                ttlMillis,
+                hits,
+                misses,
+                evictions,
+                invalidations,
+                requests == 0 ? 0 : (double) hits / requests
+        );
+    }
+
+    // cached department if present and not expired, expired entries are removed
+    private Department lookup(Long id) {
+        Entry entry = byId.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry.loadedAt())) {
+            byId.remove(id);
+            idByName.remove(entry.department().getName());
+            evictions++;
+            return null;
+        }
+        return entry.department();
+    }
+
+    private List<Department> cachedAll() {
+        if (allIds == null) {
+            return null;
+        }
+        if (isExpired(allLoadedAt)) {
+            allIds = null;
+            return null;
+        }
+        List<Department> departments = new ArrayList<>(allIds.size());
+        for (Long id : allIds) {
+            Department department = lookup(id);
+            if (department == null) {
+                allIds = null;
+                return null;
+            }
+            departments.add(copy(department));
+        }
+        return departments;
+    }
+
+    private Department store(Department department, long loadGeneration) {
+        if (department == null) {
+            return null;
+        }
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                put(department);
+            }
+        }
+        return department;
+    }
+
+    private void put(Department department) {
+        Department cached = copy(department);
+        Entry previous = byId.put(cached.getId(), new Entry(cached, clock.getAsLong()));
+        if (previous != null && !previous.department().getName().equals(cached.getName())) {
+            idByName.remove(previous.department().getName());
+        }
+        idByName.put(cached.getName(), cached.getId());
+    }
+
+    private boolean isExpired(long loadedAt) {
+        return clock.getAsLong() - loadedAt >= ttlMillis;
+    }
+
+    private static Department copy(Department department) {
+        Department copy = new Department();
+        copy.setId(department.getId());
+        copy.setName(department.getName());
+        copy.setManager(department.getManager());
+        copy.setVersion(department.getVersion());
+        return copy;
+    }
+}
@@ -2,7 +2,10 @@ package io.hahnsoftware.emp.dao;
 
 import io.hahnsoftware.emp.model.Department;
 import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.records.DepartmentSummary;
+import io.hahnsoftware.emp.records.ResourceVersion;
 import io.hahnsoftware.emp.util.DatabaseConnection;
+import io.hahnsoftware.emp.util.UserContext;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -11,25 +14,31 @@ import java.util.List;
 public class DepartmentDAO {
     private final AuditDAO auditDAO;
     private final EmployeeDAO employeeDAO;
+    private final DepartmentCache cache = DepartmentCache.getInstance();
 
     public DepartmentDAO(EmployeeDAO employeeDAO) {
-        try {
-            this.employeeDAO = employeeDAO;
-            this.auditDAO = new AuditDAO(employeeDAO);
-        } catch (SQLException e) {
-            throw new RuntimeException("error initialization of the UserDAO");
-        }
+        this.employeeDAO = employeeDAO;
+        this.auditDAO = employeeDAO.auditDAO();
     }
 
     public Department findById(Long id) throws SQLException {
-        String sql = "SELECT id, name, manager_id FROM departments WHERE id = ?";
+        return cache.getById(id, () -> {
+            try (Connection connection = DatabaseConnection.getConnection()) {
+                return findById(connection, id);
+            }
+        });
+    }
+
+    // lookup on a connection already borrowed by the caller, always reads the database
+    Department findById(Connection connection, Long id) throws SQLException {
+        String sql = "SELECT id, name, manager_id, version FROM departments WHERE id = ?";
 
-        try (PreparedStatement stmt = DatabaseConnection.getConnection().prepareStatement(sql)) {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setLong(1, id);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToDepartment(rs);
+                    return mapResultSetToDepartment(connection, rs);
                 }
             }
         }
@@ -38,14 +47,60 @@ public class DepartmentDAO {
     }
 
     public List<Department> findAll() throws SQLException {
-        String sql = "SELECT id, name, manager_id FROM departments";
+        return cache.getAll(this::loadAll);
+    }
+
+    // the list at the given version of findAllVersion or newer, so a body is never older than the ETag sent with it
+    public List<Department> findAll(ResourceVersion version) throws SQLException {
+        return cache.getAll(version, this::loadAll);
+    }
+
+    /**
+     * version of the department list from an aggregate over departments and their managers, read from the
+     * database even though the list itself is cached so changes made by other instances are seen. pass it to
+     * {@link #findAll(ResourceVersion)} to read the list it describes.
+     */
+    public ResourceVersion findAllVersion() throws SQLException {
+        String sql = "SELECT COUNT(*), SUM(d.id), SUM(d.manager_id), MAX(d.updated_at), MAX(m.updated_at) " +
+                "FROM departments d LEFT JOIN employees m ON m.id = d.manager_id";
+        return EmployeeDAO.queryVersion(sql, List.of(), 5);
+    }
+
+    // departments changed since the given time for the delta sync, every department when since is null
+    public List<DepartmentSummary> findSummariesChangedSince(Timestamp since) throws SQLException {
+        String sql = "SELECT d.id, d.name, d.manager_id, m.full_name " +
+                "FROM departments d LEFT JOIN employees m ON m.id = d.manager_id" +
+                (since != null ? " WHERE d.updated_at >= ? OR m.updated_at >= ?" : "");
+        List<DepartmentSummary> departments = new ArrayList<>();
+
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            if (since != null) {
+                stmt.setTimestamp(1, since);
+                stmt.setTimestamp(2, since);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long managerId = rs.getLong(3);
+                    boolean hasManager = !rs.wasNull();
+                    departments.add(new DepartmentSummary(rs.getLong(1), rs.getString(2),
+                            hasManager ? managerId : null, rs.getString(4)));
+                }
+            }
+        }
+        return departments;
+    }
+
+    private List<Department> loadAll() throws SQLException {
+        String sql = "SELECT id, name, manager_id, version FROM departments";
         List<Department> departmentList = new ArrayList<>();
 
-        try (PreparedStatement stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
-                Department department = mapResultSetToDepartment(rs);
+                Department department = mapResultSetToDepartment(connection, rs);
                 departmentList.add(department);
             }
         }
@@ -57,125 +112,178 @@ public class DepartmentDAO {
     public Department createDepartment(Department department, boolean isAuditLogEnabled) throws SQLException {
         String sql = "INSERT INTO departments (name, manager_id) VALUES (?, ?)";
 
-        try (PreparedStatement stmt = DatabaseConnection.getConnection().prepareStatement(sql, new String[] {"id"})) {
-            // Build changes log
-            StringBuilder changes = new StringBuilder("Created department with details:\n");
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            try (PreparedStatement stmt = connection.prepareStatement(sql, new String[] {"id"})) {
+                // Build changes log
+                StringBuilder changes = new StringBuilder("Created department with details:\n");
 
-            stmt.setString(1, department.getName());
-            changes.append("Name: ").append(department.getName()).append("\n");
+                stmt.setString(1, department.getName());
+                changes.append("Name: ").append(department.getName()).append("\n");
 
-            if (department.getManager() != null) {
-                stmt.setLong(2, department.getManager().getId());
-                changes.append("Manager: ").append(department.getManager().getFullName());
-            } else {
-                stmt.setNull(2, Types.BIGINT);
-                changes.append("Manager: None");
-            }
+                if (department.getManager() != null) {
+                    stmt.setLong(2, department.getManager().getId());
+                    changes.append("Manager: ").append(department.getManager().getFullName());
+                } else {
+                    stmt.setNull(2, Types.BIGINT);
+                    changes.append("Manager: None");
+                }
 
-            stmt.executeUpdate();
+                stmt.executeUpdate();
 
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    department.setId(generatedKeys.getLong(1));
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        department.setId(generatedKeys.getLong(1));
+                    }
                 }
-            }
 
-            DatabaseConnection.getConnection().commit();
+                connection.commit();
+                cache.invalidate(department.getId());
+
+                // Log the creation
+                if (isAuditLogEnabled) {
+                    auditDAO.logAction(
+                            AuditDAO.ActionAudit.CREATE.name(),
+                            AuditDAO.Entities.DEPARTMENT.name(),
+                            department.getId(),
+                            UserContext.currentUserId(),
+                            changes.toString()
+                    );
+                }
 
-            // Log the creation
-            if (isAuditLogEnabled) {
-                auditDAO.logAction(
-                        AuditDAO.ActionAudit.CREATE.name(),
-                        AuditDAO.Entities.DEPARTMENT.name(),
-                        department.getId(),
-                        AuditDAO.getActionUser().getId(),
-                        changes.toString()
-                );
+                return department;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
             }
-
-            return department;
-        } catch (SQLException e) {
-            DatabaseConnection.getConnection().rollback();
-            throw e;
         }
     }
 
+    /**
+     * updates the department with a compare-and-set on its version and sets the new version on it. a department
+     * without a version overwrites whatever is stored, its pre-read then locks the row for the audit diff.
+     */
     public void updateDepartment(Department department) throws SQLException {
-        // Get old state for comparison
-        Department oldDepartment = findById(department.getId());
-        if (oldDepartment == null) {
-            throw new SQLException("Department not found for update.");
-        }
+        Long expectedVersion = department.getVersion();
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            // Get old state for comparison
+            Department oldDepartment = findForUpdate(connection, department.getId(), expectedVersion == null);
+            if (oldDepartment == null) {
+                throw new SQLException("Department not found for update.");
+            }
+            if (expectedVersion != null && !expectedVersion.equals(oldDepartment.getVersion())) {
+                throw new StaleVersionException("Department", department.getId());
+            }
+
+            String sql = "UPDATE departments SET name = ?, manager_id = ?, updated_at = CURRENT_TIMESTAMP, " +
+                    "version = version + 1 WHERE id = ? AND version = ?";
 
-        String sql = "UPDATE departments SET name = ?, manager_id = ? WHERE id = ?";
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setString(1, department.getName());
+                if (department.getManager() != null) {
+                    stmt.setLong(2, department.getManager().getId());
+                } else {
+                    stmt.setNull(2, Types.BIGINT);
+                }
+                stmt.setLong(3, department.getId());
+                stmt.setLong(4, oldDepartment.getVersion());
+
+                // Track changes
+                StringBuilder changes = new StringBuilder("Updated fields:\n");
+                trackChange(changes, "Name", oldDepartment.getName(), department.getName());
+                trackChange(changes, "Manager",
+                        oldDepartment.getManager() != null ? oldDepartment.getManager().getFullName() : "None",
+                        department.getManager() != null ? department.getManager().getFullName() : "None"
+                );
 
-        try (PreparedStatement stmt = DatabaseConnection.getConnection().prepareStatement(sql)) {
-            stmt.setString(1, department.getName());
-            if (department.getManager() != null) {
-                stmt.setLong(2, department.getManager().getId());
-            } else {
-                stmt.setNull(2, Types.BIGINT);
+                // no row means it was changed or deleted between the unlocked read and this write
+                if (stmt.executeUpdate() == 0) {
+                    throw new StaleVersionException("Department", department.getId());
+                }
+                connection.commit();
+                cache.invalidate(department.getId());
+                department.setVersion(oldDepartment.getVersion() + 1);
+
+                // Log changes only if there were actual changes
+                if (changes.length() > "Updated fields:\n".length()) {
+                    auditDAO.logAction(
+                            AuditDAO.ActionAudit.UPDATE.name(),
+                            AuditDAO.Entities.DEPARTMENT.name(),
+                            department.getId(),
+                            UserContext.currentUserId(),
+                            changes.toString()
+                    );
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
             }
-            stmt.setLong(3, department.getId());
+        }
+    }
 
-            // Track changes
-            StringBuilder changes = new StringBuilder("Updated fields:\n");
-            trackChange(changes, "Name", oldDepartment.getName(), department.getName());
-            trackChange(changes, "Manager",
-                    oldDepartment.getManager() != null ? oldDepartment.getManager().getFullName() : "None",
-                    department.getManager() != null ? department.getManager().getFullName() : "None"
-            );
+    // one joined read of what the audit diff needs, the manager carries only its id and name
+    private Department findForUpdate(Connection connection, Long id, boolean lock) throws SQLException {
+        String sql = "SELECT d.name, d.manager_id, d.version, m.full_name " +
+                "FROM departments d LEFT JOIN employees m ON m.id = d.manager_id " +
+                "WHERE d.id = ?" + (lock ? " FOR UPDATE OF d.id" : "");
 
-            stmt.executeUpdate();
-            DatabaseConnection.getConnection().commit();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setLong(1, id);
 
-            // Log changes only if there were actual changes
-            if (changes.length() > "Updated fields:\n".length()) {
-                auditDAO.logAction(
-                        AuditDAO.ActionAudit.UPDATE.name(),
-                        AuditDAO.Entities.DEPARTMENT.name(),
-                        department.getId(),
-                        AuditDAO.getActionUser().getId(),
-                        changes.toString()
-                );
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Department department = new Department();
+                department.setId(id);
+                department.setName(rs.getString(1));
+                long managerId = rs.getLong(2);
+                if (!rs.wasNull()) {
+                    Employee manager = new Employee();
+                    manager.setId(managerId);
+                    manager.setFullName(rs.getString(4));
+                    department.setManager(manager);
+                }
+                department.setVersion(rs.getLong(3));
+                return department;
             }
-        } catch (SQLException e) {
-            DatabaseConnection.getConnection().rollback();
-            throw e;
         }
     }
 
     public void deleteDepartment(Long id) throws SQLException {
-        // Get department details before deletion
-        Department department = findById(id);
-        if (department == null) {
-            throw new SQLException("Department not found for deletion.");
-        }
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            // Get department details before deletion
+            Department department = findById(connection, id);
+            if (department == null) {
+                throw new SQLException("Department not found for deletion.");
+            }
 
-        String sql = "DELETE FROM departments WHERE id = ?";
+            String sql = "DELETE FROM departments WHERE id = ?";
 
-        try (PreparedStatement stmt = DatabaseConnection.getConnection().prepareStatement(sql)) {
-            // Build deletion details
-            StringBuilder changes = new StringBuilder("Deleted department details:\n")
-                    .append("Name: ").append(department.getName()).append("\n")
-                    .append("Manager: ").append(department.getManager() != null ?
-                            department.getManager().getFullName() : "None");
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                // Build deletion details
+                StringBuilder changes = new StringBuilder("Deleted department details:\n")
+                        .append("Name: ").append(department.getName()).append("\n")
+                        .append("Manager: ").append(department.getManager() != null ?
+                                department.getManager().getFullName() : "None");
 
-            stmt.setLong(1, id);
-            stmt.executeUpdate();
-            DatabaseConnection.getConnection().commit();
-
-            // Log the deletion
-            auditDAO.logAction(
-                    AuditDAO.ActionAudit.DELETE.name(),
-                    AuditDAO.Entities.DEPARTMENT.name(),
-                    department.getId(),
-                    AuditDAO.getActionUser().getId(),
-                    changes.toString()
-            );
-        } catch (SQLException e) {
-            DatabaseConnection.getConnection().rollback();
-            throw e;
+                stmt.setLong(1, id);
+                stmt.executeUpdate();
+                SyncDAO.recordDeletion(connection, AuditDAO.Entities.DEPARTMENT, id);
+                connection.commit();
+                cache.invalidate(id);
+
+                // Log the deletion
+                auditDAO.logAction(
+                        AuditDAO.ActionAudit.DELETE.name(),
+                        AuditDAO.Entities.DEPARTMENT.name(),
+                        department.getId(),
+                        UserContext.currentUserId(),
+                        changes.toString()
+                );
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
         }
     }
 
@@ -190,17 +298,18 @@ public class DepartmentDAO {
         }
     }
 
-    private Department mapResultSetToDepartment(ResultSet rs) throws SQLException {
+    private Department mapResultSetToDepartment(Connection connection, ResultSet rs) throws SQLException {
         Department department = new Department();
         department.setId(rs.getLong("id"));
         department.setName(rs.getString("name"));
+        department.setVersion(rs.getLong("version"));
 
         // Handle manager_id which might be null
         Long managerId = rs.getLong("manager_id");
         if (!rs.wasNull()) {
             // If you need the manager details, you could load them here
             // or create a separate method to load them when needed
-            Employee manager = employeeDAO.findManagerById(managerId);
+            Employee manager = employeeDAO.findManagerById(connection, managerId);
             department.setManager(manager);
         }
 
@@ -208,14 +317,19 @@ public class DepartmentDAO {
     }
 
     public Department findByName(String name) throws SQLException {
-        String sql = "SELECT id, name, manager_id FROM departments WHERE name= ?";
+        return cache.getByName(name, () -> loadByName(name));
+    }
+
+    private Department loadByName(String name) throws SQLException {
+        String sql = "SELECT id, name, manager_id, version FROM departments WHERE name= ?";
 
-        try (PreparedStatement stmt = DatabaseConnection.getConnection().prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, name);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToDepartment(rs);
+                    return mapResultSetToDepartment(connection, rs);
                 }
             }
         }
@@ -3,115 +3,340 @@ package io.hahnsoftware.emp.dao;
 
 import io.hahnsoftware.emp.dto.EmployeeDto;
 import io.hahnsoftware.emp.model.*;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.records.EmployeeKeys;
+import io.hahnsoftware.emp.records.EmployeeSummary;
+import io.hahnsoftware.emp.records.ResourceVersion;
 import io.hahnsoftware.emp.util.DatabaseConnection;
+import io.hahnsoftware.emp.util.DatabaseProperties;
+import io.hahnsoftware.emp.util.UserContext;
 import org.mindrot.jbcrypt.BCrypt;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public class EmployeeDAO {
-    private final Connection connection;
-    private final DepartmentDAO departmentDAO;
-    private final AuditDAO auditDAO;
+    // employee row joined with its department and the department manager, loaded in a single round trip
+    static final String EMPLOYEE_SELECT = "SELECT e.*, " +
+            "d.name AS dept_name, d.manager_id AS dept_manager_id, " +
+            "m.employee_id AS mgr_employee_id, m.full_name AS mgr_full_name, m.username AS mgr_username, " +
+            "m.password_hash AS mgr_password_hash, m.role AS mgr_role, m.job_title AS mgr_job_title, " +
+            "m.hire_date AS mgr_hire_date, m.status AS mgr_status, m.email AS mgr_email, " +
+            "m.phone AS mgr_phone, m.address AS mgr_address " +
+            "FROM employees e " +
+            "LEFT JOIN departments d ON d.id = e.department_id " +
+            "LEFT JOIN employees m ON m.id = d.manager_id";
+
+    // the columns of EmployeeSummary in record order, read by index
+    static final String SUMMARY_SELECT = "SELECT e.id, e.employee_id, e.full_name, e.job_title, e.department_id, " +
+            "d.name, m.full_name, e.hire_date, e.status, e.role, e.username, e.email, e.phone " +
+            "FROM employees e " +
+            "LEFT JOIN departments d ON d.id = e.department_id " +
+            "LEFT JOIN employees m ON m.id = d.manager_id";
+
+    private enum FieldType { NUMBER, TEXT, DATE }
+
+    // joins: 0 employees only, 1 with the department, 2 with the department and its manager
+    private record SelectableField(String column, FieldType type, int joins) {
+    }
+
+    // fields a sparse fieldset may ask for, in response order; the password hash is never selectable
+    private static final Map<String, SelectableField> SELECTABLE_FIELDS = new LinkedHashMap<>();
+
+    static {
+        SELECTABLE_FIELDS.put("id", new SelectableField("e.id", FieldType.NUMBER, 0));
+        SELECTABLE_FIELDS.put("employeeId", new SelectableField("e.employee_id", FieldType.TEXT, 0));
+        SELECTABLE_FIELDS.put("fullName", new SelectableField("e.full_name", FieldType.TEXT, 0));
+        SELECTABLE_FIELDS.put("jobTitle", new SelectableField("e.job_title", FieldType.TEXT, 0));
+        SELECTABLE_FIELDS.put("hireDate", new SelectableField("e.hire_date", FieldType.DATE, 0));
+        SELECTABLE_FIELDS.put("status", new SelectableField("e.status", FieldType.TEXT, 0));
+        SELECTABLE_FIELDS.put("role", new SelectableField("e.role", FieldType.TEXT, 0));
+        SELECTABLE_FIELDS.put("username", new SelectableField("e.username", FieldType.TEXT, 0));
+        SELECTABLE_FIELDS.put("email", new SelectableField("e.email", FieldType.TEXT, 0));
+        SELECTABLE_FIELDS.put("phone", new SelectableField("e.phone", FieldType.TEXT, 0));
+        SELECTABLE_FIELDS.put("address", new SelectableField("e.address", FieldType.TEXT, 0));
+        SELECTABLE_FIELDS.put("departmentId", new SelectableField("e.department_id", FieldType.NUMBER, 0));
+        SELECTABLE_FIELDS.put("departmentName", new SelectableField("d.name", FieldType.TEXT, 1));
+        SELECTABLE_FIELDS.put("managerName", new SelectableField("m.full_name", FieldType.TEXT, 2));
+    }
 
+    public static final List<String> FIELDS = List.copyOf(SELECTABLE_FIELDS.keySet());
 
-    public EmployeeDAO() throws SQLException {
-        this.connection = DatabaseConnection.getConnection();
-        this.auditDAO = new AuditDAO(this);
-        this.departmentDAO = new DepartmentDAO(this);
+    // select of each normalized field selection, built once; bounded by the number of subsets of FIELDS
+    private static final Map<List<String>, String> FIELD_SELECTS = new ConcurrentHashMap<>();
+
+    // a column a partial update may set, with the label its audit entry uses
+    private record PatchableField(String column, FieldType type, String label) {
     }
 
-    public Employee create(Employee employee, String password, boolean isLogAuditEnabled) throws SQLException {
-        String sql = "INSERT INTO employees (employee_id, full_name, username, password_hash, role, job_title, department_id, " +
-                "hire_date, status, email, phone, address) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // fields a merge patch may set, in the order of the generated SET list
+    private static final Map<String, PatchableField> PATCHABLE_FIELDS = new LinkedHashMap<>();
+
+    static {
+        PATCHABLE_FIELDS.put("employeeId", new PatchableField("employee_id", FieldType.TEXT, "Employee ID"));
+        PATCHABLE_FIELDS.put("fullName", new PatchableField("full_name", FieldType.TEXT, "Name"));
+        PATCHABLE_FIELDS.put("jobTitle", new PatchableField("job_title", FieldType.TEXT, "Job Title"));
+        PATCHABLE_FIELDS.put("departmentId", new PatchableField("department_id", FieldType.NUMBER, "Department"));
+        PATCHABLE_FIELDS.put("hireDate", new PatchableField("hire_date", FieldType.DATE, "Hire Date"));
+        PATCHABLE_FIELDS.put("status", new PatchableField("status", FieldType.TEXT, "Status"));
+        PATCHABLE_FIELDS.put("email", new PatchableField("email", FieldType.TEXT, "Email"));
+        PATCHABLE_FIELDS.put("phone", new PatchableField("phone", FieldType.TEXT, "Phone"));
+        PATCHABLE_FIELDS.put("address", new PatchableField("address", FieldType.TEXT, "Address"));
+        PATCHABLE_FIELDS.put("username", new PatchableField("username", FieldType.TEXT, "Username"));
+        PATCHABLE_FIELDS.put("role", new PatchableField("role", FieldType.TEXT, "Role"));
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql, new String[]{"ID"})) {
-            // Build changes log while setting parameters
-            StringBuilder changes = new StringBuilder("Created employee with details:\n");
+    public static final List<String> PATCH_FIELDS = List.copyOf(PATCHABLE_FIELDS.keySet());
 
-            stmt.setString(1, employee.getEmployeeId());
-            changes.append("Employee ID: ").append(employee.getEmployeeId()).append("\n");
+    // read of the patched columns and the update of them, per field combination in PATCH_FIELDS order
+    private record PatchStatements(String select, String lockingSelect, String update) {
+    }
 
-            stmt.setString(2, employee.getFullName());
-            changes.append("Name: ").append(employee.getFullName()).append("\n");
+    private static final Map<List<String>, PatchStatements> PATCH_STATEMENTS = new ConcurrentHashMap<>();
 
-            stmt.setString(3, employee.getUsername());
-            changes.append("Username: ").append(employee.getUsername()).append("\n");
+    // ids per IN list in the lookups by id, a chunk is padded up to one of these sizes so only four statement
+    // shapes reach the database; the last is the Oracle limit of an IN list
+    private static final int[] ID_LIST_SIZES = {16, 64, 256, 1000};
 
-            stmt.setString(4, BCrypt.hashpw(password, BCrypt.gensalt()));
-            changes.append("Password: ").append("[Hidden]").append("\n");
+    private static final int MAX_PAGE_SIZE = 100;
+    // the sort value of a cursor, tagged so a null is told apart from any text
+    private static final String VALUE_CURSOR_TAG = "V";
+    private static final String NULL_CURSOR_VALUE = "N";
+    // rows per round trip when streaming, the Oracle driver default of 10 makes large exports chatty
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    // called once per streamed row
+    @FunctionalInterface
+    public interface RowHandler<T> {
+        void handle(T row) throws IOException;
+    }
 
-            stmt.setString(5, employee.getRole().name());
-            changes.append("Role: ").append(employee.getRole().name()).append("\n");
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
 
-            stmt.setString(6, employee.getJobTitle());
-            changes.append("Job Title: ").append(employee.getJobTitle()).append("\n");
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(ResultSet rs) throws SQLException;
+    }
 
-            stmt.setLong(7, employee.getDepartment().getId());
-            changes.append("Department: ").append(employee.getDepartment().getName()).append("\n");
+    // sortable search fields mapped to their column, anything else is rejected
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "e.id",
+            "employeeId", "e.employee_id",
+            "fullName", "e.full_name",
+            "jobTitle", "e.job_title",
+            "hireDate", "e.hire_date",
+            "status", "e.status"
+    );
+
+    // the summary tables also sort by department, which the search cursor cannot encode
+    private static final Map<String, String> SUMMARY_SORT_COLUMNS = Map.of(
+            "id", "e.id",
+            "employeeId", "e.employee_id",
+            "fullName", "e.full_name",
+            "departmentName", "d.name",
+            "jobTitle", "e.job_title",
+            "hireDate", "e.hire_date",
+            "status", "e.status"
+    );
+
+    // columns the free text of SearchCriteria is matched against, the ones the employee table shows or searched before
+    private static final List<String> TEXT_COLUMNS = List.of(
+            "e.full_name", "e.employee_id", "d.name", "e.role", "e.username", "e.job_title");
+
+    private static final String INSERT_SQL = "INSERT INTO employees (employee_id, full_name, username, password_hash, " +
+            "role, job_title, department_id, hire_date, status, email, phone, address) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // rows per JDBC batch and transaction in createBatch, capped so the id read back stays under the IN list limit
+    private static final int BULK_BATCH_SIZE = Math.max(1, Math.min(1000,
+            DatabaseProperties.intProperty(DatabaseProperties.loadOrDefaults(), "bulk.batch.size", 100)));
 
-            stmt.setDate(8, Date.valueOf(employee.getHireDate()));
-            changes.append("Hire Date: ").append(employee.getHireDate()).append("\n");
+    private final AuditDAO auditDAO;
 
-            stmt.setString(9, employee.getStatus().name());
-            changes.append("Status: ").append(employee.getStatus().name()).append("\n");
 
-            stmt.setString(10, employee.getEmail());
-            changes.append("Email: ").append(employee.getEmail()).append("\n");
+    public EmployeeDAO() throws SQLException {
+        this(null);
+    }
 
-            stmt.setString(11, employee.getPhone());
-            changes.append("Phone: ").append(employee.getPhone()).append("\n");
+    // audit rows of this DAO and of the DepartmentDAO built on it go to the given writer, the shared one when null
+    EmployeeDAO(AuditLogWriter auditWriter) {
+        this.auditDAO = new AuditDAO(this, auditWriter);
+    }
 
-            stmt.setString(12, employee.getAddress());
-            changes.append("Address: ").append(employee.getAddress());
+    AuditDAO auditDAO() {
+        return auditDAO;
+    }
 
-            int affectedRows = stmt.executeUpdate();
+    public Employee create(Employee employee, String password, boolean isLogAuditEnabled) throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL, new String[]{"ID"})) {
+                bindInsert(stmt, employee, BCrypt.hashpw(password, BCrypt.gensalt()));
 
-            if (affectedRows == 0) {
-                throw new SQLException("Creating employee failed, no rows affected.");
-            }
+                int affectedRows = stmt.executeUpdate();
 
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    employee.setId(generatedKeys.getLong(1));
-                } else {
-                    throw new SQLException("Creating employee failed, no ID obtained.");
+                if (affectedRows == 0) {
+                    throw new SQLException("Creating employee failed, no rows affected.");
                 }
+
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        employee.setId(generatedKeys.getLong(1));
+                    } else {
+                        throw new SQLException("Creating employee failed, no ID obtained.");
+                    }
+                }
+
+                connection.commit();
+
+                // Log the action with the collected changes
+                if (isLogAuditEnabled) {
+                    auditDAO.logAction(
+                            AuditDAO.ActionAudit.CREATE.name(),
+                            AuditDAO.Entities.EMPLOYEE.name(),
+                            employee.getId(),
+                            UserContext.currentUserId(),
+                            creationChanges(employee)
+                    );
+                }
+
+                return employee;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
             }
+        }
+    }
 
-            connection.commit();
+    /**
+     * inserts employees whose password hash is already set, {@link #BULK_BATCH_SIZE} rows per JDBC batch. each
+     * chunk is one transaction with its audit rows written as one batched insert, and the generated ids are set on
+     * the employees once it commits. a chunk that fails is rolled back and handed to onChunkFailure, its employees
+     * keep a null id and the following chunks are still inserted.
+     */
+    public void createBatch(List<Employee> employees, BiConsumer<List<Employee>, SQLException> onChunkFailure)
+            throws SQLException {
+        Long actingUserId = UserContext.currentUserId();
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            for (int from = 0; from < employees.size(); from += BULK_BATCH_SIZE) {
+                List<Employee> chunk = employees.subList(from, Math.min(from + BULK_BATCH_SIZE, employees.size()));
+                try {
+                    Map<String, Long> ids = insertChunk(connection, chunk);
+                    List<AuditLogWriter.AuditEntry> entries = new ArrayList<>(chunk.size());
+                    LocalDateTime now = LocalDateTime.now();
+                    for (Employee employee : chunk) {
+                        entries.add(new AuditLogWriter.AuditEntry(AuditDAO.ActionAudit.CREATE.name(),
+                                AuditDAO.Entities.EMPLOYEE.name(), ids.get(employee.getEmployeeId()), actingUserId,
+                                now, creationChanges(employee)));
+                    }
+                    auditDAO.logActions(connection, entries);
+                    connection.commit();
+                    for (Employee employee : chunk) {
+                        employee.setId(ids.get(employee.getEmployeeId()));
+                    }
+                } catch (SQLException e) {
+                    connection.rollback();
+                    onChunkFailure.accept(chunk, e);
+                }
+            }
+        }
+    }
 
-            // Log the action with the collected changes
-            if (isLogAuditEnabled) {
-                auditDAO.logAction(
-                        AuditDAO.ActionAudit.CREATE.name(),
-                        AuditDAO.Entities.EMPLOYEE.name(),
-                        employee.getId(),
-                        AuditDAO.getActionUser().getId(),
-                        changes.toString()
-                );
+    // generated keys of a batch are not returned by every driver, the ids are read back by the unique employee_id
+    private Map<String, Long> insertChunk(Connection connection, List<Employee> chunk) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL)) {
+            for (Employee employee : chunk) {
+                bindInsert(stmt, employee, employee.getPasswordHash());
+                stmt.addBatch();
             }
+            stmt.executeBatch();
+        }
 
-            return employee;
-        } catch (SQLException e) {
-            connection.rollback();
-            throw e;
+        StringBuilder sql = new StringBuilder("SELECT id, employee_id FROM employees WHERE employee_id IN (");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
         }
+        sql.append(")");
+        Map<String, Long> ids = new HashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < chunk.size(); i++) {
+                stmt.setString(i + 1, chunk.get(i).getEmployeeId());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.put(rs.getString("employee_id"), rs.getLong("id"));
+                }
+            }
+        }
+        if (ids.size() != chunk.size()) {
+            throw new SQLException("Creating employees failed, expected " + chunk.size() + " ids but found " + ids.size());
+        }
+        return ids;
+    }
+
+    private void bindInsert(PreparedStatement stmt, Employee employee, String passwordHash) throws SQLException {
+        stmt.setString(1, employee.getEmployeeId());
+        stmt.setString(2, employee.getFullName());
+        stmt.setString(3, employee.getUsername());
+        stmt.setString(4, passwordHash);
+        stmt.setString(5, employee.getRole().name());
+        stmt.setString(6, employee.getJobTitle());
+        stmt.setLong(7, employee.getDepartment().getId());
+        stmt.setDate(8, Date.valueOf(employee.getHireDate()));
+        stmt.setString(9, employee.getStatus().name());
+        stmt.setString(10, employee.getEmail());
+        stmt.setString(11, employee.getPhone());
+        stmt.setString(12, employee.getAddress());
+    }
+
+    private String creationChanges(Employee employee) {
+        return "Created employee with details:\n" +
+                "Employee ID: " + employee.getEmployeeId() + "\n" +
+                "Name: " + employee.getFullName() + "\n" +
+                "Username: " + employee.getUsername() + "\n" +
+                "Password: " + "[Hidden]" + "\n" +
+                "Role: " + employee.getRole().name() + "\n" +
+                "Job Title: " + employee.getJobTitle() + "\n" +
+                "Department: " + employee.getDepartment().getName() + "\n" +
+                "Hire Date: " + employee.getHireDate() + "\n" +
+                "Status: " + employee.getStatus().name() + "\n" +
+                "Email: " + employee.getEmail() + "\n" +
+                "Phone: " + employee.getPhone() + "\n" +
+                "Address: " + employee.getAddress();
     }
 
 
 
     public Employee findByUsername(String username) throws SQLException {
-        String sql = "SELECT * FROM employees WHERE username = ?";
+        String sql = EMPLOYEE_SELECT + " WHERE e.username = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, username);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToEmployee(rs);
+                    return mapResultSetToEmployee(rs, new HashMap<>());
                 }
             }
         }
@@ -130,14 +355,35 @@ public class EmployeeDAO {
     }
 
     public Employee findById(Long id) throws SQLException {
-        String sql = "SELECT * FROM employees WHERE id = ?";
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            return findById(connection, id);
+        }
+    }
+
+    // the employee if the caller may see it, null otherwise, see appendVisibilityScope
+    public Employee findById(Long id, ActingUser caller) throws SQLException {
+        StringBuilder sql = new StringBuilder(EMPLOYEE_SELECT).append(" WHERE e.id = ?");
+        List<Object> params = new ArrayList<>(List.of(id));
+        appendVisibilityScope(caller, sql, params);
+        List<Employee> employees = queryEmployees(sql.toString(), params, caller);
+        return employees.isEmpty() ? null : employees.get(0);
+    }
+
+    // lookup on a connection already borrowed by the caller
+    Employee findById(Connection connection, Long id) throws SQLException {
+        return findById(connection, id, false);
+    }
+
+    // lock holds the employee row, not the joined department and manager rows, until the caller's transaction ends
+    private Employee findById(Connection connection, Long id, boolean lock) throws SQLException {
+        String sql = EMPLOYEE_SELECT + " WHERE e.id = ?" + (lock ? " FOR UPDATE OF e.id" : "");
 
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setLong(1, id);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToEmployee(rs);
+                    return mapResultSetToEmployee(rs, new HashMap<>());
                 }
             }
         }
@@ -146,14 +392,20 @@ public class EmployeeDAO {
     }
 
     public Employee findByEmployeeId(String employeeId) throws SQLException {
-        String sql = "SELECT * FROM employees WHERE employee_id = ?";
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            return findByEmployeeId(connection, employeeId);
+        }
+    }
+
+    private Employee findByEmployeeId(Connection connection, String employeeId) throws SQLException {
+        String sql = EMPLOYEE_SELECT + " WHERE e.employee_id = ?";
 
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, employeeId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToEmployee(rs);
+                    return mapResultSetToEmployee(rs, new HashMap<>());
                 }
             }
         }
@@ -161,80 +413,782 @@ public class EmployeeDAO {
         return null;
     }
 
-    public List<Employee> findAll() throws SQLException {
+    /**
+     * the list reads below return only the rows the caller may see, the scope is part of the query, see
+     * appendVisibilityScope. the REST api passes the user of the request, the Swing client the session user.
+     */
+    public List<Employee> findAll(ActingUser caller) throws SQLException {
+        StringBuilder sql = new StringBuilder(EMPLOYEE_SELECT).append(" WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        appendVisibilityScope(caller, sql, params);
+        return queryEmployees(sql.toString(), params, caller);
+    }
+
+    private List<Employee> queryEmployees(String sql, List<Object> params, ActingUser caller) throws SQLException {
         List<Employee> employees = new ArrayList<>();
-        String sql = "SELECT * FROM employees";
+        Map<Long, Department> departments = new HashMap<>();
+
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            bindParameters(stmt, params);
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                employees.add(mapResultSetToEmployee(rs));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    employees.add(mapResultSetToEmployee(rs, departments, caller));
+                }
             }
         }
 
         return employees;
     }
 
-    public List<Employee> findAllManagers() throws SQLException {
-        List<Employee> employees = new ArrayList<>();
-        String sql = "SELECT * FROM employees where role='" + UserRole.MANAGER+"'" ;
+    // employees with the given ids keyed by id, ids that do not exist or the caller may not see are absent
+    public Map<Long, Employee> findByIds(List<Long> ids, ActingUser caller) throws SQLException {
+        Map<Long, Department> departments = new HashMap<>();
+        return queryByIds(EMPLOYEE_SELECT, ids, caller, rs -> mapResultSetToEmployee(rs, departments, caller),
+                Employee::getId);
+    }
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                employees.add(mapResultSetToEmployee(rs));
+    public Map<Long, EmployeeSummary> findSummariesByIds(List<Long> ids, ActingUser caller) throws SQLException {
+        return queryByIds(SUMMARY_SELECT, ids, caller, this::mapResultSetToSummary, EmployeeSummary::id);
+    }
+
+    public Map<Long, Map<String, Object>> findFieldsByIds(List<Long> ids, List<String> fields, ActingUser caller)
+            throws SQLException {
+        return queryByIds(fieldSelect(fields), ids, caller, rs -> mapResultSetToFields(rs, fields),
+                row -> (Long) row.get("id"));
+    }
+
+    private <T> Map<Long, T> queryByIds(String select, List<Long> ids, ActingUser caller, RowMapper<T> mapper,
+                                        Function<T, Long> idOf) throws SQLException {
+        StringBuilder scope = new StringBuilder();
+        List<Object> scopeParams = new ArrayList<>();
+        appendVisibilityScope(caller, scope, scopeParams);
+        Map<Long, T> rows = new HashMap<>();
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            queryInChunks(connection, select, "e.id", ids, scope.toString(), scopeParams, rs -> {
+                T row = mapper.map(rs);
+                rows.put(idOf.apply(row), row);
+            });
+        }
+        return rows;
+    }
+
+    /**
+     * the employee ids, usernames and emails among the given ones that an employee already has, whoever may see
+     * that employee: the unique keys a new row must not reuse. ids and usernames are matched exactly, as the
+     * constraints do. emails are matched ignoring case and the taken ones are returned in lower case.
+     */
+    public EmployeeKeys findTakenKeys(EmployeeKeys keys) throws SQLException {
+        Set<String> employeeIds = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            queryInChunks(connection, "SELECT e.employee_id FROM employees e", "e.employee_id",
+                    List.copyOf(keys.employeeIds()), "", List.of(), rs -> employeeIds.add(rs.getString(1)));
+            queryInChunks(connection, "SELECT e.username FROM employees e", "e.username",
+                    List.copyOf(keys.usernames()), "", List.of(), rs -> usernames.add(rs.getString(1)));
+            List<String> lowerEmails = keys.emails().stream()
+                    .map(email -> email.toLowerCase(Locale.ROOT)).distinct().toList();
+            queryInChunks(connection, "SELECT LOWER(e.email) FROM employees e", "LOWER(e.email)",
+                    lowerEmails, "", List.of(), rs -> emails.add(rs.getString(1)));
+        }
+        return new EmployeeKeys(employeeIds, usernames, emails);
+    }
+
+    /**
+     * runs select WHERE column IN (values) AND-ed with the condition, one statement per chunk of at most 1000
+     * values. a chunk is padded up to one of ID_LIST_SIZES so only four statement shapes reach the database.
+     */
+    private <V> void queryInChunks(Connection connection, String select, String column, List<V> values,
+                                   String condition, List<Object> conditionParams, RowConsumer consumer)
+            throws SQLException {
+        int maxChunk = ID_LIST_SIZES[ID_LIST_SIZES.length - 1];
+        for (int from = 0; from < values.size(); from += maxChunk) {
+            List<V> chunk = values.subList(from, Math.min(from + maxChunk, values.size()));
+            int size = idListSize(chunk.size());
+            StringBuilder sql = new StringBuilder(select).append(" WHERE ").append(column).append(" IN (");
+            for (int i = 0; i < size; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(")").append(condition);
+
+            try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+                // the padding repeats the last value, which matches the same row again
+                for (int i = 0; i < size; i++) {
+                    V value = chunk.get(Math.min(i, chunk.size() - 1));
+                    if (value instanceof Long id) {
+                        stmt.setLong(i + 1, id);
+                    } else {
+                        stmt.setObject(i + 1, value);
+                    }
+                }
+                for (int i = 0; i < conditionParams.size(); i++) {
+                    stmt.setObject(size + i + 1, conditionParams.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(rs);
+                    }
+                }
             }
         }
+    }
 
-        return employees;
+    private static int idListSize(int ids) {
+        for (int size : ID_LIST_SIZES) {
+            if (ids <= size) {
+                return size;
+            }
+        }
+        throw new IllegalArgumentException("More than " + ID_LIST_SIZES[ID_LIST_SIZES.length - 1] + " ids in one list");
     }
 
-    public List<Employee> search(SearchCriteria criteria) throws SQLException {
-        List<Employee> employees = new ArrayList<>();
-        StringBuilder sql = new StringBuilder("SELECT * FROM employees WHERE 1=1");
+    public List<Employee> findAllManagers(ActingUser caller) throws SQLException {
+        StringBuilder sql = new StringBuilder(EMPLOYEE_SELECT).append(" WHERE e.role = ?");
+        List<Object> params = new ArrayList<>(List.of(UserRole.MANAGER.name()));
+        appendVisibilityScope(caller, sql, params);
+        return queryEmployees(sql.toString(), params, caller);
+    }
+
+    /**
+     * version of one employee as serialized with its department and manager, from the three updated_at values
+     * of the joined rows. null when the employee does not exist or the caller may not see it.
+     */
+    public ResourceVersion findVersionById(Long id, ActingUser caller) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT e.updated_at, d.updated_at, m.updated_at, e.department_id, d.manager_id " +
+                "FROM employees e " +
+                "LEFT JOIN departments d ON d.id = e.department_id " +
+                "LEFT JOIN employees m ON m.id = d.manager_id " +
+                "WHERE e.id = ?");
+        List<Object> params = new ArrayList<>(List.of(id));
+        appendVisibilityScope(caller, sql, params);
+        return queryVersion(sql.toString(), params, 5);
+    }
+
+    // version of the manager list from an aggregate, the count and id sum catch deletions max(updated_at) misses
+    public ResourceVersion findManagersVersion(ActingUser caller) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT COUNT(*), SUM(e.id), MAX(e.updated_at), MAX(d.updated_at), MAX(m.updated_at) " +
+                "FROM employees e " +
+                "LEFT JOIN departments d ON d.id = e.department_id " +
+                "LEFT JOIN employees m ON m.id = d.manager_id " +
+                "WHERE e.role = ?");
+        List<Object> params = new ArrayList<>(List.of(UserRole.MANAGER.name()));
+        appendVisibilityScope(caller, sql, params);
+        return queryVersion(sql.toString(), params, 5);
+    }
+
+    // runs a single row version query, every column goes into the fingerprint and the newest timestamp is the last modified time
+    static ResourceVersion queryVersion(String sql, List<Object> params, int columns)
+            throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                StringBuilder fingerprint = new StringBuilder();
+                Instant lastModified = null;
+                for (int column = 1; column <= columns; column++) {
+                    Object value = rs.getObject(column);
+                    if (value instanceof Timestamp timestamp) {
+                        Instant instant = timestamp.toInstant();
+                        if (lastModified == null || instant.isAfter(lastModified)) {
+                            lastModified = instant;
+                        }
+                    }
+                    fingerprint.append(value).append('|');
+                }
+                return new ResourceVersion(fingerprint.toString(), lastModified);
+            }
+        }
+    }
+
+    public List<EmployeeSummary> findAllSummaries(ActingUser caller) throws SQLException {
+        return scopedSummaries(SUMMARY_SELECT + " WHERE 1=1", List.of(), caller);
+    }
+
+    /**
+     * employees changed since the given time for the delta sync. the department and manager names in a summary
+     * change with those rows, so an employee is also sent when its department or the department manager changed.
+     */
+    public List<EmployeeSummary> findSummariesChangedSince(Timestamp since, ActingUser caller) throws SQLException {
+        return scopedSummaries(SUMMARY_SELECT + " WHERE (e.updated_at >= ? OR d.updated_at >= ? OR m.updated_at >= ?)",
+                List.of(since, since, since), caller);
+    }
+
+    public List<EmployeeSummary> findAllManagerSummaries(ActingUser caller) throws SQLException {
+        return scopedSummaries(SUMMARY_SELECT + " WHERE e.role = ?", List.of(UserRole.MANAGER.name()), caller);
+    }
+
+    private List<EmployeeSummary> scopedSummaries(String select, List<Object> params, ActingUser caller)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder(select);
+        List<Object> scopedParams = new ArrayList<>(params);
+        appendVisibilityScope(caller, sql, scopedParams);
+        return querySummaries(sql.toString(), scopedParams);
+    }
+
+    private List<EmployeeSummary> querySummaries(String sql, List<Object> params) throws SQLException {
+        List<EmployeeSummary> summaries = new ArrayList<>();
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            bindParameters(stmt, params);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(mapResultSetToSummary(rs));
+                }
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * sparse fieldset reads, fields must come from {@link io.hahnsoftware.emp.util.FieldSelection#parse} with
+     * {@link #FIELDS}. only the selected columns are fetched and joins are added only for the fields that need them,
+     * each row is a map from field name to value in the order of the selection.
+     */
+    public List<Map<String, Object>> findAllFields(List<String> fields, ActingUser caller) throws SQLException {
+        return queryFields(fieldSelect(fields) + " WHERE 1=1", fields, List.of(), caller);
+    }
+
+    public List<Map<String, Object>> findAllManagerFields(List<String> fields, ActingUser caller)
+            throws SQLException {
+        return queryFields(fieldSelect(fields) + " WHERE e.role = ?", fields, List.of(UserRole.MANAGER.name()), caller);
+    }
+
+    public Map<String, Object> findFieldsById(Long id, List<String> fields, ActingUser caller) throws SQLException {
+        List<Map<String, Object>> rows = queryFields(fieldSelect(fields) + " WHERE e.id = ?", fields, List.of(id),
+                caller);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private List<Map<String, Object>> queryFields(String select, List<String> fields, List<Object> params,
+                                                  ActingUser caller) throws SQLException {
+        StringBuilder sql = new StringBuilder(select);
+        List<Object> scopedParams = new ArrayList<>(params);
+        appendVisibilityScope(caller, sql, scopedParams);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            bindParameters(stmt, scopedParams);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapResultSetToFields(rs, fields));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private String fieldSelect(List<String> fields) {
+        return FIELD_SELECTS.computeIfAbsent(fields, selection -> {
+            StringBuilder sql = new StringBuilder("SELECT ");
+            int joins = 0;
+            for (int i = 0; i < selection.size(); i++) {
+                SelectableField field = SELECTABLE_FIELDS.get(selection.get(i));
+                if (field == null) {
+                    throw new IllegalArgumentException("Unknown field: " + selection.get(i));
+                }
+                sql.append(i == 0 ? "" : ", ").append(field.column());
+                joins = Math.max(joins, field.joins());
+            }
+            sql.append(" FROM employees e");
+            if (joins >= 1) {
+                sql.append(" LEFT JOIN departments d ON d.id = e.department_id");
+            }
+            if (joins >= 2) {
+                sql.append(" LEFT JOIN employees m ON m.id = d.manager_id");
+            }
+            return sql.toString();
+        });
+    }
+
+    private Map<String, Object> mapResultSetToFields(ResultSet rs, List<String> fields) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            int column = i + 1;
+            Object value = switch (SELECTABLE_FIELDS.get(fields.get(i)).type()) {
+                case NUMBER -> {
+                    long number = rs.getLong(column);
+                    yield rs.wasNull() ? null : number;
+                }
+                case DATE -> {
+                    Date date = rs.getDate(column);
+                    yield date == null ? null : date.toLocalDate();
+                }
+                case TEXT -> rs.getString(column);
+            };
+            row.put(fields.get(i), value);
+        }
+        return row;
+    }
+
+    // one page of the employees matching the criteria that the caller may see
+    public PageResult<Employee> search(SearchCriteria criteria, ActingUser caller) throws SQLException {
+        Map<Long, Department> departments = new HashMap<>();
+        return searchPage(criteria, caller, EMPLOYEE_SELECT, rs -> mapResultSetToEmployee(rs, departments, caller),
+                (sortBy, employee) -> encodeCursor(sortValue(sortBy, employee), employee.getId()));
+    }
+
+    // same page and cursor as search, with the summary projection
+    public PageResult<EmployeeSummary> searchSummaries(SearchCriteria criteria, ActingUser caller)
+            throws SQLException {
+        return searchPage(criteria, caller, SUMMARY_SELECT, this::mapResultSetToSummary,
+                (sortBy, summary) -> encodeCursor(sortValue(sortBy, summary), summary.id()));
+    }
+
+    /**
+     * number of summaries matching the criteria and visible to the caller, the row count of a table that pages
+     * through them with {@link #findSummaryRange}. paging and cursor fields of the criteria are ignored.
+     */
+    public long countSummaries(SearchCriteria criteria, ActingUser caller) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM employees e");
+        if (hasText(criteria)) {
+            sql.append(" LEFT JOIN departments d ON d.id = e.department_id");
+        }
+        sql.append(" WHERE 1=1");
         List<Object> params = new ArrayList<>();
+        appendSummaryConditions(criteria, caller, sql, params);
 
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            bindParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    /**
+     * the summaries at offset to offset + limit of the rows matching the criteria and visible to the caller, in the
+     * criteria sort order. unlike search the window is addressed by offset and not capped at MAX_PAGE_SIZE, so a
+     * table can fetch the page under any scroll position.
+     */
+    public List<EmployeeSummary> findSummaryRange(SearchCriteria criteria, ActingUser caller, int offset, int limit)
+            throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = summaryQuery(criteria, caller, params);
+        sql.append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+        params.add((long) offset);
+        params.add(limit);
+        return querySummaries(sql.toString(), params);
+    }
+
+    /**
+     * every summary of {@link #findSummaryRange} in the same order, read with a forward only cursor and handed to
+     * the handler one at a time so the result is never held in memory. a handler that throws ends the read.
+     */
+    public void streamSummaries(SearchCriteria criteria, ActingUser caller, RowHandler<EmployeeSummary> handler)
+            throws SQLException, IOException {
+        List<Object> params = new ArrayList<>();
+        String sql = summaryQuery(criteria, caller, params).toString();
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(EXPORT_FETCH_SIZE);
+            bindParameters(stmt, params);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(mapResultSetToSummary(rs));
+                }
+            }
+        }
+    }
+
+    // the summaries matching the criteria and visible to the caller, in the criteria sort order
+    private StringBuilder summaryQuery(SearchCriteria criteria, ActingUser caller, List<Object> params) {
+        String sortBy = criteria.getSortBy() == null ? "id" : criteria.getSortBy();
+        String sortColumn = SUMMARY_SORT_COLUMNS.get(sortBy);
+        if (sortColumn == null) {
+            throw new IllegalArgumentException("Invalid sort field: " + sortBy);
+        }
+
+        StringBuilder sql = new StringBuilder(SUMMARY_SELECT).append(" WHERE 1=1");
+        appendSummaryConditions(criteria, caller, sql, params);
+        appendOrderBy(sql, sortColumn, "DESC".equalsIgnoreCase(criteria.getSortDirection()));
+        return sql;
+    }
+
+    private void appendSummaryConditions(SearchCriteria criteria, ActingUser caller, StringBuilder sql,
+                                         List<Object> params) {
+        appendSearchConditions(criteria, sql, params);
+        appendTextCondition(criteria, sql, params);
+        appendVisibilityScope(caller, sql, params);
+    }
+
+    // the free text matches any of TEXT_COLUMNS, the query must join departments as d
+    private static void appendTextCondition(SearchCriteria criteria, StringBuilder sql, List<Object> params) {
+        if (!hasText(criteria)) {
+            return;
+        }
+        String pattern = "%" + escapeLike(criteria.getText().toLowerCase()) + "%";
+        sql.append(" AND (");
+        for (int i = 0; i < TEXT_COLUMNS.size(); i++) {
+            sql.append(i == 0 ? "" : " OR ")
+                    .append("LOWER(").append(TEXT_COLUMNS.get(i)).append(") LIKE ? ESCAPE '\\'");
+            params.add(pattern);
+        }
+        sql.append(")");
+    }
+
+    private static boolean hasText(SearchCriteria criteria) {
+        return criteria.getText() != null && !criteria.getText().isEmpty();
+    }
+
+    // typed text is matched literally, the wildcards of LIKE are escaped
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private <T> PageResult<T> searchPage(SearchCriteria criteria, ActingUser caller, String select,
+                                         RowMapper<T> mapper, BiFunction<String, T, String> cursorOf)
+            throws SQLException {
+        int size = Math.max(1, Math.min(criteria.getSize(), MAX_PAGE_SIZE));
+        int page = Math.max(0, criteria.getPage());
+        String sortBy = criteria.getSortBy() == null ? "id" : criteria.getSortBy();
+        String sortColumn = sortColumn(sortBy);
+        boolean descending = "DESC".equalsIgnoreCase(criteria.getSortDirection());
+
+        // a cursor that does not decode for this sort is rejected before any query runs
+        boolean keyset = criteria.getCursor() != null && !criteria.getCursor().isEmpty();
+        Object cursorValue = null;
+        long cursorId = 0;
+        if (keyset) {
+            String[] cursor = decodeCursor(criteria.getCursor());
+            try {
+                cursorValue = cursor[0] == null ? null : cursorValue(sortBy, cursor[0]);
+                cursorId = Long.parseLong(cursor[1]);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+
+        StringBuilder where = new StringBuilder(" WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        appendSearchConditions(criteria, where, params);
+        appendTextCondition(criteria, where, params);
+        appendVisibilityScope(caller, where, params);
+        // the free text matches the department name, the count joins it like both selects do
+        String countFrom = hasText(criteria)
+                ? "SELECT COUNT(*) FROM employees e LEFT JOIN departments d ON d.id = e.department_id"
+                : "SELECT COUNT(*) FROM employees e";
+
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            // Total count of matching rows
+            long total;
+            try (PreparedStatement stmt = connection.prepareStatement(countFrom + where)) {
+                bindParameters(stmt, params);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    total = rs.getLong(1);
+                }
+            }
+
+            // Requested page, keyset mode seeks past the cursor instead of skipping rows with OFFSET
+            StringBuilder sql = new StringBuilder(select).append(where);
+            List<Object> pageParams = new ArrayList<>(params);
+            if (keyset) {
+                appendKeysetCondition(sql, pageParams, sortColumn, descending, cursorValue, cursorId);
+            } else {
+                pageParams.add((long) page * size);
+            }
+
+            appendOrderBy(sql, sortColumn, descending);
+            if (!keyset) {
+                sql.append(" OFFSET ? ROWS");
+            }
+            sql.append(" FETCH NEXT ? ROWS ONLY");
+            pageParams.add(size);
+
+            List<T> items = new ArrayList<>();
+            try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+                bindParameters(stmt, pageParams);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        items.add(mapper.map(rs));
+                    }
+                }
+            }
+
+            String nextCursor = null;
+            if (items.size() == size) {
+                nextCursor = cursorOf.apply(sortBy, items.get(items.size() - 1));
+            }
+
+            return new PageResult<>(items, page, size, total, nextCursor);
+        }
+    }
+
+    /**
+     * rejects the sort field and department id the queries could not use, for callers that must answer before
+     * the rows are read. throws IllegalArgumentException.
+     */
+    public void checkCriteria(SearchCriteria criteria) {
+        sortColumn(criteria.getSortBy() == null ? "id" : criteria.getSortBy());
+        if (criteria.getDepartment() != null) {
+            try {
+                Long.parseLong(criteria.getDepartment());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid department id: " + criteria.getDepartment(), e);
+            }
+        }
+    }
+
+    /**
+     * streams every employee matching the criteria and visible to the caller, in the criteria sort order,
+     * without holding the result in memory. the rows are read with a forward only cursor and handed to the
+     * handler one at a time, paging fields of the criteria are ignored.
+     * the caller is passed in because streaming usually runs outside the request thread.
+     */
+    public void streamEmployees(SearchCriteria criteria, ActingUser caller, RowHandler<Employee> handler)
+            throws SQLException, IOException {
+        String sortBy = criteria.getSortBy() == null ? "id" : criteria.getSortBy();
+        String sortColumn = sortColumn(sortBy);
+        boolean descending = "DESC".equalsIgnoreCase(criteria.getSortDirection());
+
+        StringBuilder sql = new StringBuilder(EMPLOYEE_SELECT).append(" WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        appendSearchConditions(criteria, sql, params);
+        appendVisibilityScope(caller, sql, params);
+        appendOrderBy(sql, sortColumn, descending);
+
+        // departments only grow with the number of departments, the rows themselves are not kept
+        Map<Long, Department> departments = new HashMap<>();
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql.toString(),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(EXPORT_FETCH_SIZE);
+            bindParameters(stmt, params);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(mapResultSetToEmployee(rs, departments, caller));
+                }
+            }
+        }
+    }
+
+    private String sortColumn(String sortBy) {
+        String sortColumn = SORT_COLUMNS.get(sortBy);
+        if (sortColumn == null) {
+            throw new IllegalArgumentException("Invalid sort field: " + sortBy);
+        }
+        return sortColumn;
+    }
+
+    // the id breaks ties so the order is stable. nulls sort as the highest value, the Oracle default made explicit
+    // so the keyset condition below holds on every database
+    private void appendOrderBy(StringBuilder sql, String sortColumn, boolean descending) {
+        String direction = descending ? " DESC" : " ASC";
+        sql.append(" ORDER BY ").append(sortColumn).append(direction);
+        if (!sortColumn.equals("e.id")) {
+            sql.append(descending ? " NULLS FIRST" : " NULLS LAST");
+            sql.append(", e.id").append(direction);
+        }
+    }
+
+    // the rows after the cursor in the order of appendOrderBy, cursorValue is null when the last row had no sort value
+    private void appendKeysetCondition(StringBuilder sql, List<Object> params, String sortColumn, boolean descending,
+                                       Object cursorValue, long cursorId) {
+        String comparator = descending ? "<" : ">";
+        if (cursorValue == null) {
+            // ascending the nulls come last, only the rest of them follows. descending they come first, so every
+            // row with a value follows as well
+            sql.append(" AND (").append(sortColumn).append(descending ? " IS NOT NULL OR " : " IS NULL AND ")
+                    .append("e.id ").append(comparator).append(" ?)");
+            params.add(cursorId);
+            return;
+        }
+        sql.append(" AND (").append(sortColumn).append(" ").append(comparator).append(" ? OR (")
+                .append(sortColumn).append(" = ? AND e.id ").append(comparator).append(" ?)");
+        if (!descending) {
+            sql.append(" OR ").append(sortColumn).append(" IS NULL");
+        }
+        sql.append(")");
+        params.add(cursorValue);
+        params.add(cursorValue);
+        params.add(cursorId);
+    }
+
+    // rows the caller may see: administrators and HR everything, managers their department, employees themselves
+    static void appendVisibilityScope(ActingUser caller, StringBuilder sql, List<Object> params) {
+        if (caller == null) {
+            sql.append(" AND 1=0");
+            return;
+        }
+        switch (caller.role()) {
+            case ADMINISTRATOR, HR_PERSONNEL -> {
+            }
+            case MANAGER -> {
+                if (caller.departmentId() == null) {
+                    sql.append(" AND 1=0");
+                } else {
+                    sql.append(" AND e.department_id = ?");
+                    params.add(caller.departmentId());
+                }
+            }
+            default -> {
+                sql.append(" AND e.id = ?");
+                params.add(caller.id());
+            }
+        }
+    }
+
+    private void appendSearchConditions(SearchCriteria criteria, StringBuilder sql, List<Object> params) {
         if (criteria.getName() != null && !criteria.getName().isEmpty()) {
-            sql.append(" AND LOWER(full_name) LIKE ?");
+            sql.append(" AND LOWER(e.full_name) LIKE ?");
             params.add("%" + criteria.getName().toLowerCase() + "%");
         }
 
         if (criteria.getDepartment() != null) {
-            sql.append(" AND department_id = ?");
+            sql.append(" AND e.department_id = ?");
             params.add(Long.parseLong(criteria.getDepartment()));
         }
 
         if (criteria.getStatus() != null) {
-            sql.append(" AND status = ?");
+            sql.append(" AND e.status = ?");
             params.add(criteria.getStatus());
         }
 
         if (criteria.getStartDate() != null) {
-            sql.append(" AND hire_date >= ?");
+            sql.append(" AND e.hire_date >= ?");
             params.add(Date.valueOf(criteria.getStartDate()));
         }
 
         if (criteria.getEndDate() != null) {
-            sql.append(" AND hire_date <= ?");
+            sql.append(" AND e.hire_date <= ?");
             params.add(Date.valueOf(criteria.getEndDate()));
         }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
-            for (int i = 0; i < params.size(); i++) {
-                stmt.setObject(i + 1, params.get(i));
-            }
+        if (criteria.getJobTitle() != null && !criteria.getJobTitle().isEmpty()) {
+            sql.append(" AND LOWER(e.job_title) LIKE ?");
+            params.add("%" + criteria.getJobTitle().toLowerCase() + "%");
+        }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    employees.add(mapResultSetToEmployee(rs));
-                }
+        if (criteria.getEmployeeId() != null && !criteria.getEmployeeId().isEmpty()) {
+            sql.append(" AND e.employee_id LIKE ?");
+            params.add(criteria.getEmployeeId() + "%");
+        }
+    }
+
+    private void bindParameters(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    // the cursor is the sort value and the id of the last row of the page, so ties on the sort value stay ordered.
+    // the value is tagged, V before a value and N alone for null, so no value can be mistaken for a missing one
+    private String encodeCursor(String sortValue, Long id) {
+        String raw = (sortValue == null ? NULL_CURSOR_VALUE : VALUE_CURSOR_TAG + sortValue) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
             }
+            String value = raw.substring(0, separator);
+            if (value.equals(NULL_CURSOR_VALUE)) {
+                value = null;
+            } else if (value.startsWith(VALUE_CURSOR_TAG)) {
+                value = value.substring(VALUE_CURSOR_TAG.length());
+            } else {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new String[]{value, raw.substring(separator + 1)};
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
         }
+    }
 
-        return employees;
+    private String sortValue(String sortBy, Employee employee) {
+        return switch (sortBy) {
+            case "employeeId" -> employee.getEmployeeId();
+            case "fullName" -> employee.getFullName();
+            case "jobTitle" -> employee.getJobTitle();
+            case "hireDate" -> Objects.toString(employee.getHireDate(), null);
+            case "status" -> employee.getStatus() == null ? null : employee.getStatus().name();
+            default -> String.valueOf(employee.getId());
+        };
+    }
+
+    private String sortValue(String sortBy, EmployeeSummary summary) {
+        return switch (sortBy) {
+            case "employeeId" -> summary.employeeId();
+            case "fullName" -> summary.fullName();
+            case "jobTitle" -> summary.jobTitle();
+            case "hireDate" -> Objects.toString(summary.hireDate(), null);
+            case "status" -> summary.status() == null ? null : summary.status().name();
+            default -> String.valueOf(summary.id());
+        };
+    }
+
+    private Object cursorValue(String sortBy, String value) {
+        return switch (sortBy) {
+            case "id" -> Long.parseLong(value);
+            case "hireDate" -> Date.valueOf(LocalDate.parse(value));
+            default -> value;
+        };
+    }
+
+    // a sort column may be empty in older rows, which the keyset cursor pages across
+    private static LocalDate localDate(Date date) {
+        return date == null ? null : date.toLocalDate();
+    }
+
+    // by column index in the order of SUMMARY_SELECT
+    EmployeeSummary mapResultSetToSummary(ResultSet rs) throws SQLException {
+        long departmentId = rs.getLong(5);
+        boolean hasDepartment = !rs.wasNull();
+        Date hireDate = rs.getDate(8);
+        return new EmployeeSummary(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                hasDepartment ? departmentId : null,
+                rs.getString(6),
+                rs.getString(7),
+                localDate(hireDate),
+                EmploymentStatus.valueOf(rs.getString(9)),
+                UserRole.valueOf(rs.getString(10)),
+                rs.getString(11),
+                rs.getString(12),
+                rs.getString(13)
+        );
     }
 
-    private Employee mapResultSetToEmployee(ResultSet rs) throws SQLException {
+    // department_id is nullable, an employee read without one has no Department
+    private static Long departmentId(Employee employee) {
+        return employee.getDepartment() != null ? employee.getDepartment().getId() : null;
+    }
+
+    private static String departmentName(Employee employee) {
+        return employee.getDepartment() != null ? employee.getDepartment().getName() : null;
+    }
+
+    // departments is the identity map of the current query, rows of the same department share one instance
+    Employee mapResultSetToEmployee(ResultSet rs, Map<Long, Department> departments) throws SQLException {
+        return mapResultSetToEmployee(rs, departments, UserContext.current());
+    }
+
+    private Employee mapResultSetToEmployee(ResultSet rs, Map<Long, Department> departments, ActingUser caller)
+            throws SQLException {
         Employee employee = new Employee();
         employee.setId(rs.getLong("id"));
         employee.setEmployeeId(rs.getString("employee_id"));
@@ -243,115 +1197,313 @@ public class EmployeeDAO {
         employee.setPasswordHash(rs.getString("password_hash"));
         employee.setRole(UserRole.valueOf(rs.getString("role")));
         employee.setJobTitle(rs.getString("job_title"));
-        employee.setHireDate(rs.getDate("hire_date").toLocalDate());
+        employee.setHireDate(localDate(rs.getDate("hire_date")));
         employee.setStatus(EmploymentStatus.valueOf(rs.getString("status")));
         employee.setEmail(rs.getString("email"));
         employee.setPhone(rs.getString("phone"));
         employee.setAddress(rs.getString("address"));
+        employee.setVersion(rs.getLong("version"));
 
-        // Load department
+        // Load department from the joined columns
         Long departmentId = rs.getLong("department_id");
         if (!rs.wasNull()) {
-            employee.setDepartment(departmentDAO.findById(departmentId));
+            Department department = departments.get(departmentId);
+            if (department == null) {
+                department = mapJoinedDepartment(rs, departmentId);
+                departments.put(departmentId, department);
+            }
+            employee.setDepartment(department);
             Employee manager = employee.getDepartment().getManager();
             // check if the current is manager
-            if (AuditDAO.getActionUser() != null && manager != null && manager.getId() == AuditDAO.getActionUser().getId()) {
+            if (caller != null && manager != null && caller.id().equals(manager.getId())) {
                 employee.setCurrentUserManager(true);
             }
         }
 
         return employee;
     }
+
+    private Department mapJoinedDepartment(ResultSet rs, Long departmentId) throws SQLException {
+        Department department = new Department();
+        department.setId(departmentId);
+        department.setName(rs.getString("dept_name"));
+
+        Long managerId = rs.getLong("dept_manager_id");
+        if (!rs.wasNull()) {
+            Employee manager = new Employee();
+            manager.setId(managerId);
+            manager.setEmployeeId(rs.getString("mgr_employee_id"));
+            manager.setFullName(rs.getString("mgr_full_name"));
+            manager.setUsername(rs.getString("mgr_username"));
+            manager.setPasswordHash(rs.getString("mgr_password_hash"));
+            manager.setRole(UserRole.valueOf(rs.getString("mgr_role")));
+            manager.setJobTitle(rs.getString("mgr_job_title"));
+            manager.setHireDate(localDate(rs.getDate("mgr_hire_date")));
+            manager.setStatus(EmploymentStatus.valueOf(rs.getString("mgr_status")));
+            manager.setEmail(rs.getString("mgr_email"));
+            manager.setPhone(rs.getString("mgr_phone"));
+            manager.setAddress(rs.getString("mgr_address"));
+            department.setManager(manager);
+        }
+
+        return department;
+    }
+
+    /**
+     * updates the employee with a compare-and-set on its version and returns it with the new version, the caller's
+     * values are what was written so nothing is read back. an employee without a version overwrites whatever is
+     * stored, its pre-read then locks the row so the audit diff matches the state it replaces.
+     */
     public Employee update(Employee employee) throws SQLException {
-        // First, get the old state of the employee
-        Employee oldEmployee = findById(employee.getId());
-        if (oldEmployee == null) {
-            throw new SQLException("Employee not found for update.");
-        }
-
-        String sql = "UPDATE employees SET " +
-                "employee_id = ?, " +
-                "full_name = ?, " +
-                "job_title = ?, " +
-                "department_id = ?, " +
-                "hire_date = ?, " +
-                "status = ?, " +
-                "email = ?, " +
-                "phone = ?, " +
-                "address = ?, " +
-                "username = ?, " +
-                "role = ? " +
-                "WHERE id = ?";
+        Long expectedVersion = employee.getVersion();
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            // First, get the old state of the employee
+            Employee oldEmployee = findById(connection, employee.getId(), expectedVersion == null);
+            if (oldEmployee == null) {
+                throw new SQLException("Employee not found for update.");
+            }
+            if (expectedVersion != null && !expectedVersion.equals(oldEmployee.getVersion())) {
+                throw new StaleVersionException("Employee", employee.getId());
+            }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, employee.getEmployeeId());
-            stmt.setString(2, employee.getFullName());
-            stmt.setString(3, employee.getJobTitle());
-            stmt.setLong(4, employee.getDepartment().getId());
-            stmt.setDate(5, Date.valueOf(employee.getHireDate()));
-            stmt.setString(6, employee.getStatus().name());
-            stmt.setString(7, employee.getEmail());
-            stmt.setString(8, employee.getPhone());
-            stmt.setString(9, employee.getAddress());
-            stmt.setString(10, employee.getUsername());
-            stmt.setString(11, employee.getRole().name());
-            stmt.setLong(12, employee.getId());
-
-            // add log audit
-            StringBuilder changes = new StringBuilder("Updated fields:\n");
-            trackChange(changes, "Employee ID", oldEmployee.getEmployeeId(), employee.getEmployeeId());
-            trackChange(changes, "Name", oldEmployee.getFullName(), employee.getFullName());
-            trackChange(changes, "Job Title", oldEmployee.getJobTitle(), employee.getJobTitle());
-            trackChange(changes, "Department", oldEmployee.getDepartment().getName(), employee.getDepartment().getName());
-            trackChange(changes, "Hire Date", oldEmployee.getHireDate().toString(), employee.getHireDate().toString());
-            trackChange(changes, "Status", oldEmployee.getStatus().name(), employee.getStatus().name());
-            trackChange(changes, "Email", oldEmployee.getEmail(), employee.getEmail());
-            trackChange(changes, "Phone", oldEmployee.getPhone(), employee.getPhone());
-            trackChange(changes, "Address", oldEmployee.getAddress(), employee.getAddress());
-            trackChange(changes, "Username", oldEmployee.getUsername(), employee.getUsername());
-            trackChange(changes, "Role", oldEmployee.getRole().name(), employee.getRole().name());
-
-            int rowsAffected = stmt.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new SQLException("Update failed, no rows affected.");
-            }
-
-            connection.commit();
-
-            // Log changes only if there were actual changes
-            if (changes.length() > "Updated fields:\n".length()) {
-                auditDAO.logAction(
-                        AuditDAO.ActionAudit.UPDATE.name(),
-                        AuditDAO.Entities.EMPLOYEE.name(),
-                        employee.getId(),
-                        AuditDAO.getActionUser().getId(),
-                        changes.toString()
-                );
+            String sql = "UPDATE employees SET " +
+                    "employee_id = ?, " +
+                    "full_name = ?, " +
+                    "job_title = ?, " +
+                    "department_id = ?, " +
+                    "hire_date = ?, " +
+                    "status = ?, " +
+                    "email = ?, " +
+                    "phone = ?, " +
+                    "address = ?, " +
+                    "username = ?, " +
+                    "role = ?, " +
+                    "updated_at = CURRENT_TIMESTAMP, " +
+                    "version = version + 1 " +
+                    "WHERE id = ? AND version = ?";
+
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setString(1, employee.getEmployeeId());
+                stmt.setString(2, employee.getFullName());
+                stmt.setString(3, employee.getJobTitle());
+                stmt.setLong(4, employee.getDepartment().getId());
+                stmt.setDate(5, Date.valueOf(employee.getHireDate()));
+                stmt.setString(6, employee.getStatus().name());
+                stmt.setString(7, employee.getEmail());
+                stmt.setString(8, employee.getPhone());
+                stmt.setString(9, employee.getAddress());
+                stmt.setString(10, employee.getUsername());
+                stmt.setString(11, employee.getRole().name());
+                stmt.setLong(12, employee.getId());
+                stmt.setLong(13, oldEmployee.getVersion());
+
+                // add log audit
+                StringBuilder changes = new StringBuilder("Updated fields:\n");
+                trackChange(changes, "Employee ID", oldEmployee.getEmployeeId(), employee.getEmployeeId());
+                trackChange(changes, "Name", oldEmployee.getFullName(), employee.getFullName());
+                trackChange(changes, "Job Title", oldEmployee.getJobTitle(), employee.getJobTitle());
+                trackChange(changes, "Department", departmentName(oldEmployee), departmentName(employee));
+                trackChange(changes, "Hire Date", oldEmployee.getHireDate().toString(), employee.getHireDate().toString());
+                trackChange(changes, "Status", oldEmployee.getStatus().name(), employee.getStatus().name());
+                trackChange(changes, "Email", oldEmployee.getEmail(), employee.getEmail());
+                trackChange(changes, "Phone", oldEmployee.getPhone(), employee.getPhone());
+                trackChange(changes, "Address", oldEmployee.getAddress(), employee.getAddress());
+                trackChange(changes, "Username", oldEmployee.getUsername(), employee.getUsername());
+                trackChange(changes, "Role", oldEmployee.getRole().name(), employee.getRole().name());
+
+                // no row means it was changed or deleted between the unlocked read and this write
+                int rowsAffected = stmt.executeUpdate();
+                if (rowsAffected == 0) {
+                    throw new StaleVersionException("Employee", employee.getId());
+                }
+                Long oldDepartmentId = departmentId(oldEmployee);
+                if (oldDepartmentId != null && !Objects.equals(oldDepartmentId, departmentId(employee))) {
+                    SyncDAO.recordDepartmentExit(connection, employee.getId(), oldDepartmentId);
+                }
+
+                connection.commit();
+                // cached departments embed their manager (name, contact), drop the ones this employee manages
+                DepartmentCache.getInstance().invalidateManagedBy(employee.getId());
+
+                // Log changes only if there were actual changes
+                if (changes.length() > "Updated fields:\n".length()) {
+                    auditDAO.logAction(
+                            AuditDAO.ActionAudit.UPDATE.name(),
+                            AuditDAO.Entities.EMPLOYEE.name(),
+                            employee.getId(),
+                            UserContext.currentUserId(),
+                            changes.toString()
+                    );
+                }
+
+                employee.setVersion(oldEmployee.getVersion() + 1);
+                Employee manager = employee.getDepartment().getManager();
+                Long callerId = UserContext.currentUserId();
+                employee.setCurrentUserManager(callerId != null && manager != null && callerId.equals(manager.getId()));
+                return employee;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * writes only the given fields of an employee, keyed by PATCH_FIELDS name. values are typed, a department
+     * is passed as the resolved Department so the audit can name it. the current values of just those columns
+     * are read for the audit diff, with the same version rules as update. returns the id, the written fields
+     * and the new version.
+     */
+    public Map<String, Object> patch(Long id, Map<String, Object> values, Long expectedVersion) throws SQLException {
+        List<String> fields = PATCH_FIELDS.stream().filter(values::containsKey).toList();
+        PatchStatements statements = patchStatements(fields);
+
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            try {
+                long version;
+                Long oldDepartmentId = null;
+                StringBuilder changes = new StringBuilder("Updated fields:\n");
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        expectedVersion == null ? statements.lockingSelect() : statements.select())) {
+                    stmt.setLong(1, id);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new SQLException("Employee not found for update.");
+                        }
+                        version = rs.getLong(1);
+                        if (expectedVersion != null && expectedVersion != version) {
+                            throw new StaleVersionException("Employee", id);
+                        }
+                        for (int i = 0; i < fields.size(); i++) {
+                            String field = fields.get(i);
+                            Object oldValue = PATCHABLE_FIELDS.get(field).type() == FieldType.DATE
+                                    ? rs.getDate(i + 2).toLocalDate() : rs.getString(i + 2);
+                            trackChange(changes, PATCHABLE_FIELDS.get(field).label(),
+                                    Objects.toString(oldValue, null), auditValue(values.get(field)));
+                        }
+                        if (fields.contains("departmentId")) {
+                            oldDepartmentId = rs.getObject(fields.size() + 2) != null
+                                    ? rs.getLong(fields.size() + 2) : null;
+                        }
+                    }
+                }
+
+                // an empty merge patch changes nothing, it only checks the version
+                if (fields.isEmpty()) {
+                    connection.rollback();
+                    Map<String, Object> unchanged = new LinkedHashMap<>();
+                    unchanged.put("id", id);
+                    unchanged.put("version", version);
+                    return unchanged;
+                }
+
+                try (PreparedStatement stmt = connection.prepareStatement(statements.update())) {
+                    int index = 1;
+                    for (String field : fields) {
+                        bindPatchValue(stmt, index++, values.get(field));
+                    }
+                    stmt.setLong(index++, id);
+                    stmt.setLong(index, version);
+                    if (stmt.executeUpdate() == 0) {
+                        throw new StaleVersionException("Employee", id);
+                    }
+                }
+                Long newDepartmentId = values.get("departmentId") instanceof Department department
+                        ? department.getId() : null;
+                if (oldDepartmentId != null && !Objects.equals(oldDepartmentId, newDepartmentId)) {
+                    SyncDAO.recordDepartmentExit(connection, id, oldDepartmentId);
+                }
+
+                connection.commit();
+                DepartmentCache.getInstance().invalidateManagedBy(id);
+                if (changes.length() > "Updated fields:\n".length()) {
+                    auditDAO.logAction(
+                            AuditDAO.ActionAudit.UPDATE.name(),
+                            AuditDAO.Entities.EMPLOYEE.name(),
+                            id,
+                            UserContext.currentUserId(),
+                            changes.toString()
+                    );
+                }
+
+                Map<String, Object> patched = new LinkedHashMap<>();
+                patched.put("id", id);
+                for (String field : fields) {
+                    Object value = values.get(field);
+                    patched.put(field, value instanceof Department department ? department.getId() : value);
+                }
+                patched.put("version", version + 1);
+                return patched;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
             }
+        }
+    }
+
+    private PatchStatements patchStatements(List<String> fields) {
+        return PATCH_STATEMENTS.computeIfAbsent(fields, selection -> {
+            // the department is audited by name, so its old name is joined in when it is patched
+            StringBuilder select = new StringBuilder("SELECT e.version");
+            StringBuilder update = new StringBuilder("UPDATE employees SET ");
+            for (String field : selection) {
+                PatchableField patchable = PATCHABLE_FIELDS.get(field);
+                select.append(", ").append(field.equals("departmentId") ? "d.name" : "e." + patchable.column());
+                update.append(patchable.column()).append(" = ?, ");
+            }
+            // the old department id last, a move out of it is recorded for the delta sync
+            if (selection.contains("departmentId")) {
+                select.append(", e.department_id");
+            }
+            select.append(" FROM employees e");
+            if (selection.contains("departmentId")) {
+                select.append(" LEFT JOIN departments d ON d.id = e.department_id");
+            }
+            select.append(" WHERE e.id = ?");
+            update.append("updated_at = CURRENT_TIMESTAMP, version = version + 1 WHERE id = ? AND version = ?");
+            return new PatchStatements(select.toString(), select + " FOR UPDATE OF e.id", update.toString());
+        });
+    }
 
-            return findById(employee.getId());
-        } catch (SQLException e) {
-            connection.rollback();
-            throw e;
+    private static void bindPatchValue(PreparedStatement stmt, int index, Object value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index, Types.VARCHAR);
+        } else if (value instanceof Department department) {
+            stmt.setLong(index, department.getId());
+        } else if (value instanceof LocalDate date) {
+            stmt.setDate(index, Date.valueOf(date));
+        } else if (value instanceof Enum<?> constant) {
+            stmt.setString(index, constant.name());
+        } else {
+            stmt.setString(index, value.toString());
         }
     }
 
+    private static String auditValue(Object value) {
+        if (value instanceof Department department) {
+            return department.getName();
+        }
+        return value instanceof Enum<?> constant ? constant.name() : Objects.toString(value, null);
+    }
+
     public void updatePassword(Employee employee, String newPassword) throws SQLException {
-        String sql = "UPDATE employees SET password_hash = ? WHERE id = ?";
+        String sql = "UPDATE employees SET password_hash = ?, updated_at = CURRENT_TIMESTAMP, version = version + 1 WHERE id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, BCrypt.hashpw(newPassword, BCrypt.gensalt()));
-            stmt.setLong(2, employee.getId());
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setString(1, BCrypt.hashpw(newPassword, BCrypt.gensalt()));
+                stmt.setLong(2, employee.getId());
 
-            int rowsAffected = stmt.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new SQLException("Password update failed, no rows affected.");
-            }
+                int rowsAffected = stmt.executeUpdate();
+                if (rowsAffected == 0) {
+                    throw new SQLException("Password update failed, no rows affected.");
+                }
 
-            connection.commit();
-        } catch (SQLException e) {
-            connection.rollback();
-            throw e;
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
         }
     }
 
@@ -367,51 +1519,57 @@ public class EmployeeDAO {
     }
 
     public void delete(String id) throws SQLException {
-        // Get employee details before deletion for audit log
-        Employee employee = findByEmployeeId(id);
-        if (employee == null) {
-            throw new SQLException("Employee not found for deletion.");
-        }
-
-        String deleteEmployeeSql = "DELETE FROM employees WHERE employee_id = ?";
-        String deleteAuditLogsSql = "DELETE FROM audit_log WHERE employee_id = ?";
-
-        try (PreparedStatement deleteEmployeeStmt = connection.prepareStatement(deleteEmployeeSql);
-             PreparedStatement deleteAuditLogsStmt = connection.prepareStatement(deleteAuditLogsSql)) {
-
-            // Build deletion details
-            StringBuilder changes = new StringBuilder("Deleted employee details:\n")
-                    .append("Employee ID: ").append(employee.getEmployeeId()).append("\n")
-                    .append("Name: ").append(employee.getFullName()).append("\n")
-                    .append("Job Title: ").append(employee.getJobTitle()).append("\n")
-                    .append("Department: ").append(employee.getDepartment().getName()).append("\n")
-                    .append("Status: ").append(employee.getStatus().name()).append("\n");
-
-            // Delete the employee
-            deleteEmployeeStmt.setString(1, id);
-            int rowsAffected = deleteEmployeeStmt.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new SQLException("Delete failed, no rows affected.");
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            // Get employee details before deletion for audit log
+            Employee employee = findByEmployeeId(connection, id);
+            if (employee == null) {
+                throw new SQLException("Employee not found for deletion.");
             }
 
-            // Delete the associated audit logs
+            String deleteEmployeeSql = "DELETE FROM employees WHERE employee_id = ?";
+            String deleteAuditLogsSql = "DELETE FROM audit_log WHERE employee_id = ?";
+
+            try (PreparedStatement deleteEmployeeStmt = connection.prepareStatement(deleteEmployeeSql);
+                 PreparedStatement deleteAuditLogsStmt = connection.prepareStatement(deleteAuditLogsSql)) {
+
+                // Build deletion details
+                StringBuilder changes = new StringBuilder("Deleted employee details:\n")
+                        .append("Employee ID: ").append(employee.getEmployeeId()).append("\n")
+                        .append("Name: ").append(employee.getFullName()).append("\n")
+                        .append("Job Title: ").append(employee.getJobTitle()).append("\n")
+                        .append("Department: ").append(departmentName(employee)).append("\n")
+                        .append("Status: ").append(employee.getStatus().name()).append("\n");
+
+                // Delete the employee
+                deleteEmployeeStmt.setString(1, id);
+                int rowsAffected = deleteEmployeeStmt.executeUpdate();
+                if (rowsAffected == 0) {
+                    throw new SQLException("Delete failed, no rows affected.");
+                }
 
-            deleteAuditLogsStmt.setLong(1, employee.getId());
-            deleteAuditLogsStmt.executeUpdate();
+                // Delete the associated audit logs
 
-            connection.commit();
+                deleteAuditLogsStmt.setLong(1, employee.getId());
+                deleteAuditLogsStmt.executeUpdate();
+                if (departmentId(employee) != null) {
+                    SyncDAO.recordDepartmentExit(connection, employee.getId(), departmentId(employee));
+                }
 
-            // Log the deletion with details
-            auditDAO.logAction(
-                    AuditDAO.ActionAudit.DELETE.name(),
-                    AuditDAO.Entities.EMPLOYEE.name(),
-                    employee.getId(),
-                    AuditDAO.getActionUser().getId(),
-                    changes.toString()
-            );
-        } catch (SQLException e) {
-            connection.rollback();
-            throw e;
+                connection.commit();
+                DepartmentCache.getInstance().invalidateManagedBy(employee.getId());
+
+                // Log the deletion with details
+                auditDAO.logAction(
+                        AuditDAO.ActionAudit.DELETE.name(),
+                        AuditDAO.Entities.EMPLOYEE.name(),
+                        employee.getId(),
+                        UserContext.currentUserId(),
+                        changes.toString()
+                );
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
         }
     }
 
@@ -504,6 +1662,13 @@ public class EmployeeDAO {
     }
 
     public Employee findManagerById(Long managerId) throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            return findManagerById(connection, managerId);
+        }
+    }
+
+    // lookup on a connection already borrowed by the caller
+    Employee findManagerById(Connection connection, Long managerId) throws SQLException {
         String sql = "SELECT * FROM employees WHERE id = ?";
 
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -527,7 +1692,7 @@ public class EmployeeDAO {
         employee.setPasswordHash(rs.getString("password_hash"));
         employee.setRole(UserRole.valueOf(rs.getString("role")));
         employee.setJobTitle(rs.getString("job_title"));
-        employee.setHireDate(rs.getDate("hire_date").toLocalDate());
+        employee.setHireDate(localDate(rs.getDate("hire_date")));
         employee.setStatus(EmploymentStatus.valueOf(rs.getString("status")));
         employee.setEmail(rs.getString("email"));
         employee.setPhone(rs.getString("phone"));
@@ -536,4 +1701,4 @@ public class EmployeeDAO {
         return employee;
     }
 
-}
\ No newline at end of file
+}
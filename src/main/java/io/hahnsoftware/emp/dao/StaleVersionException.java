@@ -0,0 +1,10 @@
+package io.hahnsoftware.emp.dao;
+
+import java.sql.SQLException;
+
+// an update carried a version the row no longer has, someone else changed it since it was read
+public class StaleVersionException extends SQLException {
+    public StaleVersionException(String entity, Long id) {
+        super(entity + " " + id + " was changed by someone else, reload it and try again");
+    }
+}
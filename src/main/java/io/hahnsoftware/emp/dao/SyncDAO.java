@@ -0,0 +1,176 @@
+package io.hahnsoftware.emp.dao;
+
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.util.DatabaseConnection;
+import io.hahnsoftware.emp.util.DatabaseProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * tombstones of deleted rows and the sync tokens of the delta sync.
+ * a token is the database time a sync started at. the next sync reads rows changed from that time minus an
+ * overlap, since updated_at is set when a statement runs and a transaction that was still open at the token
+ * commits rows with an older time. rows in the overlap are sent twice, clients apply them as upserts.
+ * an employee tombstone keeps the department the employee left, by delete or by a move, so a manager is told
+ * about the employees that dropped out of the department. tombstones are kept for RETENTION_MILLIS, older
+ * tokens get a full sync.
+ */
+public class SyncDAO {
+    private static final String TOKEN_PREFIX = "sync:";
+    static final long OVERLAP_MILLIS;
+    static final long RETENTION_MILLIS;
+
+    static {
+        Properties props = DatabaseProperties.loadOrDefaults();
+        OVERLAP_MILLIS = DatabaseProperties.longProperty(props, "sync.overlap.ms", 30000);
+        RETENTION_MILLIS = DatabaseProperties.longProperty(props, "sync.retention.ms", 30L * 24 * 60 * 60 * 1000);
+    }
+
+    // written with the caller's transaction, so the tombstone commits or rolls back together with the delete
+    static void recordDeletion(Connection connection, AuditDAO.Entities entity, Long id) throws SQLException {
+        recordRemoval(connection, entity, id, null);
+    }
+
+    // an employee deleted or moved out of departmentId, with the caller's transaction like recordDeletion
+    static void recordDepartmentExit(Connection connection, Long employeeId, Long departmentId) throws SQLException {
+        recordRemoval(connection, AuditDAO.Entities.EMPLOYEE, employeeId, departmentId);
+    }
+
+    private static void recordRemoval(Connection connection, AuditDAO.Entities entity, Long id, Long departmentId)
+            throws SQLException {
+        String sql = "INSERT INTO deleted_records (entity_type, entity_id, department_id) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, entity.name());
+            stmt.setLong(2, id);
+            if (departmentId != null) {
+                stmt.setLong(3, departmentId);
+            } else {
+                stmt.setNull(3, Types.NUMERIC);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * employees the caller saw and may no longer see: deleted, or moved out of the caller's department. a tombstone
+     * counts when the caller could see the employee in the department it records, and only while the employee is
+     * not visible again, so a move between departments an administrator sees is not sent as a removal.
+     */
+    public List<Long> findRemovedEmployeesSince(Timestamp since, ActingUser caller) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT DISTINCT r.entity_id FROM deleted_records r" +
+                " WHERE r.deleted_at >= ? AND r.entity_type = ?");
+        List<Object> params = new ArrayList<>(List.of(since, AuditDAO.Entities.EMPLOYEE.name()));
+        appendTombstoneScope(caller, sql, params);
+        sql.append(" AND NOT EXISTS (SELECT 1 FROM employees e WHERE e.id = r.entity_id");
+        EmployeeDAO.appendVisibilityScope(caller, sql, params);
+        sql.append(") ORDER BY r.entity_id");
+
+        List<Long> ids = new ArrayList<>();
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    // the tombstones of employees the caller could see before, the same rules as EmployeeDAO.appendVisibilityScope
+    private static void appendTombstoneScope(ActingUser caller, StringBuilder sql, List<Object> params) {
+        if (caller == null) {
+            sql.append(" AND 1=0");
+            return;
+        }
+        switch (caller.role()) {
+            case ADMINISTRATOR, HR_PERSONNEL -> {
+            }
+            case MANAGER -> {
+                if (caller.departmentId() == null) {
+                    sql.append(" AND 1=0");
+                } else {
+                    sql.append(" AND r.department_id = ?");
+                    params.add(caller.departmentId());
+                }
+            }
+            default -> {
+                sql.append(" AND r.entity_id = ?");
+                params.add(caller.id());
+            }
+        }
+    }
+
+    // departments are visible to every user, so are their tombstones
+    public List<Long> findDeletedDepartmentsSince(Timestamp since) throws SQLException {
+        String sql = "SELECT entity_id FROM deleted_records WHERE deleted_at >= ? AND entity_type = ? ORDER BY entity_id";
+        List<Long> ids = new ArrayList<>();
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setTimestamp(1, since);
+            stmt.setString(2, AuditDAO.Entities.DEPARTMENT.name());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    // the database clock, the same one the updated_at and deleted_at defaults use
+    public Timestamp currentTimestamp() throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement("SELECT CURRENT_TIMESTAMP FROM DUAL");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getTimestamp(1);
+        }
+    }
+
+    // tombstones a token within the retention can still need are kept, returns the number deleted
+    public int pruneDeletedRecords() throws SQLException {
+        Timestamp cutoff = Timestamp.from(currentTimestamp().toInstant().minusMillis(RETENTION_MILLIS));
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement("DELETE FROM deleted_records WHERE deleted_at < ?")) {
+            stmt.setTimestamp(1, cutoff);
+            int deleted = stmt.executeUpdate();
+            connection.commit();
+            return deleted;
+        }
+    }
+
+    // true when tombstones from since on may be pruned already, the client then needs a full sync
+    public boolean isExpired(Timestamp since, Timestamp now) {
+        return since.toInstant().isBefore(now.toInstant().minusMillis(RETENTION_MILLIS));
+    }
+
+    public String encodeToken(Timestamp syncedAt) {
+        String raw = TOKEN_PREFIX + syncedAt.toInstant();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // the time to read changes from for a token, already moved back by the overlap
+    public Timestamp changedSince(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith(TOKEN_PREFIX)) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+            Instant syncedAt = Instant.parse(raw.substring(TOKEN_PREFIX.length()));
+            return Timestamp.from(syncedAt.minusMillis(OVERLAP_MILLIS));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid sync token", e);
+        }
+    }
+}
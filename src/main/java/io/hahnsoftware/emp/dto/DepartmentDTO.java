@@ -1,4 +1,5 @@
 package io.hahnsoftware.emp.dto;
 
-public record DepartmentDTO(String name, Long managerId) {
+// version is the one the client read, an update with an older one is rejected; null overwrites unconditionally
+public record DepartmentDTO(String name, Long managerId, Long version) {
 }
@@ -1,7 +1,6 @@
 package io.hahnsoftware.emp.dto;
 
 import io.hahnsoftware.emp.dao.DepartmentDAO;
-import io.hahnsoftware.emp.dao.EmployeeDAO;
 import io.hahnsoftware.emp.model.Department;
 import io.hahnsoftware.emp.model.Employee;
 import io.hahnsoftware.emp.model.EmploymentStatus;
@@ -28,12 +27,12 @@ public class EmployeeDto {
     private final String email;
     private final String phone;
     private final String address;
-
-    private final DepartmentDAO departmentDAO;
+    // version the client read, an update with an older one is rejected; null overwrites unconditionally
+    private Long version;
 
     public EmployeeDto(String employeeId, String fullName, String jobTitle, Long departmentId,
                        LocalDate hireDate, String username, String passwordHash, UserRole role,
-                       EmploymentStatus status, String email, String phone, String address) throws SQLException {
+                       EmploymentStatus status, String email, String phone, String address) {
         this.employeeId = employeeId;
         this.fullName = fullName;
         this.jobTitle = jobTitle;
@@ -46,88 +45,137 @@ public class EmployeeDto {
         this.email = email;
         this.phone = phone;
         this.address = address;
-        this.departmentDAO = new DepartmentDAO(new EmployeeDAO());
     }
 
     public List<String> validateEmployeeDto() {
         List<String> errors = new ArrayList<>();
+        validateField("employeeId", employeeId, errors);
+        validateField("fullName", fullName, errors);
+        validateField("jobTitle", jobTitle, errors);
+        validateField("departmentId", departmentId, errors);
+        validateField("hireDate", hireDate, errors);
+        validateField("status", status, errors);
+        validateField("email", email, errors);
+        validateField("phone", phone, errors);
+        validateField("address", address, errors);
+        return errors;
+    }
 
-        // Validate Employee ID
-        if (employeeId == null || employeeId.trim().isEmpty()) {
-            errors.add("Employee ID is required");
-        } else if (employeeId.length() > 20) {
-            errors.add("Employee ID cannot be longer than 20 characters");
-        }
-
-        // Validate Full Name
-        if (fullName == null || fullName.trim().isEmpty()) {
-            errors.add("Full name is required");
-        } else if (fullName.length() > 100) {
-            errors.add("Full name cannot be longer than 100 characters");
-        }
-
-        // Validate Job Title
-        if (jobTitle == null || jobTitle.trim().isEmpty()) {
-            errors.add("Job title is required");
-        } else if (jobTitle.length() > 100) {
-            errors.add("Job title cannot be longer than 100 characters");
-        }
-
-        // Validate Department
-        if (departmentId == null) {
-            errors.add("Department is required");
-        }
-
-        // Validate Hire Date
-        if (hireDate == null) {
-            errors.add("Hire date is required");
-        } else if (hireDate.isAfter(LocalDate.now())) {
-            errors.add("Hire date cannot be in the future");
-        }
-
-        // Validate Employment Status
-        if (status == null) {
-            errors.add("Employment status is required");
-        }
-
-        // Validate Email
-        if (email == null || email.trim().isEmpty()) {
-            errors.add("Email is required");
-        } else if (!isValidEmail(email)) {
-            errors.add("Invalid email format");
-        } else if (email.length() > 100) {
-            errors.add("Email cannot be longer than 100 characters");
-        }
-
-        // Validate Phone (optional but must be valid if provided)
-        if (phone != null && !phone.trim().isEmpty()) {
-            if (!isValidPhone(phone)) {
-                errors.add("Invalid phone number format");
-            } else if (phone.length() > 20) {
-                errors.add("Phone number cannot be longer than 20 characters");
+    // rules of a single field, a partial update checks only the fields it sets
+    public static void validateField(String field, Object value, List<String> errors) {
+        switch (field) {
+            // Validate Employee ID
+            case "employeeId" -> {
+                String employeeId = (String) value;
+                if (employeeId == null || employeeId.trim().isEmpty()) {
+                    errors.add("Employee ID is required");
+                } else if (employeeId.length() > 20) {
+                    errors.add("Employee ID cannot be longer than 20 characters");
+                }
+            }
+            // Validate Full Name
+            case "fullName" -> {
+                String fullName = (String) value;
+                if (fullName == null || fullName.trim().isEmpty()) {
+                    errors.add("Full name is required");
+                } else if (fullName.length() > 100) {
+                    errors.add("Full name cannot be longer than 100 characters");
+                }
+            }
+            // Validate Job Title
+            case "jobTitle" -> {
+                String jobTitle = (String) value;
+                if (jobTitle == null || jobTitle.trim().isEmpty()) {
+                    errors.add("Job title is required");
+                } else if (jobTitle.length() > 100) {
+                    errors.add("Job title cannot be longer than 100 characters");
+                }
+            }
+            // Validate Department
+            case "departmentId" -> {
+                if (value == null) {
+                    errors.add("Department is required");
+                }
+            }
+            // Validate Hire Date
+            case "hireDate" -> {
+                LocalDate hireDate = (LocalDate) value;
+                if (hireDate == null) {
+                    errors.add("Hire date is required");
+                } else if (hireDate.isAfter(LocalDate.now())) {
+                    errors.add("Hire date cannot be in the future");
+                }
+            }
+            // Validate Employment Status
+            case "status" -> {
+                if (value == null) {
+                    errors.add("Employment status is required");
+                }
             }
+            // Validate Email
+            case "email" -> {
+                String email = (String) value;
+                if (email == null || email.trim().isEmpty()) {
+                    errors.add("Email is required");
+                } else if (!isValidEmail(email)) {
+                    errors.add("Invalid email format");
+                } else if (email.length() > 100) {
+                    errors.add("Email cannot be longer than 100 characters");
+                }
+            }
+            // Validate Phone (optional but must be valid if provided)
+            case "phone" -> {
+                String phone = (String) value;
+                if (phone != null && !phone.trim().isEmpty()) {
+                    if (!isValidPhone(phone)) {
+                        errors.add("Invalid phone number format");
+                    } else if (phone.length() > 20) {
+                        errors.add("Phone number cannot be longer than 20 characters");
+                    }
+                }
+            }
+            // Validate Address (optional but check length if provided)
+            case "address" -> {
+                String address = (String) value;
+                if (address != null && address.length() > 200) {
+                    errors.add("Address cannot be longer than 200 characters");
+                }
+            }
+            // Validate Username
+            case "username" -> {
+                String username = (String) value;
+                if (username == null || username.trim().isEmpty()) {
+                    errors.add("Username is required");
+                } else if (username.length() > 50) {
+                    errors.add("Username cannot be longer than 50 characters");
+                }
+            }
+            // Validate Role
+            case "role" -> {
+                if (value == null) {
+                    errors.add("Role is required");
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown field: " + field);
         }
+    }
 
-        // Validate Address (optional but check length if provided)
-        if (address != null && address.length() > 200) {
-            errors.add("Address cannot be longer than 200 characters");
+    // Convert DTO to Entity, the department is looked up through the caller's DAO
+    public Employee convertToEntity(DepartmentDAO departmentDAO) throws SQLException {
+        // Get department by ID
+        Department department = departmentDAO.findById(departmentId);
+        if (department == null) {
+            throw new IllegalArgumentException("Department not found with id: " + departmentId);
         }
-
-        return errors;
+        return convertToEntity(department);
     }
 
-    // Convert DTO to Entity
-    public Employee convertToEntity() throws SQLException {
+    // Convert DTO to Entity with a department the caller already resolved
+    public Employee convertToEntity(Department department) {
         Employee employee = new Employee();
         employee.setEmployeeId(employeeId);
         employee.setFullName(fullName);
         employee.setJobTitle(jobTitle);
-
-        // Get department by ID
-        Department department = departmentDAO.findById(departmentId);
-        if (department == null) {
-            throw new IllegalArgumentException("Department not found with id: " + departmentId);
-        }
         employee.setDepartment(department);
 
         employee.setHireDate(hireDate);
@@ -138,6 +186,7 @@ public class EmployeeDto {
         employee.setEmail(email);
         employee.setPhone(phone);
         employee.setAddress(address);
+        employee.setVersion(version);
 
         return employee;
     }
@@ -190,4 +239,12 @@ public class EmployeeDto {
     public String getAddress() {
         return address;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ public class Department {
     private Long id;
     private String name;
     private Employee manager;
+    // bumped on every update, an update carrying an older version is rejected
+    private Long version;
 
     public Long getId() {
         return id;
@@ -28,4 +30,12 @@ public class Department {
     public void setManager(Employee manager) {
         this.manager = manager;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
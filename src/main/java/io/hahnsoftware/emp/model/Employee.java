@@ -16,6 +16,8 @@ public class Employee {
     private String email;
     private String phone;
     private String address;
+    // bumped on every update, an update carrying an older version is rejected
+    private Long version;
 
    //is the currently logged-in user in the same department as the employee and a manager
     private boolean isCurrentUserManager = false;
@@ -99,6 +101,15 @@ public class Employee {
     public void setAddress(String address) {
         this.address = address;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public boolean isCurrentUserManager() {
         return isCurrentUserManager;
     }
@@ -0,0 +1,52 @@
+package io.hahnsoftware.emp.model;
+
+import java.util.List;
+
+/**
+ * one page of a search result with the paging metadata and the total number of matching rows.
+ * nextCursor is the keyset cursor to pass back in {@link SearchCriteria} to fetch the following page,
+ * it is null when there is no next page.
+ */
+public class PageResult<T> {
+    private final List<T> items;
+    private final int page;
+    private final int size;
+    private final long totalElements;
+    private final String nextCursor;
+
+    public PageResult(List<T> items, int page, int size, long totalElements, String nextCursor) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public int getTotalPages() {
+        return size == 0 ? 0 : (int) ((totalElements + size - 1) / size);
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
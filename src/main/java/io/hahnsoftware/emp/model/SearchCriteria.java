@@ -10,10 +10,19 @@ public class SearchCriteria {
     private LocalDate endDate;
     private String jobTitle;
     private String employeeId;
+    // free text matched case insensitively against the columns of the employee table, see EmployeeDAO.countSummaries
+    private String text;
     
     // Pagination fields
     private int page = 0;
     private int size = 10;
+
+    // Sorting fields, sortBy is one of id, employeeId, fullName, jobTitle, hireDate, status
+    private String sortBy = "id";
+    private String sortDirection = "ASC";
+
+    // Keyset cursor returned as nextCursor by the previous page, when set the page field is ignored
+    private String cursor;
     
     // Getters and Setters
     public String getName() {
@@ -72,6 +81,14 @@ public class SearchCriteria {
         this.employeeId = employeeId;
     }
     
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
     public int getPage() {
         return page;
     }
@@ -87,6 +104,30 @@ public class SearchCriteria {
     public void setSize(int size) {
         this.size = size;
     }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public void setSortBy(String sortBy) {
+        this.sortBy = sortBy;
+    }
+
+    public String getSortDirection() {
+        return sortDirection;
+    }
+
+    public void setSortDirection(String sortDirection) {
+        this.sortDirection = sortDirection;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
     
     // Builder pattern for fluent API
     public SearchCriteria withName(String name) {
@@ -120,9 +161,25 @@ public class SearchCriteria {
         return this;
     }
     
+    public SearchCriteria withText(String text) {
+        this.text = text;
+        return this;
+    }
+
     public SearchCriteria withPagination(int page, int size) {
         this.page = page;
         this.size = size;
         return this;
     }
+
+    public SearchCriteria withSort(String sortBy, String sortDirection) {
+        this.sortBy = sortBy;
+        this.sortDirection = sortDirection;
+        return this;
+    }
+
+    public SearchCriteria withCursor(String cursor) {
+        this.cursor = cursor;
+        return this;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package io.hahnsoftware.emp.records;
+
+import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.model.UserRole;
+
+import java.security.Principal;
+
+/**
+ * the caller an operation runs for: enough to attribute audit rows and check permissions without loading the
+ * full employee.
+ */
+public record ActingUser(Long id, String username, UserRole role, Long departmentId) implements Principal {
+
+    public static ActingUser of(Employee employee) {
+        if (employee == null) {
+            return null;
+        }
+        Long departmentId = employee.getDepartment() != null ? employee.getDepartment().getId() : null;
+        return new ActingUser(employee.getId(), employee.getUsername(), employee.getRole(), departmentId);
+    }
+
+    public boolean hasRole(UserRole role) {
+        return this.role == role;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
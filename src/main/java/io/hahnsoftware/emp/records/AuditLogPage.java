@@ -0,0 +1,10 @@
+package io.hahnsoftware.emp.records;
+
+import java.util.List;
+
+/**
+ * one page of audit entries, newest first. nextCursor is passed back as cursor to read the following page and is
+ * null on the last one. there is no total, counting the audit log would cost more than reading the page.
+ */
+public record AuditLogPage(List<AuditLogSummary> items, int size, String nextCursor) {
+}
@@ -0,0 +1,18 @@
+package io.hahnsoftware.emp.records;
+
+import java.time.LocalDateTime;
+
+/**
+ * audit entry as listed: the username instead of the whole employee and the first characters of the changes.
+ * changesTruncated tells that the changes go on, the full entry is read by id.
+ */
+public record AuditLogSummary(Long id,
+                              String action,
+                              String entityType,
+                              Long entityId,
+                              Long employeeId,
+                              String username,
+                              LocalDateTime timestamp,
+                              String changes,
+                              boolean changesTruncated) {
+}
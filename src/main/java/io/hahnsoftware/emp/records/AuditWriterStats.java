@@ -0,0 +1,16 @@
+package io.hahnsoftware.emp.records;
+
+public record AuditWriterStats(int queueDepth,
+                               int queueCapacity,
+                               long enqueued,
+                               long written,
+                               long failed,
+                               long callerRunsWrites,
+                               long batches,
+                               int lastBatchSize,
+                               int maxBatchSize,
+                               double averageBatchSize,
+                               long lastFlushMillis,
+                               long maxFlushMillis,
+                               double averageFlushMillis) {
+}
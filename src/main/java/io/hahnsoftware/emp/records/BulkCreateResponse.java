@@ -0,0 +1,9 @@
+package io.hahnsoftware.emp.records;
+
+import java.util.List;
+
+public record BulkCreateResponse(int created,
+                                 int invalid,
+                                 int failed,
+                                 List<BulkCreateResult> results) {
+}
@@ -0,0 +1,15 @@
+package io.hahnsoftware.emp.records;
+
+import java.util.List;
+
+// outcome of one row of a bulk creation, index is the position of the row in the request
+public record BulkCreateResult(int index, String employeeId, Long id, Status status, List<String> errors) {
+
+    public enum Status {
+        CREATED,
+        // passed validation in a dry run, nothing was written
+        VALID,
+        INVALID,
+        FAILED
+    }
+}
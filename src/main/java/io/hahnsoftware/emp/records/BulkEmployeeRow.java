@@ -0,0 +1,7 @@
+package io.hahnsoftware.emp.records;
+
+import io.hahnsoftware.emp.dto.EmployeeDto;
+
+// one row of a bulk creation, the employee with its initial password
+public record BulkEmployeeRow(EmployeeDto employee, String password) {
+}
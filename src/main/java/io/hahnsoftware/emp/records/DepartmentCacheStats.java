@@ -0,0 +1,11 @@
+package io.hahnsoftware.emp.records;
+
+public record DepartmentCacheStats(int size,
+                                   int maxSize,
+                                   long ttlMillis,
+                                   long hits,
+                                   long misses,
+                                   long evictions,
+                                   long invalidations,
+                                   double hitRate) {
+}
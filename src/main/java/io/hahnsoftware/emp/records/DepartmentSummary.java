@@ -0,0 +1,5 @@
+package io.hahnsoftware.emp.records;
+
+// flat projection of a department with the id and name of its manager instead of the nested employee
+public record DepartmentSummary(Long id, String name, Long managerId, String managerName) {
+}
@@ -0,0 +1,7 @@
+package io.hahnsoftware.emp.records;
+
+import java.util.List;
+
+// employees found for a list of ids in request order, ids without an employee are listed in missingIds
+public record EmployeeBatchResponse(List<?> employees, List<Long> missingIds) {
+}
@@ -0,0 +1,7 @@
+package io.hahnsoftware.emp.records;
+
+import java.util.Set;
+
+// the unique keys of employees, asked for and answered by EmployeeDAO.findTakenKeys
+public record EmployeeKeys(Set<String> employeeIds, Set<String> usernames, Set<String> emails) {
+}
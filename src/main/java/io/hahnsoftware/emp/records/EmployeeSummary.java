@@ -0,0 +1,46 @@
+package io.hahnsoftware.emp.records;
+
+import io.hahnsoftware.emp.model.Department;
+import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.model.EmploymentStatus;
+import io.hahnsoftware.emp.model.UserRole;
+
+import java.time.LocalDate;
+
+/**
+ * flat projection of an employee for lists and tables. it carries the listed columns and the names of the
+ * department and its manager instead of the nested entities, and never the password hash.
+ */
+public record EmployeeSummary(Long id,
+                              String employeeId,
+                              String fullName,
+                              String jobTitle,
+                              Long departmentId,
+                              String departmentName,
+                              String managerName,
+                              LocalDate hireDate,
+                              EmploymentStatus status,
+                              UserRole role,
+                              String username,
+                              String email,
+                              String phone) {
+
+    public static EmployeeSummary of(Employee employee) {
+        Department department = employee.getDepartment();
+        return new EmployeeSummary(
+                employee.getId(),
+                employee.getEmployeeId(),
+                employee.getFullName(),
+                employee.getJobTitle(),
+                department != null ? department.getId() : null,
+                department != null ? department.getName() : null,
+                department != null && department.getManager() != null ? department.getManager().getFullName() : null,
+                employee.getHireDate(),
+                employee.getStatus(),
+                employee.getRole(),
+                employee.getUsername(),
+                employee.getEmail(),
+                employee.getPhone()
+        );
+    }
+}
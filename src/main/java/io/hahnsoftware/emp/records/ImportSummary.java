@@ -0,0 +1,12 @@
+package io.hahnsoftware.emp.records;
+
+public record ImportSummary(boolean dryRun,
+                            boolean cancelled,
+                            long rows,
+                            long created,
+                            long valid,
+                            long invalid,
+                            long failed,
+                            long elapsedMillis,
+                            double rowsPerSecond) {
+}
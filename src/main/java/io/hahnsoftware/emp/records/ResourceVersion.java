@@ -0,0 +1,30 @@
+package io.hahnsoftware.emp.records;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * cheap stand-in for the state of a resource, read without loading it. fingerprint changes whenever the
+ * resource does, lastModified is the newest updated_at involved or null when no row has one.
+ */
+public record ResourceVersion(String fingerprint, Instant lastModified) {
+
+    // weak ETag of one representation, variant covers whatever else shapes the body (view, fields, caller)
+    public String eTag(String variant) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((fingerprint + "#" + variant).getBytes(StandardCharsets.UTF_8));
+            return "W/\"" + HexFormat.of().formatHex(digest, 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // -1 when unknown, the value WebRequest.checkNotModified expects for "no Last-Modified"
+    public long lastModifiedMillis() {
+        return lastModified != null ? lastModified.toEpochMilli() : -1;
+    }
+}
@@ -0,0 +1,16 @@
+package io.hahnsoftware.emp.records;
+
+import java.util.List;
+
+/**
+ * changes since the token a client sent, or every row when it sent none or one older than the tombstones are kept
+ * (full is then true, the deleted lists are empty and the client drops the rows it has). deleted employees include
+ * the ones the caller may no longer see. the client stores token and passes it as since on its next sync.
+ */
+public record SyncResponse(String token,
+                           boolean full,
+                           List<EmployeeSummary> employees,
+                           List<DepartmentSummary> departments,
+                           List<Long> deletedEmployeeIds,
+                           List<Long> deletedDepartmentIds) {
+}
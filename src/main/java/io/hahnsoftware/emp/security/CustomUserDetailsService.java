@@ -2,8 +2,8 @@ package io.hahnsoftware.emp.security;
 
 import io.hahnsoftware.emp.dao.EmployeeDAO;
 import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.records.ActingUser;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -28,7 +28,7 @@ public class CustomUserDetailsService implements UserDetailsService {
             if (employee == null) {
                 throw new UsernameNotFoundException("User not found: " + username);
             }
-            return new User(employee.getUsername(), 
+            return new EmployeeUserDetails(ActingUser.of(employee),
                           employee.getPasswordHash(),
                           Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + employee.getRole().name())));
         } catch (SQLException e) {
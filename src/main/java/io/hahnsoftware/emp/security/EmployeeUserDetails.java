@@ -0,0 +1,21 @@
+package io.hahnsoftware.emp.security;
+
+import io.hahnsoftware.emp.records.ActingUser;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+// user details of a logged in employee, keeps the fields that go into the token claims
+public class EmployeeUserDetails extends User {
+    private final ActingUser actingUser;
+
+    public EmployeeUserDetails(ActingUser actingUser, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(actingUser.username(), password, authorities);
+        this.actingUser = actingUser;
+    }
+
+    public ActingUser getActingUser() {
+        return actingUser;
+    }
+}
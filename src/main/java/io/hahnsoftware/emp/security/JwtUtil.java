@@ -1,5 +1,7 @@
 package io.hahnsoftware.emp.security;
 
+import io.hahnsoftware.emp.model.UserRole;
+import io.hahnsoftware.emp.records.ActingUser;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,6 +9,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -14,15 +17,21 @@ import java.util.function.Function;
 
 @Component
 public class JwtUtil {
+    static final String EMPLOYEE_ID_CLAIM = "eid";
+    static final String ROLE_CLAIM = "role";
+    static final String DEPARTMENT_ID_CLAIM = "dept";
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final Long expiration;
+    // key and parser are immutable and thread safe, they are built once instead of per token
+    private final SecretKey signingKey;
+    private final JwtParser parser;
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
-
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public JwtUtil(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") Long expiration) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     public String extractUsername(String token) {
@@ -34,24 +43,45 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * verifies the signature and expiry of the token and decodes its claims, in one parse.
+     * read everything needed from the returned claims instead of calling the extract methods one by one,
+     * each of them verifies the token again.
+     */
+    public Claims parseClaims(String token) throws JwtException {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * reads the caller from a token issued by {@link #generateToken(UserDetails)}. the token is parsed and
+     * verified once, signature and expiry included, and nothing is loaded from the database.
+     * returns null for tokens issued before the claims were added, those clients have to log in again.
+     */
+    public ActingUser extractActingUser(String token) throws JwtException {
+        Claims claims = parseClaims(token);
+        Long employeeId = claims.get(EMPLOYEE_ID_CLAIM, Long.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (employeeId == null || role == null) {
+            return null;
+        }
+        return new ActingUser(employeeId, claims.getSubject(), UserRole.valueOf(role),
+                claims.get(DEPARTMENT_ID_CLAIM, Long.class));
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof EmployeeUserDetails employeeUserDetails) {
+            ActingUser user = employeeUserDetails.getActingUser();
+            claims.put(EMPLOYEE_ID_CLAIM, user.id());
+            claims.put(ROLE_CLAIM, user.role().name());
+            if (user.departmentId() != null) {
+                claims.put(DEPARTMENT_ID_CLAIM, user.departmentId());
+            }
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -61,12 +91,12 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final Claims claims = parseClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
-}
\ No newline at end of file
+}
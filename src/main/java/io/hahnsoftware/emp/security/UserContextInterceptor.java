@@ -1,7 +1,7 @@
 package io.hahnsoftware.emp.security;
 
-import io.hahnsoftware.emp.dao.AuditDAO;
-import io.hahnsoftware.emp.dao.EmployeeDAO;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.util.UserContext;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.core.Authentication;
@@ -9,17 +9,9 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import java.sql.SQLException;
-
 @Component
 public class UserContextInterceptor implements HandlerInterceptor {
 
-    private final EmployeeDAO employeeDAO;
-
-    public UserContextInterceptor() throws SQLException {
-        this.employeeDAO = new EmployeeDAO();
-    }
-
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         // Skip for login endpoint
@@ -27,10 +19,11 @@ public class UserContextInterceptor implements HandlerInterceptor {
             return true;
         }
 
+        // JwtRequestFilter puts the caller read from the token in the security context
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.isAuthenticated()) {
-            String username = authentication.getName();
-            AuditDAO.setActionUser(employeeDAO.findByUsername(username));
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof ActingUser user) {
+            UserContext.bind(user);
         }
 
         return true;
@@ -39,6 +32,6 @@ public class UserContextInterceptor implements HandlerInterceptor {
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
         // Clear the user context after the request is complete
-        AuditDAO.setActionUser(null);
+        UserContext.clear();
     }
-}
\ No newline at end of file
+}
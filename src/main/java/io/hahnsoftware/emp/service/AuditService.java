@@ -1,15 +1,19 @@
 package io.hahnsoftware.emp.service;
 
 import io.hahnsoftware.emp.dao.AuditDAO;
+import io.hahnsoftware.emp.dao.AuditLogWriter;
 import io.hahnsoftware.emp.dao.EmployeeDAO;
 import io.hahnsoftware.emp.model.AuditLog;
 import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.records.AuditLogPage;
+import io.hahnsoftware.emp.records.AuditWriterStats;
+import io.hahnsoftware.emp.util.UserContext;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Service
 public class AuditService {
@@ -28,19 +32,29 @@ public class AuditService {
         auditDAO.logAction(action, entityType, entityId, employeeId, changes);
     }
 
-    public List<AuditLog> getAuditLogs(
+    public AuditLogPage getAuditLogPage(
             @RequestParam(value = "entityType", required = false) String entityType,
             @RequestParam(value = "action", required = false) String action,
             @RequestParam(value = "startDate", required = false) LocalDateTime startDate,
-            @RequestParam(value = "endDate", required = false) LocalDateTime endDate) throws SQLException {
-        return auditDAO.getAuditLogs(entityType, action, startDate, endDate);
+            @RequestParam(value = "endDate", required = false) LocalDateTime endDate,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam("size") int size) throws SQLException {
+        return auditDAO.getAuditLogPage(entityType, action, startDate, endDate, cursor, size);
+    }
+
+    public AuditLog getAuditLog(@RequestParam("id") Long id) throws SQLException {
+        return auditDAO.findById(id);
+    }
+
+    public AuditWriterStats getWriterStats() {
+        return AuditLogWriter.getInstance().getStats();
     }
 
     public void setCurrentActionUser(@RequestParam("employee") Employee employee) {
-        AuditDAO.setActionUser(employee);
+        UserContext.bind(ActingUser.of(employee));
     }
 
-    public Employee getCurrentActionUser() {
-        return AuditDAO.getActionUser();
+    public ActingUser getCurrentActionUser() {
+        return UserContext.current();
     }
 }
\ No newline at end of file
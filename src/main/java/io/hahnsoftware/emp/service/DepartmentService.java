@@ -1,17 +1,27 @@
 package io.hahnsoftware.emp.service;
 
+import io.hahnsoftware.emp.dao.DepartmentCache;
 import io.hahnsoftware.emp.dao.DepartmentDAO;
 import io.hahnsoftware.emp.dao.EmployeeDAO;
 import io.hahnsoftware.emp.dto.DepartmentDTO;
 import io.hahnsoftware.emp.model.Department;
 import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.records.DepartmentCacheStats;
+import io.hahnsoftware.emp.records.ResourceVersion;
+import io.hahnsoftware.emp.util.FieldSelection;
 import org.springframework.stereotype.Service;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class DepartmentService {
+    // fields a sparse fieldset may ask for, in response order
+    private static final List<String> FIELDS = List.of("id", "name", "managerId", "managerName");
+
     private final DepartmentDAO departmentDAO;
 
 
@@ -53,8 +63,46 @@ public class DepartmentService {
         return department;
     }
 
-    public List<Department> getAllDepartments() throws SQLException {
-        return departmentDAO.findAll();
+    // the list at version or newer, version as returned by getDepartmentsVersion
+    public List<Department> getAllDepartments(ResourceVersion version) throws SQLException {
+        return departmentDAO.findAll(version);
+    }
+
+    public ResourceVersion getDepartmentsVersion() throws SQLException {
+        return departmentDAO.findAllVersion();
+    }
+
+    // departments are served from the cache, a sparse fieldset is projected from the cached entity without a query
+    public List<String> parseFields(String fields) {
+        return FieldSelection.parse(fields, FIELDS);
+    }
+
+    public List<Map<String, Object>> getAllDepartmentFields(List<String> fields, ResourceVersion version)
+            throws SQLException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Department department : departmentDAO.findAll(version)) {
+            rows.add(toFields(department, fields));
+        }
+        return rows;
+    }
+
+    public Map<String, Object> getDepartmentFieldsById(Long id, List<String> fields) throws SQLException {
+        return toFields(getDepartmentById(id), fields);
+    }
+
+    private static Map<String, Object> toFields(Department department, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        Employee manager = department.getManager();
+        for (String field : fields) {
+            row.put(field, switch (field) {
+                case "id" -> department.getId();
+                case "name" -> department.getName();
+                case "managerId" -> manager != null ? manager.getId() : null;
+                case "managerName" -> manager != null ? manager.getFullName() : null;
+                default -> throw new IllegalArgumentException("Unknown field: " + field);
+            });
+        }
+        return row;
     }
 
     public Department updateDepartment(DepartmentDTO departmentDTO, Long id) throws SQLException {
@@ -73,11 +121,16 @@ public class DepartmentService {
         department.setManager(manager);
         department.setId(id);
         department.setName(departmentDTO.name());
+        department.setVersion(departmentDTO.version());
         departmentDAO.updateDepartment(department);
-        return getDepartmentById(department.getId());
+        return department;
     }
 
     public void deleteDepartment(Long id) throws SQLException {
         departmentDAO.deleteDepartment(id);
     }
+
+    public DepartmentCacheStats getCacheStats() {
+        return DepartmentCache.getInstance().getStats();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,243 @@
+package io.hahnsoftware.emp.service;
+
+import io.hahnsoftware.emp.dao.EmployeeDAO;
+import io.hahnsoftware.emp.dto.EmployeeDto;
+import io.hahnsoftware.emp.model.Department;
+import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.records.BulkCreateResult;
+import io.hahnsoftware.emp.records.EmployeeKeys;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * validates and inserts employees in batches, shared by the bulk endpoint and the CSV import. departments are
+ * resolved from one list loaded up front, the per-row rules run in parallel and BCrypt hashing is spread over
+ * the cores before the rows go to {@link EmployeeDAO#createBatch}.
+ * <p>
+ * a row whose employee id, username or email is taken, by another row of the call or by an employee in the
+ * database, is reported invalid on its own instead of failing the whole insert chunk. a real load writes each
+ * call before the next, so the database covers the rows of earlier calls. a dry run writes nothing and keeps the
+ * keys of every row it checked, three short strings per row, so one loader covers one request or one file.
+ */
+class EmployeeBatchLoader {
+    // BCrypt and the row rules run here and not in the common pool every parallel stream of the process shares.
+    // when the queue is full the submitting thread does the work itself, which slows down a burst of imports
+    private static final int WORKER_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService WORKERS = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS,
+            60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(4 * WORKER_THREADS), workerThreads(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    // one row to load, errors holds problems found before the DTO could be built (for example unparsable values)
+    record Row(int index, EmployeeDto employee, String password, List<String> errors) {
+    }
+
+    private record Checked(Row row, Employee employee, List<String> errors) {
+    }
+
+    private final EmployeeDAO employeeDAO;
+    private final Map<Long, Department> departmentsById = new HashMap<>();
+    private final Map<String, Department> departmentsByName = new HashMap<>();
+    private final EmployeeKeys dryRunKeys = emptyKeys();
+
+    EmployeeBatchLoader(EmployeeDAO employeeDAO, List<Department> departments) {
+        this.employeeDAO = employeeDAO;
+        for (Department department : departments) {
+            departmentsById.put(department.getId(), department);
+            departmentsByName.put(department.getName().toLowerCase(Locale.ROOT), department);
+        }
+    }
+
+    // case insensitive, null when there is no such department
+    Department findDepartmentByName(String name) {
+        return departmentsByName.get(name.trim().toLowerCase(Locale.ROOT));
+    }
+
+    // one result per row, in the order of rows
+    List<BulkCreateResult> load(List<Row> rows, boolean dryRun) throws SQLException {
+        // the rules only read shared state, duplicates are checked afterwards in row order
+        Checked[] checked = new Checked[rows.size()];
+        forEachIndex(rows.size(), i -> checked[i] = check(rows.get(i)));
+        EmployeeKeys taken = employeeDAO.findTakenKeys(keysOf(checked));
+        EmployeeKeys seen = dryRun ? dryRunKeys : emptyKeys();
+
+        List<Employee> employees = new ArrayList<>();
+        List<String> passwords = new ArrayList<>();
+        Map<Employee, Row> rowsByEmployee = new IdentityHashMap<>();
+        Map<Row, BulkCreateResult> results = new IdentityHashMap<>();
+        for (Checked check : checked) {
+            Row row = check.row();
+            List<String> errors = check.errors();
+            if (row.employee() != null && row.errors().isEmpty()) {
+                checkUnique(row.employee(), taken, seen, errors);
+            }
+            if (!errors.isEmpty()) {
+                results.put(row, result(row, null, BulkCreateResult.Status.INVALID, errors));
+            } else if (dryRun) {
+                results.put(row, result(row, null, BulkCreateResult.Status.VALID, List.of()));
+            } else {
+                employees.add(check.employee());
+                passwords.add(row.password());
+                rowsByEmployee.put(check.employee(), row);
+            }
+        }
+
+        if (!employees.isEmpty()) {
+            // BCrypt dominates the cost of a row, spread it over the cores before touching the database
+            forEachIndex(employees.size(),
+                    i -> employees.get(i).setPasswordHash(BCrypt.hashpw(passwords.get(i), BCrypt.gensalt())));
+
+            employeeDAO.createBatch(employees, (chunk, e) -> {
+                for (Employee employee : chunk) {
+                    Row row = rowsByEmployee.get(employee);
+                    results.put(row, result(row, null, BulkCreateResult.Status.FAILED, List.of(e.getMessage())));
+                }
+            });
+            for (Employee employee : employees) {
+                Row row = rowsByEmployee.get(employee);
+                results.putIfAbsent(row, result(row, employee.getId(), BulkCreateResult.Status.CREATED, List.of()));
+            }
+        }
+
+        List<BulkCreateResult> ordered = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            ordered.add(results.get(row));
+        }
+        return ordered;
+    }
+
+    private Checked check(Row row) {
+        EmployeeDto dto = row.employee();
+        if (!row.errors().isEmpty()) {
+            return new Checked(row, null, new ArrayList<>(row.errors()));
+        }
+        if (dto == null) {
+            return new Checked(row, null, new ArrayList<>(List.of("Employee is required")));
+        }
+
+        List<String> errors = new ArrayList<>(dto.validateEmployeeDto());
+        if (dto.getUsername() == null || dto.getUsername().trim().isEmpty()) {
+            errors.add("Username is required");
+        }
+        if (dto.getRole() == null) {
+            errors.add("Role is required");
+        }
+        if (row.password() == null || row.password().isEmpty()) {
+            errors.add("Password is required");
+        }
+        Department department = dto.getDepartmentId() != null ? departmentsById.get(dto.getDepartmentId()) : null;
+        if (dto.getDepartmentId() != null && department == null) {
+            errors.add("Department not found with id: " + dto.getDepartmentId());
+        }
+        if (!errors.isEmpty()) {
+            return new Checked(row, null, errors);
+        }
+
+        Employee employee = dto.convertToEntity(department);
+        errors.addAll(employeeDAO.validateEmployee(employee));
+        return new Checked(row, employee, errors);
+    }
+
+    // the keys of the rows that passed the rules, the only ones that could reach the insert
+    private static EmployeeKeys keysOf(Checked[] checked) {
+        EmployeeKeys keys = emptyKeys();
+        for (Checked check : checked) {
+            if (check.errors().isEmpty()) {
+                keys.employeeIds().add(check.employee().getEmployeeId());
+                keys.usernames().add(check.employee().getUsername());
+                keys.emails().add(check.employee().getEmail());
+            }
+        }
+        return keys;
+    }
+
+    private static void checkUnique(EmployeeDto dto, EmployeeKeys taken, EmployeeKeys seen, List<String> errors) {
+        if (dto.getEmployeeId() != null) {
+            if (taken.employeeIds().contains(dto.getEmployeeId())) {
+                errors.add("Employee ID already exists: " + dto.getEmployeeId());
+            } else if (!seen.employeeIds().add(dto.getEmployeeId())) {
+                errors.add("Duplicate employee ID: " + dto.getEmployeeId());
+            }
+        }
+        if (dto.getUsername() != null) {
+            if (taken.usernames().contains(dto.getUsername())) {
+                errors.add("Username already exists: " + dto.getUsername());
+            } else if (!seen.usernames().add(dto.getUsername())) {
+                errors.add("Duplicate username: " + dto.getUsername());
+            }
+        }
+        if (dto.getEmail() != null) {
+            // an address differing only in case reaches the same mailbox, taken holds lower case emails
+            String email = dto.getEmail().toLowerCase(Locale.ROOT);
+            if (taken.emails().contains(email)) {
+                errors.add("Email already exists: " + dto.getEmail());
+            } else if (!seen.emails().add(email)) {
+                errors.add("Duplicate email: " + dto.getEmail());
+            }
+        }
+    }
+
+    private static EmployeeKeys emptyKeys() {
+        return new EmployeeKeys(new HashSet<>(), new HashSet<>(), new HashSet<>());
+    }
+
+    // runs action for every index below size on the workers, one slice of the range per thread, and waits for all
+    private static void forEachIndex(int size, IntConsumer action) {
+        int slices = Math.min(size, WORKER_THREADS);
+        List<Future<?>> futures = new ArrayList<>(slices);
+        for (int slice = 0; slice < slices; slice++) {
+            int from = (int) ((long) size * slice / slices);
+            int to = (int) ((long) size * (slice + 1) / slices);
+            futures.add(WORKERS.submit(() -> {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading employees", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ThreadFactory workerThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "employee-batch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static BulkCreateResult result(Row row, Long id, BulkCreateResult.Status status, List<String> errors) {
+        String employeeId = row.employee() != null ? row.employee().getEmployeeId() : null;
+        return new BulkCreateResult(row.index(), employeeId, id, status, errors);
+    }
+}
@@ -0,0 +1,206 @@
+package io.hahnsoftware.emp.service;
+
+import io.hahnsoftware.emp.dao.DepartmentDAO;
+import io.hahnsoftware.emp.dao.EmployeeDAO;
+import io.hahnsoftware.emp.dto.EmployeeDto;
+import io.hahnsoftware.emp.model.Department;
+import io.hahnsoftware.emp.model.EmploymentStatus;
+import io.hahnsoftware.emp.model.UserRole;
+import io.hahnsoftware.emp.records.BulkCreateResult;
+import io.hahnsoftware.emp.records.ImportSummary;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * imports employees from CSV without holding the file in memory. rows are read in windows of {@link #WINDOW_SIZE},
+ * each window is validated and inserted before the next one is read, and only rejected rows are handed to the
+ * listener. columns are matched by header name, so a file written by the CSV export plus a password column can
+ * be imported as is. in a dry run nothing is written and every row is only validated.
+ */
+public class EmployeeCsvImporter {
+    // rows validated and inserted together, bounds the memory of an import whatever the file size
+    static final int WINDOW_SIZE = 1000;
+
+    private static final String[] REQUIRED_COLUMNS = {
+            "employeeId", "fullName", "jobTitle", "department", "hireDate", "status", "email", "username", "role",
+            "password"
+    };
+
+    public interface ImportListener {
+        // a row that was not imported, index is the line of the file the row starts on
+        void rejected(BulkCreateResult result) throws IOException;
+
+        // called after each window
+        default void progress(long rowsRead, double rowsPerSecond) throws IOException {
+        }
+
+        // checked between windows, the rows already written stay
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+
+    private final EmployeeDAO employeeDAO;
+    private final DepartmentDAO departmentDAO;
+
+    public EmployeeCsvImporter(EmployeeDAO employeeDAO, DepartmentDAO departmentDAO) {
+        this.employeeDAO = employeeDAO;
+        this.departmentDAO = departmentDAO;
+    }
+
+    public ImportSummary importCsv(Reader csv, boolean dryRun, ImportListener listener) throws SQLException, IOException {
+        long start = System.nanoTime();
+        CsvRecordReader reader = new CsvRecordReader(csv);
+        Map<String, Integer> columns = readHeader(reader.next());
+        // departments are resolved by name from one cached lookup instead of a query per row
+        EmployeeBatchLoader loader = new EmployeeBatchLoader(employeeDAO, departmentDAO.findAll());
+
+        long rows = 0;
+        long created = 0;
+        long valid = 0;
+        long invalid = 0;
+        long failed = 0;
+        boolean cancelled = false;
+        List<EmployeeBatchLoader.Row> window = new ArrayList<>(WINDOW_SIZE);
+        while (true) {
+            window.clear();
+            while (window.size() < WINDOW_SIZE) {
+                int line = (int) reader.getLineNumber();
+                String[] values = reader.next();
+                if (values == null) {
+                    break;
+                }
+                if (values.length == 1 && values[0].isBlank()) {
+                    continue;
+                }
+                window.add(toRow(line, values, columns, loader));
+            }
+            if (window.isEmpty()) {
+                break;
+            }
+
+            for (BulkCreateResult result : loader.load(window, dryRun)) {
+                switch (result.status()) {
+                    case CREATED -> created++;
+                    case VALID -> valid++;
+                    case INVALID -> invalid++;
+                    case FAILED -> failed++;
+                }
+                if (result.status() == BulkCreateResult.Status.INVALID || result.status() == BulkCreateResult.Status.FAILED) {
+                    listener.rejected(result);
+                }
+            }
+            rows += window.size();
+            listener.progress(rows, rowsPerSecond(rows, start));
+            if (listener.isCancelled()) {
+                cancelled = true;
+                break;
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new ImportSummary(dryRun, cancelled, rows, created, valid, invalid, failed, elapsedMillis,
+                rowsPerSecond(rows, start));
+    }
+
+    private Map<String, Integer> readHeader(String[] header) {
+        if (header == null) {
+            throw new IllegalArgumentException("The CSV file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            columns.put(header[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = new ArrayList<>();
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column.toLowerCase(Locale.ROOT))) {
+                missing.add(column);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing CSV columns: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private EmployeeBatchLoader.Row toRow(int line, String[] values, Map<String, Integer> columns,
+                                          EmployeeBatchLoader loader) {
+        List<String> errors = new ArrayList<>();
+
+        Long departmentId = null;
+        String departmentName = value(values, columns, "department");
+        if (departmentName != null) {
+            Department department = loader.findDepartmentByName(departmentName);
+            if (department == null) {
+                errors.add("Department not found: " + departmentName);
+            } else {
+                departmentId = department.getId();
+            }
+        }
+
+        LocalDate hireDate = null;
+        String hireDateValue = value(values, columns, "hireDate");
+        if (hireDateValue != null) {
+            try {
+                hireDate = LocalDate.parse(hireDateValue);
+            } catch (DateTimeParseException e) {
+                errors.add("Invalid hire date: " + hireDateValue);
+            }
+        }
+
+        EmploymentStatus status = enumValue(EmploymentStatus.class, value(values, columns, "status"), "status", errors);
+        UserRole role = enumValue(UserRole.class, value(values, columns, "role"), "role", errors);
+
+        EmployeeDto dto = new EmployeeDto(
+                value(values, columns, "employeeId"),
+                value(values, columns, "fullName"),
+                value(values, columns, "jobTitle"),
+                departmentId,
+                hireDate,
+                value(values, columns, "username"),
+                null,
+                role,
+                status,
+                value(values, columns, "email"),
+                value(values, columns, "phone"),
+                value(values, columns, "address")
+        );
+        return new EmployeeBatchLoader.Row(line, dto, value(values, columns, "password"), errors);
+    }
+
+    // trimmed value of the column, null when the column is absent or empty
+    private static String value(String[] values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+        if (index == null || index >= values.length) {
+            return null;
+        }
+        String value = values[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String value, String column, List<String> errors) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            errors.add("Invalid " + column + ": " + value);
+            return null;
+        }
+    }
+
+    private static double rowsPerSecond(long rows, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return seconds > 0 ? rows / seconds : 0;
+    }
+}
@@ -0,0 +1,107 @@
+package io.hahnsoftware.emp.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.hahnsoftware.emp.model.Department;
+import io.hahnsoftware.emp.model.Employee;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * writes exported employees one row at a time as CSV (with a header line) or newline delimited JSON.
+ * rows are flat, the department and its manager are written by name, and the password hash is never exported.
+ */
+class EmployeeExportWriter {
+    private static final String[] COLUMNS = {
+            "id", "employeeId", "fullName", "jobTitle", "department", "manager", "hireDate",
+            "status", "email", "phone", "address", "username", "role"
+    };
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private final JsonGenerator json;
+
+    EmployeeExportWriter(ExportFormat format, OutputStream out) throws IOException {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.NDJSON) {
+            this.json = new JsonFactory().createGenerator(writer);
+            this.json.setRootValueSeparator(null);
+        } else {
+            this.json = null;
+            writeCsvLine(COLUMNS);
+        }
+    }
+
+    void write(Employee employee) throws IOException {
+        String[] values = values(employee);
+        if (format == ExportFormat.NDJSON) {
+            json.writeStartObject();
+            json.writeNumberField(COLUMNS[0], employee.getId());
+            for (int i = 1; i < COLUMNS.length; i++) {
+                json.writeStringField(COLUMNS[i], values[i]);
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        } else {
+            writeCsvLine(values);
+        }
+    }
+
+    void finish() throws IOException {
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    private String[] values(Employee employee) {
+        Department department = employee.getDepartment();
+        return new String[]{
+                String.valueOf(employee.getId()),
+                employee.getEmployeeId(),
+                employee.getFullName(),
+                employee.getJobTitle(),
+                department != null ? department.getName() : null,
+                department != null && department.getManager() != null ? department.getManager().getFullName() : null,
+                employee.getHireDate() != null ? employee.getHireDate().toString() : null,
+                employee.getStatus() != null ? employee.getStatus().name() : null,
+                employee.getEmail(),
+                employee.getPhone(),
+                employee.getAddress(),
+                employee.getUsername(),
+                employee.getRole() != null ? employee.getRole().name() : null
+        };
+    }
+
+    private void writeCsvLine(String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180 quoting, only when the value needs it
+    private void writeCsvValue(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
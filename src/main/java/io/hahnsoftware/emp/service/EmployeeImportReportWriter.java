@@ -0,0 +1,49 @@
+package io.hahnsoftware.emp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hahnsoftware.emp.records.BulkCreateResult;
+import io.hahnsoftware.emp.records.ImportSummary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * writes the report of a CSV import as newline delimited JSON: one line per rejected row while the import runs,
+ * then a line with the summary, or a line with the error when the file could not be read at all.
+ */
+class EmployeeImportReportWriter {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final OutputStream out;
+
+    EmployeeImportReportWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    void rejected(BulkCreateResult result) throws IOException {
+        writeLine(result);
+    }
+
+    // pushes the lines of the last window to the client
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    void finish(ImportSummary summary) throws IOException {
+        writeLine(Map.of("summary", summary));
+        out.flush();
+    }
+
+    void error(String message) throws IOException {
+        writeLine(Map.of("error", message));
+        out.flush();
+    }
+
+    private void writeLine(Object value) throws IOException {
+        MAPPER.writeValue(out, value);
+        out.write('\n');
+    }
+}
@@ -1,17 +1,44 @@
 package io.hahnsoftware.emp.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import io.hahnsoftware.emp.dao.DepartmentDAO;
 import io.hahnsoftware.emp.dto.EmployeeDto;
+import io.hahnsoftware.emp.model.Department;
 import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.model.EmploymentStatus;
+import io.hahnsoftware.emp.model.PageResult;
 import io.hahnsoftware.emp.model.SearchCriteria;
+import io.hahnsoftware.emp.model.UserRole;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.records.BulkCreateResponse;
+import io.hahnsoftware.emp.records.BulkCreateResult;
+import io.hahnsoftware.emp.records.BulkEmployeeRow;
+import io.hahnsoftware.emp.records.EmployeeBatchResponse;
+import io.hahnsoftware.emp.records.EmployeeSummary;
+import io.hahnsoftware.emp.records.ResourceVersion;
 import io.hahnsoftware.emp.dao.EmployeeDAO;
+import io.hahnsoftware.emp.util.FieldSelection;
+import io.hahnsoftware.emp.util.UserContext;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 public class EmployeeService {
+    // ids one batch lookup may ask for, ten IN lists
+    private static final int MAX_BATCH_IDS = 10000;
+
     private final EmployeeDAO employeeDAO;
     private final DepartmentDAO departmentDAO;
 
@@ -25,19 +52,108 @@ public class EmployeeService {
         if (!validationErrors.isEmpty()) {
             throw new IllegalArgumentException("Validation errors: " + String.join(", ", validationErrors));
         }
-        Employee employee = dto.convertToEntity();
+        Employee employee = dto.convertToEntity(departmentDAO);
         return employeeDAO.create(employee, password, true);
     }
 
+    /**
+     * creates many employees in one call. every row is validated before anything is written, valid rows get their
+     * passwords hashed in parallel and are inserted in JDBC batches, invalid rows are reported and skipped.
+     */
+    public BulkCreateResponse createEmployeesBulk(List<BulkEmployeeRow> rows) throws SQLException {
+        List<EmployeeBatchLoader.Row> loaderRows = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            BulkEmployeeRow row = rows.get(i);
+            loaderRows.add(row == null
+                    ? new EmployeeBatchLoader.Row(i, null, null, List.of())
+                    : new EmployeeBatchLoader.Row(i, row.employee(), row.password(), List.of()));
+        }
+        EmployeeBatchLoader loader = new EmployeeBatchLoader(employeeDAO, departmentDAO.findAll());
+        List<BulkCreateResult> results = loader.load(loaderRows, false);
 
+        int created = 0;
+        int invalid = 0;
+        int failed = 0;
+        for (BulkCreateResult result : results) {
+            switch (result.status()) {
+                case CREATED -> created++;
+                case INVALID -> invalid++;
+                case FAILED -> failed++;
+                default -> {
+                }
+            }
+        }
+        return new BulkCreateResponse(created, invalid, failed, results);
+    }
+
+    // reads the CSV as a stream and writes one NDJSON line per rejected row, then the summary
+    public void importEmployees(Reader csv, boolean dryRun, OutputStream report) throws SQLException, IOException {
+        EmployeeImportReportWriter writer = new EmployeeImportReportWriter(report);
+        EmployeeCsvImporter.ImportListener listener = new EmployeeCsvImporter.ImportListener() {
+            @Override
+            public void rejected(BulkCreateResult result) throws IOException {
+                writer.rejected(result);
+            }
+
+            @Override
+            public void progress(long rowsRead, double rowsPerSecond) throws IOException {
+                writer.flush();
+            }
+        };
+        try {
+            writer.finish(new EmployeeCsvImporter(employeeDAO, departmentDAO).importCsv(csv, dryRun, listener));
+        } catch (IllegalArgumentException e) {
+            // the report is already streaming, a file that cannot be read is reported in it
+            writer.error(e.getMessage());
+        }
+    }
+
+    // the reads for the api see only the rows the user of the request may see, others are reported as not found
     public Employee getEmployeeById(Long id) throws SQLException {
-        Employee employee = employeeDAO.findById(id);
+        Employee employee = employeeDAO.findById(id, UserContext.current());
         if (employee == null) {
             throw new RuntimeException("Employee not found with id: " + id);
         }
         return employee;
     }
 
+    // versions are read without loading the employees, so an unchanged resource can be answered with 304
+    public ResourceVersion getEmployeeVersion(Long id) throws SQLException {
+        return employeeDAO.findVersionById(id, UserContext.current());
+    }
+
+    public ResourceVersion getManagersVersion() throws SQLException {
+        return employeeDAO.findManagersVersion(UserContext.current());
+    }
+
+    /**
+     * employees for a list of ids in the order asked for, each id once, with the ids that do not exist or the user
+     * may not see. fields takes precedence over view, like for the full list.
+     */
+    public EmployeeBatchResponse getEmployeesByIds(List<Long> ids, EmployeeView view, List<String> fields)
+            throws SQLException {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids per request");
+        }
+        ActingUser caller = UserContext.current();
+        Map<Long, ?> found = fields != null ? employeeDAO.findFieldsByIds(distinctIds, fields, caller)
+                : view == EmployeeView.SUMMARY ? employeeDAO.findSummariesByIds(distinctIds, caller)
+                : employeeDAO.findByIds(distinctIds, caller);
+
+        List<Object> employees = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Object employee = found.get(id);
+            if (employee != null) {
+                employees.add(employee);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new EmployeeBatchResponse(employees, missingIds);
+    }
+
     public Employee getEmployeeByEmployeeId(String employeeId) throws SQLException {
         Employee employee = employeeDAO.findByEmployeeId(employeeId);
         if (employee == null) {
@@ -47,15 +163,60 @@ public class EmployeeService {
     }
 
     public List<Employee> getAllEmployees() throws SQLException {
-        return employeeDAO.findAll();
+        return employeeDAO.findAll(UserContext.current());
     }
 
     public List<Employee> getAllManagers() throws SQLException {
-        return employeeDAO.findAllManagers();
+        return employeeDAO.findAllManagers(UserContext.current());
+    }
+
+    public PageResult<Employee> searchEmployees(SearchCriteria criteria) throws SQLException {
+        return employeeDAO.search(criteria, UserContext.current());
+    }
+
+    public List<String> parseFields(String fields) {
+        return FieldSelection.parse(fields, EmployeeDAO.FIELDS);
+    }
+
+    public List<Map<String, Object>> getAllEmployeeFields(List<String> fields) throws SQLException {
+        return employeeDAO.findAllFields(fields, UserContext.current());
+    }
+
+    public List<Map<String, Object>> getAllManagerFields(List<String> fields) throws SQLException {
+        return employeeDAO.findAllManagerFields(fields, UserContext.current());
+    }
+
+    public Map<String, Object> getEmployeeFieldsById(Long id, List<String> fields) throws SQLException {
+        Map<String, Object> employee = employeeDAO.findFieldsById(id, fields, UserContext.current());
+        if (employee == null) {
+            throw new RuntimeException("Employee not found with id: " + id);
+        }
+        return employee;
+    }
+
+    public List<EmployeeSummary> getAllEmployeeSummaries() throws SQLException {
+        return employeeDAO.findAllSummaries(UserContext.current());
+    }
+
+    public List<EmployeeSummary> getAllManagerSummaries() throws SQLException {
+        return employeeDAO.findAllManagerSummaries(UserContext.current());
+    }
+
+    public PageResult<EmployeeSummary> searchEmployeeSummaries(SearchCriteria criteria) throws SQLException {
+        return employeeDAO.searchSummaries(criteria, UserContext.current());
     }
 
-    public List<Employee> searchEmployees(SearchCriteria criteria) throws SQLException {
-        return employeeDAO.search(criteria);
+    // throws IllegalArgumentException for criteria the search and export queries would reject
+    public void checkSearchCriteria(SearchCriteria criteria) {
+        employeeDAO.checkCriteria(criteria);
+    }
+
+    // streams the matching employees the caller may see to out, row by row
+    public void exportEmployees(SearchCriteria criteria, ExportFormat format, ActingUser caller, OutputStream out)
+            throws SQLException, IOException {
+        EmployeeExportWriter writer = new EmployeeExportWriter(format, out);
+        employeeDAO.streamEmployees(criteria, caller, writer::write);
+        writer.finish();
     }
 
 
@@ -64,11 +225,80 @@ public class EmployeeService {
         if (!validationErrors.isEmpty()) {
             throw new IllegalArgumentException("Validation errors: " + String.join(", ", validationErrors));
         }
-        Employee employee = dto.convertToEntity();
+        Employee employee = dto.convertToEntity(departmentDAO);
         employee.setId(id);
         return employeeDAO.update(employee);
     }
 
+    /**
+     * applies a JSON merge patch (RFC 7396) to an employee: members set the field, null clears it, absent fields
+     * are left alone. version, when present, is the version the client read. only the patched fields are
+     * validated and written.
+     */
+    public Map<String, Object> patchEmployee(Long id, JsonNode patch) throws SQLException {
+        if (!patch.isObject()) {
+            throw new IllegalArgumentException("A merge patch must be a JSON object");
+        }
+        Map<String, Object> values = new HashMap<>();
+        Long version = null;
+        List<String> validationErrors = new ArrayList<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = patch.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> member = it.next();
+            String field = member.getKey();
+            JsonNode node = member.getValue();
+            if (field.equals("version")) {
+                version = node.isNull() ? null : patchValue(field, node, Long.class);
+                continue;
+            }
+            if (!EmployeeDAO.PATCH_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            Object value = switch (field) {
+                case "departmentId" -> patchValue(field, node, Long.class);
+                case "hireDate" -> patchValue(field, node, LocalDate.class);
+                case "status" -> patchValue(field, node, EmploymentStatus.class);
+                case "role" -> patchValue(field, node, UserRole.class);
+                default -> patchValue(field, node, String.class);
+            };
+            EmployeeDto.validateField(field, value, validationErrors);
+            if (value instanceof Long departmentId) {
+                Department department = departmentDAO.findById(departmentId);
+                if (department == null) {
+                    validationErrors.add("Department not found with id: " + departmentId);
+                }
+                value = department;
+            }
+            values.put(field, value);
+        }
+        if (!validationErrors.isEmpty()) {
+            throw new IllegalArgumentException("Validation errors: " + String.join(", ", validationErrors));
+        }
+        return employeeDAO.patch(id, values, version);
+    }
+
+    // ids are JSON numbers, everything else a string in the format the full DTO uses
+    private static <T> T patchValue(String field, JsonNode node, Class<T> type) {
+        if (node.isNull()) {
+            return null;
+        }
+        try {
+            if (type == Long.class && node.isIntegralNumber() && node.canConvertToLong()) {
+                return type.cast(node.longValue());
+            }
+            if (type != Long.class && node.isTextual()) {
+                String text = node.textValue();
+                Object value = type == LocalDate.class ? LocalDate.parse(text)
+                        : type == EmploymentStatus.class ? EmploymentStatus.valueOf(text)
+                        : type == UserRole.class ? UserRole.valueOf(text)
+                        : text;
+                return type.cast(value);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // reported below like any other value of the wrong type
+        }
+        throw new IllegalArgumentException("Invalid value for " + field);
+    }
+
     public void updatePassword(Long id, String password) throws SQLException {
         Employee employee = employeeDAO.findById(id);
         if (employee == null) {
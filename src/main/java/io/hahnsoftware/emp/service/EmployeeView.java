@@ -0,0 +1,19 @@
+package io.hahnsoftware.emp.service;
+
+// shape of the employees returned by the list and search endpoints
+public enum EmployeeView {
+    // the full entity with its department and manager
+    FULL,
+    // the flat EmployeeSummary projection
+    SUMMARY;
+
+    // null when the view is not supported
+    public static EmployeeView fromName(String name) {
+        for (EmployeeView view : values()) {
+            if (view.name().equalsIgnoreCase(name)) {
+                return view;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+package io.hahnsoftware.emp.service;
+
+import io.hahnsoftware.emp.dao.DepartmentDAO;
+import io.hahnsoftware.emp.dao.EmployeeDAO;
+import io.hahnsoftware.emp.dao.SyncDAO;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.records.SyncResponse;
+import io.hahnsoftware.emp.util.UserContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+@Service
+public class SyncService {
+    private static final Logger log = LoggerFactory.getLogger(SyncService.class);
+
+    private final EmployeeDAO employeeDAO;
+    private final DepartmentDAO departmentDAO;
+    private final SyncDAO syncDAO;
+
+    public SyncService() throws SQLException {
+        this.employeeDAO = new EmployeeDAO();
+        this.departmentDAO = new DepartmentDAO(employeeDAO);
+        this.syncDAO = new SyncDAO();
+    }
+
+    /**
+     * employees and departments created, updated or deleted since the token, everything when token is null or
+     * older than the tombstones are kept. the new token is taken before the reads, a change made while they run is
+     * sent again next time. employees are limited to the ones the user of the request may see, the ones that left
+     * that scope are sent as deleted.
+     */
+    public SyncResponse sync(String token) throws SQLException {
+        ActingUser caller = UserContext.current();
+        Timestamp since = token != null ? syncDAO.changedSince(token) : null;
+        Timestamp syncedAt = syncDAO.currentTimestamp();
+        if (since == null || syncDAO.isExpired(since, syncedAt)) {
+            return new SyncResponse(syncDAO.encodeToken(syncedAt), true, employeeDAO.findAllSummaries(caller),
+                    departmentDAO.findSummariesChangedSince(null), List.of(), List.of());
+        }
+        return new SyncResponse(syncDAO.encodeToken(syncedAt), false,
+                employeeDAO.findSummariesChangedSince(since, caller),
+                departmentDAO.findSummariesChangedSince(since),
+                syncDAO.findRemovedEmployeesSince(since, caller),
+                syncDAO.findDeletedDepartmentsSince(since));
+    }
+
+    // drops the tombstones no unexpired token can need
+    @Scheduled(fixedDelayString = "${sync.prune.interval.ms:3600000}")
+    public void pruneDeletedRecords() {
+        try {
+            int deleted = syncDAO.pruneDeletedRecords();
+            if (deleted > 0) {
+                log.info("Pruned {} sync tombstones", deleted);
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to prune sync tombstones", e);
+        }
+    }
+}
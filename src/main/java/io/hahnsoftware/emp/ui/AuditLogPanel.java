@@ -4,17 +4,22 @@ import io.hahnsoftware.emp.dao.EmployeeDAO;
 import net.miginfocom.swing.MigLayout;
 import io.hahnsoftware.emp.dao.AuditDAO;
 import io.hahnsoftware.emp.model.AuditLog;
+import io.hahnsoftware.emp.records.AuditLogPage;
+import io.hahnsoftware.emp.records.AuditLogSummary;
 import net.sourceforge.jdatepicker.impl.JDatePanelImpl;
 import net.sourceforge.jdatepicker.impl.JDatePickerImpl;
 import net.sourceforge.jdatepicker.impl.UtilDateModel;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -26,6 +31,29 @@ public class AuditLogPanel extends JPanel {
     private JComboBox<String> actionFilter;
     private JDatePickerImpl startDatePicker;
     private JDatePickerImpl endDatePicker;
+    private static final int PAGE_SIZE = 50;
+
+    // a page to show, appended to the rows already shown or replacing them
+    private record LoadedPage(AuditLogPage page, boolean append) {
+    }
+
+    // the entries shown, by table row, and the cursor after the last of them
+    private final List<AuditLogSummary> shown = new ArrayList<>();
+    private String nextCursor;
+    // the filters of the shown rows, Load more continues with these
+    private String entity;
+    private String action;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private final JProgressBar loadingIndicator = BackgroundLoader.createIndicator();
+    private final JButton loadMoreButton = new JButton("Load more");
+    private final BackgroundLoader<LoadedPage> loader = new BackgroundLoader<>(this::showLogs,
+            e -> {
+                loadMoreButton.setEnabled(nextCursor != null);
+                showError("Error loading audit logs", e);
+            }, loadingIndicator);
+    private final BackgroundLoader<AuditLog> entryLoader = new BackgroundLoader<>(this::showEntry,
+            e -> showError("Error loading audit log", e), loadingIndicator);
 
     public AuditLogPanel() {
         setLayout(new MigLayout("fill, insets 20", "[grow]", "[]10[grow]"));
@@ -59,9 +87,25 @@ public class AuditLogPanel extends JPanel {
         auditTable.getColumnModel().getColumn(4).setPreferredWidth(100); // User
         auditTable.getColumnModel().getColumn(5).setPreferredWidth(300); // Changes
 
+        // the Changes column is cut short, a double click shows the whole entry
+        auditTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = auditTable.rowAtPoint(e.getPoint());
+                if (e.getClickCount() == 2 && row >= 0 && row < shown.size()) {
+                    Long id = shown.get(row).id();
+                    entryLoader.load(() -> auditDAO.findById(id));
+                }
+            }
+        });
+
+        loadMoreButton.setEnabled(false);
+        loadMoreButton.addActionListener(e -> loadMore());
+
         // Add components
         add(filterPanel, "growx, wrap");
-        add(new JScrollPane(auditTable), "grow");
+        add(new JScrollPane(auditTable), "grow, wrap");
+        add(loadMoreButton, "center");
 
         // Initial load
         refreshData();
@@ -101,62 +145,95 @@ public class AuditLogPanel extends JPanel {
         panel.add(startDatePicker);
         panel.add(new JLabel("End Date:"));
         panel.add(endDatePicker);
+        panel.add(loadingIndicator, "right");
         panel.add(refreshButton, "right");
 
         return panel;
     }
 
 
+    // the filters are read here on the EDT, only the query runs on the worker thread
     void refreshData() {
-        try {
-            // Get filter values
-            String entity = entityFilter.getSelectedItem().toString().equalsIgnoreCase("All Entities") ? null : entityFilter.getSelectedItem().toString() ;
-            String action = actionFilter.getSelectedItem().toString().equalsIgnoreCase("All Actions") ?  null :actionFilter.getSelectedItem().toString();
-            LocalDateTime startDate = null;
-            LocalDateTime endDate = null;
-            
-            if (startDatePicker.getModel().getValue() != null) {
-                startDate = ((Date) startDatePicker.getModel().getValue())
-                    .toInstant()
-                    .atZone(ZoneId.systemDefault())
-                    .toLocalDate().atStartOfDay();
-            }
-            
-            if (endDatePicker.getModel().getValue() != null) {
-                endDate = ((Date) endDatePicker.getModel().getValue())
-                    .toInstant()
-                    .atZone(ZoneId.systemDefault())
-                    .toLocalDate().atStartOfDay();
-            }
-            
-            // Apply filters
-//            List<AuditLog> logs = auditDAO.getFilteredLogs(
-//                entity.equals("All Entities") ? null : entity,
-//                action.equals("All Actions") ? null : action,
-//                startDate,
-//                endDate
-//            );
-
-            List<AuditLog> logs = auditDAO.getAuditLogs(entity, action, startDate, endDate);
-
-            // Update table
+        // Get filter values
+        String entity = entityFilter.getSelectedItem().toString().equalsIgnoreCase("All Entities") ? null : entityFilter.getSelectedItem().toString() ;
+        String action = actionFilter.getSelectedItem().toString().equalsIgnoreCase("All Actions") ?  null :actionFilter.getSelectedItem().toString();
+        LocalDateTime startDate = null;
+        LocalDateTime endDate = null;
+
+        if (startDatePicker.getModel().getValue() != null) {
+            startDate = ((Date) startDatePicker.getModel().getValue())
+                .toInstant()
+                .atZone(ZoneId.systemDefault())
+                .toLocalDate().atStartOfDay();
+        }
+
+        if (endDatePicker.getModel().getValue() != null) {
+            endDate = ((Date) endDatePicker.getModel().getValue())
+                .toInstant()
+                .atZone(ZoneId.systemDefault())
+                .toLocalDate().atStartOfDay();
+        }
+
+        this.entity = entity;
+        this.action = action;
+        this.from = startDate;
+        this.to = endDate;
+        load(null);
+    }
+
+    private void loadMore() {
+        if (nextCursor != null) {
+            load(nextCursor);
+        }
+    }
+
+    private void load(String cursor) {
+        String entity = this.entity;
+        String action = this.action;
+        LocalDateTime from = this.from;
+        LocalDateTime to = this.to;
+        loadMoreButton.setEnabled(false);
+        loader.load(() -> new LoadedPage(auditDAO.getAuditLogPage(entity, action, from, to, cursor, PAGE_SIZE),
+                cursor != null));
+    }
+
+    private void showLogs(LoadedPage loaded) {
+        // Update table
+        if (!loaded.append()) {
             tableModel.setRowCount(0);
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-            for (AuditLog log : logs) {
-                Object[] row = {
-                        formatter.format(log.getTimestamp()),
-                        log.getAction(),
-                        log.getEntityType(),
-                        log.getEntityId(),
-                        log.getEmployee().getUsername(),
-                        log.getChanges()
-                };
-                tableModel.addRow(row);
-            }
-        } catch (Exception e) {
-            showError("Error loading audit logs", e);
+            shown.clear();
+        }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+        for (AuditLogSummary log : loaded.page().items()) {
+            Object[] row = {
+                    formatter.format(log.timestamp()),
+                    log.action(),
+                    log.entityType(),
+                    log.entityId(),
+                    log.username(),
+                    log.changesTruncated() ? log.changes() + "..." : log.changes()
+            };
+            tableModel.addRow(row);
+            shown.add(log);
+        }
+        nextCursor = loaded.page().nextCursor();
+        loadMoreButton.setEnabled(nextCursor != null);
+    }
+
+    private void showEntry(AuditLog log) {
+        if (log == null) {
+            JOptionPane.showMessageDialog(this, "The audit log entry no longer exists", "Audit Log",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
         }
+        JTextArea changes = new JTextArea(log.getChanges(), 20, 60);
+        changes.setEditable(false);
+        changes.setLineWrap(true);
+        changes.setCaretPosition(0);
+        JOptionPane.showMessageDialog(this, new JScrollPane(changes),
+                log.getAction() + " " + log.getEntityType() + " " + log.getEntityId(),
+                JOptionPane.PLAIN_MESSAGE);
     }
 
     private void showError(String message, Exception e) {
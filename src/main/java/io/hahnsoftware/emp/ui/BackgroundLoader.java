@@ -0,0 +1,82 @@
+package io.hahnsoftware.emp.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * runs the loads of a panel on a worker thread, one at a time. a load asked for while another runs waits for it
+ * and replaces any load already waiting, so a burst of refreshes costs at most one extra query. the result of a
+ * load that was overtaken by a newer request is dropped instead of shown. all methods run on the EDT.
+ */
+final class BackgroundLoader<T> {
+
+    @FunctionalInterface
+    interface Task<T> {
+        T load() throws Exception;
+    }
+
+    private final Consumer<T> onLoaded;
+    private final Consumer<Exception> onFailed;
+    private final JComponent indicator;
+    private SwingWorker<T, Void> running;
+    private Task<T> pending;
+
+    BackgroundLoader(Consumer<T> onLoaded, Consumer<Exception> onFailed, JComponent indicator) {
+        this.onLoaded = onLoaded;
+        this.onFailed = onFailed;
+        this.indicator = indicator;
+    }
+
+    // an indeterminate bar for the panel header, hidden while nothing loads
+    static JProgressBar createIndicator() {
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        bar.setPreferredSize(new Dimension(120, 6));
+        bar.setBorderPainted(false);
+        bar.setVisible(false);
+        return bar;
+    }
+
+    // task reads nothing from Swing components, the caller captures the filter values it needs beforehand
+    void load(Task<T> task) {
+        if (running != null) {
+            pending = task;
+            return;
+        }
+        start(task);
+    }
+
+    private void start(Task<T> task) {
+        indicator.setVisible(true);
+        running = new SwingWorker<>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return task.load();
+            }
+
+            @Override
+            protected void done() {
+                running = null;
+                if (pending != null) {
+                    // a newer request came in while this one ran, its result is already out of date
+                    Task<T> next = pending;
+                    pending = null;
+                    start(next);
+                    return;
+                }
+                indicator.setVisible(false);
+                try {
+                    onLoaded.accept(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    onFailed.accept(cause instanceof Exception exception ? exception : e);
+                }
+            }
+        };
+        running.execute();
+    }
+}
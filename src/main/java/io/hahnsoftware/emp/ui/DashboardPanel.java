@@ -1,6 +1,6 @@
 package io.hahnsoftware.emp.ui;
 
-import io.hahnsoftware.emp.dao.AuditDAO;
+import io.hahnsoftware.emp.util.UserContext;
 import io.hahnsoftware.emp.model.Employee;
 import io.hahnsoftware.emp.ui.form.EmployeeFormPanel;
 import net.miginfocom.swing.MigLayout;
@@ -116,7 +116,7 @@ public class DashboardPanel extends JPanel {
         headerPanel.add(titlePanel, "cell 0 0");
 
         // User info section
-        if (AuditDAO.getActionUser() != null) {
+        if (UserContext.current() != null) {
             JPanel userPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
             userPanel.setOpaque(false);
 
@@ -124,7 +124,7 @@ public class DashboardPanel extends JPanel {
             userIcon.setFont(new Font("Segoe UI", Font.PLAIN, 18));
             userIcon.setForeground(Color.WHITE);
 
-            JLabel userLabel = new JLabel(AuditDAO.getActionUser().getUsername());
+            JLabel userLabel = new JLabel(UserContext.current().username());
             userLabel.setFont(new Font("Segoe UI Semibold", Font.PLAIN, 14));
             userLabel.setForeground(Color.WHITE);
 
@@ -260,7 +260,7 @@ public class DashboardPanel extends JPanel {
     }
 
     private boolean checkPanelAccess(String panelName) {
-        if (AuditDAO.getActionUser() == null) return false;
+        if (UserContext.current() == null) return false;
 
         return switch (panelName) {
             case "employeeList" -> PermissionUtils.canAccessAllEmployee() || PermissionUtils.canViewEmployeePanel();
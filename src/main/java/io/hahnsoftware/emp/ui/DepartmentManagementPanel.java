@@ -14,12 +14,15 @@ import javax.swing.plaf.basic.BasicScrollBarUI;
 import javax.swing.table.*;
 import java.awt.*;
 import java.sql.SQLException;
+import java.util.List;
 
 public class DepartmentManagementPanel extends JPanel implements StyleConstants {
     private final JTable departmentTable;
     private final DepartmentTableModel tableModel;
     private final DepartmentDAO departmentDAO;
     private JTextField searchField;
+    private final JProgressBar loadingIndicator = BackgroundLoader.createIndicator();
+    private final BackgroundLoader<List<Department>> loader;
 
     public DepartmentManagementPanel() {
         setLayout(new MigLayout("fill, insets 20", "[grow]", "[]15[]10[grow]"));
@@ -35,7 +38,8 @@ public class DepartmentManagementPanel extends JPanel implements StyleConstants
         JLabel titleLabel = new JLabel("Department Management");
         titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
         titleLabel.setForeground(StyleConstants.TEXT_PRIMARY);
-        add(titleLabel, "wrap");
+        add(titleLabel, "split 2");
+        add(loadingIndicator, "gapleft 15, wrap");
 
         // Create filter panel
         JPanel filterPanel = createFilterPanel();
@@ -43,6 +47,8 @@ public class DepartmentManagementPanel extends JPanel implements StyleConstants
 
         // Create table
         tableModel = new DepartmentTableModel();
+        loader = new BackgroundLoader<>(tableModel::setData,
+                e -> showError("Error loading departments: " + e.getMessage()), loadingIndicator);
         departmentTable = new JTable(tableModel);
         setupModernTable();
 
@@ -367,12 +373,9 @@ public class DepartmentManagementPanel extends JPanel implements StyleConstants
         tableModel.filterByName(searchField.getText());
     }
 
+    // loads on a worker thread, the table keeps the previous rows until the new ones arrive
     public void refreshData() {
-        try {
-            tableModel.setData(departmentDAO.findAll());
-        } catch (SQLException e) {
-            showError("Error loading departments: " + e.getMessage());
-        }
+        loader.load(departmentDAO::findAll);
     }
 
     private void showError(String message) {
@@ -0,0 +1,184 @@
+package io.hahnsoftware.emp.ui;
+
+import io.hahnsoftware.emp.dao.DepartmentDAO;
+import io.hahnsoftware.emp.dao.EmployeeDAO;
+import io.hahnsoftware.emp.records.BulkCreateResult;
+import io.hahnsoftware.emp.records.ImportSummary;
+import io.hahnsoftware.emp.service.EmployeeCsvImporter;
+import io.hahnsoftware.emp.ui.button.MButton;
+import net.miginfocom.swing.MigLayout;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+// picks a CSV file and imports it on a worker thread, rejected rows are listed while the import runs
+public class EmployeeImportDialog extends JDialog implements StyleConstants {
+    // the report keeps the first rejected rows only, so a bad 50k row file does not fill the heap
+    private static final int MAX_REPORTED_ROWS = 1000;
+
+    private final EmployeeDAO employeeDAO;
+    private final Runnable onImported;
+    private final JTextField fileField = new JTextField(30);
+    private final JCheckBox dryRunBox = new JCheckBox("Dry run (validate only)");
+    private final JLabel statusLabel = new JLabel(" ");
+    private final JTextArea reportArea = new JTextArea(15, 60);
+    private final MButton startButton;
+    private final MButton cancelButton;
+    private SwingWorker<ImportSummary, BulkCreateResult> worker;
+    // not SwingWorker.cancel, which reports the worker done while the current window is still being written
+    private volatile boolean cancelRequested;
+    private int reportedRows;
+
+    public EmployeeImportDialog(Window owner, EmployeeDAO employeeDAO, Runnable onImported) {
+        super(owner, "Import Employees", ModalityType.APPLICATION_MODAL);
+        this.employeeDAO = employeeDAO;
+        this.onImported = onImported;
+        setLayout(new MigLayout("fill, insets 20", "[][grow][]", "[][][][grow][]"));
+        getContentPane().setBackground(BG_PRIMARY);
+
+        fileField.setEditable(false);
+        MButton browseButton = new MButton("Browse", MButton.ButtonType.SECONDARY).withSize(100, 32);
+        browseButton.addActionListener(e -> chooseFile());
+        add(new JLabel("CSV file"));
+        add(fileField, "growx");
+        add(browseButton, "wrap");
+
+        dryRunBox.setOpaque(false);
+        add(dryRunBox, "span, wrap");
+
+        statusLabel.setForeground(TEXT_SECONDARY);
+        add(statusLabel, "span, growx, wrap");
+
+        reportArea.setEditable(false);
+        reportArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        add(new JScrollPane(reportArea), "span, grow, wrap");
+
+        startButton = new MButton("Import", MButton.ButtonType.PRIMARY).withSize(120, 38);
+        cancelButton = new MButton("Close", MButton.ButtonType.SECONDARY).withSize(120, 38);
+        startButton.addActionListener(e -> startImport());
+        cancelButton.addActionListener(e -> cancelOrClose());
+        JPanel buttonPanel = new JPanel(new MigLayout("insets 0", "push[][]"));
+        buttonPanel.setOpaque(false);
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(startButton);
+        add(buttonPanel, "span, growx");
+
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                cancelOrClose();
+            }
+        });
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    private void chooseFile() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import Employees");
+        fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV Files (*.csv)", "csv"));
+        if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            fileField.setText(fileChooser.getSelectedFile().getAbsolutePath());
+        }
+    }
+
+    private void startImport() {
+        if (fileField.getText().isEmpty()) {
+            statusLabel.setText("Choose a CSV file first");
+            return;
+        }
+        Path file = Path.of(fileField.getText());
+        boolean dryRun = dryRunBox.isSelected();
+        reportArea.setText("");
+        reportedRows = 0;
+        cancelRequested = false;
+        startButton.setEnabled(false);
+        cancelButton.setText("Cancel");
+        statusLabel.setText(dryRun ? "Validating..." : "Importing...");
+
+        worker = new SwingWorker<>() {
+            @Override
+            protected ImportSummary doInBackground() throws Exception {
+                EmployeeCsvImporter importer = new EmployeeCsvImporter(employeeDAO, new DepartmentDAO(employeeDAO));
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    return importer.importCsv(reader, dryRun, new EmployeeCsvImporter.ImportListener() {
+                        @Override
+                        public void rejected(BulkCreateResult result) {
+                            publish(result);
+                        }
+
+                        @Override
+                        public void progress(long rowsRead, double rowsPerSecond) {
+                            SwingUtilities.invokeLater(() -> statusLabel.setText(
+                                    String.format("%,d rows read, %,.0f rows/s", rowsRead, rowsPerSecond)));
+                        }
+
+                        @Override
+                        public boolean isCancelled() {
+                            return cancelRequested;
+                        }
+                    });
+                }
+            }
+
+            @Override
+            protected void process(List<BulkCreateResult> results) {
+                for (BulkCreateResult result : results) {
+                    if (reportedRows++ < MAX_REPORTED_ROWS) {
+                        reportArea.append("Line " + result.index() + " (" + result.employeeId() + ") "
+                                + result.status() + ": " + String.join(", ", result.errors()) + "\n");
+                    }
+                }
+            }
+
+            @Override
+            protected void done() {
+                startButton.setEnabled(true);
+                cancelButton.setText("Close");
+                try {
+                    ImportSummary summary = get();
+                    statusLabel.setText((summary.cancelled() ? "Cancelled after " : "") + summaryText(summary));
+                    if (reportedRows > MAX_REPORTED_ROWS) {
+                        reportArea.append("... " + (reportedRows - MAX_REPORTED_ROWS) + " more rejected rows\n");
+                    }
+                    if (!summary.dryRun()) {
+                        onImported.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    statusLabel.setText("Import failed: " + (cause instanceof IOException || cause instanceof IllegalArgumentException
+                            ? cause.getMessage() : cause.toString()));
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    private void cancelOrClose() {
+        if (worker != null && !worker.isDone()) {
+            // stops after the current window, the import checks between windows
+            cancelRequested = true;
+            statusLabel.setText("Cancelling...");
+        } else {
+            dispose();
+        }
+    }
+
+    private static String summaryText(ImportSummary summary) {
+        String written = summary.dryRun()
+                ? String.format("%,d valid", summary.valid())
+                : String.format("%,d created, %,d failed", summary.created(), summary.failed());
+        return String.format("%,d rows: %s, %,d invalid in %.1f s (%,.0f rows/s)", summary.rows(), written,
+                summary.invalid(), summary.elapsedMillis() / 1000.0, summary.rowsPerSecond());
+    }
+}
@@ -1,9 +1,14 @@
 package io.hahnsoftware.emp.ui;
 
-import io.hahnsoftware.emp.dao.AuditDAO;
+import io.hahnsoftware.emp.model.SearchCriteria;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.records.EmployeeSummary;
+import io.hahnsoftware.emp.util.UserContext;
 import io.hahnsoftware.emp.model.UserRole;
 import io.hahnsoftware.emp.ui.button.MButton;
+import io.hahnsoftware.emp.ui.export.EmployeeExcelExporter;
 import io.hahnsoftware.emp.ui.form.EmployeeFormPanel;
+import io.hahnsoftware.emp.ui.table.EmployeeTableModel;
 import net.miginfocom.swing.MigLayout;
 import io.hahnsoftware.emp.dao.EmployeeDAO;
 import io.hahnsoftware.emp.model.Employee;
@@ -17,23 +22,43 @@ import javax.swing.plaf.basic.BasicComboBoxUI;
 import javax.swing.plaf.basic.BasicScrollBarUI;
 import javax.swing.table.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.awt.print.PrinterException;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.text.MessageFormat;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class EmployeeManagementPanel extends JPanel implements StyleConstants{
+    // typing pause after which the search runs, keystrokes within it only restart the wait
+    private static final int SEARCH_DELAY_MS = 250;
 
     private final JTable employeeTable;
-    private final DefaultTableModel tableModel;
+    private final EmployeeTableModel tableModel = new EmployeeTableModel();
     private final EmployeeDAO employeeDAO;
+    private final EmployeeResultLoader results;
     private final Runnable onAddNew;
-    private List<Employee> allEmployees;
+    // the query the table shows, filters and sort are applied by the database
+    private SearchCriteria criteria = new SearchCriteria();
+    private String sortBy = "id";
+    private boolean sortDescending;
     private JTextField searchField;
     private JComboBox<EmploymentStatus> statusFilter;
     private JDatePickerImpl fromDatePicker;
     private JDatePickerImpl toDatePicker;
+    private final JProgressBar loadingIndicator = BackgroundLoader.createIndicator();
+    private final BackgroundLoader<EmployeeResultLoader.FirstPage> loader = new BackgroundLoader<>(first -> {
+        shown = first;
+        tableModel.reset(first.source(), first.rowCount(), first.rows());
+    }, e -> JOptionPane.showMessageDialog(this,
+            "Error loading employees: " + e.getMessage(),
+            "Error",
+            JOptionPane.ERROR_MESSAGE), loadingIndicator);
+    private final Timer searchDelay = new Timer(SEARCH_DELAY_MS, e -> loadQuery(true));
+    // the result the table shows, null before the first load
+    private EmployeeResultLoader.FirstPage shown;
 
     // Update the constructor's table setup part
     public EmployeeManagementPanel(Runnable onAddNew) {
@@ -46,28 +71,23 @@ public class EmployeeManagementPanel extends JPanel implements StyleConstants{
         } catch (SQLException e) {
             throw new RuntimeException("Failed to initialize EmployeeDAO", e);
         }
+        results = new EmployeeResultLoader(employeeDAO);
 
         // Add title
         JLabel titleLabel = new JLabel("Employee Management");
         titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
         titleLabel.setForeground(StyleConstants.TEXT_PRIMARY);
-        add(titleLabel, "wrap");
+        add(titleLabel, "split 2");
+        add(loadingIndicator, "gapleft 15, wrap");
 
         // Create filter panel
         JPanel filterPanel = createFilterPanel();
         add(filterPanel, "growx, wrap");
 
         // Create table
-        String[] columns = {"ID", "Full Name", "Department", "Job Title", "Status", "Hire Date", "Actions"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 6; // Only actions column is editable
-            }
-        };
-
         employeeTable = new JTable(tableModel);
         setupModernTable();
+        tableModel.setFailureListener(e -> showError("Error loading employees: " + e.getMessage()));
 
         // Create scroll pane first
         JScrollPane scrollPane = new JScrollPane(employeeTable);
@@ -106,6 +126,12 @@ public class EmployeeManagementPanel extends JPanel implements StyleConstants{
         header.setBackground(StyleConstants.MAIN_COLOR);
         header.setForeground(StyleConstants.TEXT_LIGHT);
         header.setFont(new Font("Segoe UI Semibold", Font.PLAIN, 14));
+        header.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                sortByColumn(employeeTable.convertColumnIndexToModel(header.columnAtPoint(e.getPoint())));
+            }
+        });
 
         // Set column widths
         TableColumnModel columnModel = employeeTable.getColumnModel();
@@ -188,7 +214,7 @@ public class EmployeeManagementPanel extends JPanel implements StyleConstants{
     }
 
     private JPanel createFilterPanel() {
-        JPanel filterPanel = new JPanel(new MigLayout("fillx, insets 0", "[][grow]push[][100]", "[]"));
+        JPanel filterPanel = new JPanel(new MigLayout("fillx, insets 0", "[][grow]push[][][100]", "[]"));
         filterPanel.setOpaque(false);
 
         // Search field with icon
@@ -216,7 +242,7 @@ public class EmployeeManagementPanel extends JPanel implements StyleConstants{
             }
         });
         styleComboBox(statusFilter);
-        statusFilter.addActionListener(e -> applyFilters());
+        statusFilter.addActionListener(e -> refreshData());
 
         // Status filter with modern styling
         JPanel statusPanel = new JPanel(new BorderLayout());
@@ -230,17 +256,26 @@ public class EmployeeManagementPanel extends JPanel implements StyleConstants{
         addButton.setVisible(PermissionUtils.canAccessAll() || PermissionUtils.canAccessAllEmployee());
         addButton.addActionListener(e -> onAddNew.run());
 
+        MButton importButton = new MButton("Import CSV", MButton.ButtonType.SECONDARY)
+                .withSize(120, 38);
+        importButton.setVisible(addButton.isVisible());
+        importButton.addActionListener(e -> new EmployeeImportDialog(SwingUtilities.getWindowAncestor(this),
+                employeeDAO, this::refreshData).setVisible(true));
+
 
         // Add components with proper spacing
         filterPanel.add(searchPanel, "growx");
         filterPanel.add(statusPanel, "width 150!");
+        filterPanel.add(importButton);
+        addExportButton(filterPanel);
         filterPanel.add(addButton);
 
         // Add document listener for search field
+        searchDelay.setRepeats(false);
         searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { applyFilters(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { applyFilters(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { applyFilters(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { searchDelay.restart(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { searchDelay.restart(); }
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { searchDelay.restart(); }
         });
 
         return filterPanel;
@@ -367,70 +402,41 @@ public class EmployeeManagementPanel extends JPanel implements StyleConstants{
         );
     }
 
+    /**
+     * reruns the query with the current filters and sort on a worker thread, the table keeps the previous rows until
+     * the row count and first page arrive. the database applies the filters, the sort and what the user may see, the
+     * table then fetches further pages as they are scrolled into view.
+     */
     public void refreshData() {
-        try {
-            allEmployees = employeeDAO.findAll();
-            applyFilters();
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error loading employees: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        loadQuery(false);
     }
 
-    private void applyFilters() {
-        String searchText = searchField.getText().toLowerCase();
+    // after a typing pause the shown result may be narrowed in memory, any other change reads the database
+    private void loadQuery(boolean searchEdited) {
+        searchDelay.stop();
+        SearchCriteria query = new SearchCriteria()
+                .withText(searchField.getText())
+                .withSort(sortBy, sortDescending ? "DESC" : "ASC");
         EmploymentStatus selectedStatus = (EmploymentStatus) statusFilter.getSelectedItem();
-        Employee currentUser = AuditDAO.getActionUser();
-
-        List<Employee> filteredEmployees = allEmployees.stream()
-                .filter(employee -> {
-                    // First check permissions
-                    if (PermissionUtils.canAccessAll()) {
-                        return true; // Admin can see all
-                    } else if (currentUser.getRole() == UserRole.HR_PERSONNEL) {
-                        return true; // HR can see all
-                    } else if (currentUser.getRole() == UserRole.MANAGER) {
-                        // Managers can only see employees in their department
-                        return employee.getDepartment().getId().equals(currentUser.getDepartment().getId());
-                    } else {
-                        // Regular employees can only see themselves
-                        return employee.getId().equals(currentUser.getId());
-                    }
-                })
-                .filter(employee -> {
-                    // Then apply search filter if text exists
-                    if (!searchText.isEmpty()) {
-                        return employee.getFullName().toLowerCase().contains(searchText) ||
-                                employee.getEmployeeId().toLowerCase().contains(searchText) ||
-                                employee.getDepartment().getName().toLowerCase().contains(searchText) ||
-                                employee.getRole().name().toLowerCase().contains(searchText) ||
-                                employee.getUsername().toLowerCase().contains(searchText) ||
-                                employee.getJobTitle().toLowerCase().contains(searchText);
-                    }
-                    return true;
-                })
-                .filter(employee -> selectedStatus == null || employee.getStatus() == selectedStatus)
-                .collect(Collectors.toList());
-
-        updateTableData(filteredEmployees);
+        if (selectedStatus != null) {
+            query.setStatus(selectedStatus.name());
+        }
+        ActingUser currentUser = UserContext.current();
+        criteria = query;
+        EmployeeResultLoader.FirstPage previous = shown;
+        loader.load(() -> results.load(query, currentUser, previous, searchEdited));
     }
 
-    private void updateTableData(List<Employee> employees) {
-        tableModel.setRowCount(0);
-        for (Employee emp : employees) {
-            Object[] row = {
-                    emp.getEmployeeId(),
-                    emp.getFullName(),
-                    emp.getDepartment().getName(),
-                    emp.getJobTitle(),
-                    emp.getStatus(),
-                    emp.getHireDate(),
-                    "Edit Delete"
-            };
-            tableModel.addRow(row);
+    // a click on a sortable header sorts by it, a second click on the same column reverses the order
+    private void sortByColumn(int column) {
+        String field = EmployeeTableModel.sortField(column);
+        if (field == null) {
+            return;
         }
+        sortDescending = field.equals(sortBy) && !sortDescending;
+        sortBy = field;
+        employeeTable.getTableHeader().repaint();
+        refreshData();
     }
 
     // Inner classes for table rendering
@@ -447,6 +453,9 @@ public class EmployeeManagementPanel extends JPanel implements StyleConstants{
         public Component getTableCellRendererComponent(JTable table, Object value,
                                                        boolean isSelected, boolean hasFocus, int row, int column) {
             super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            if (sortBy.equals(EmployeeTableModel.sortField(table.convertColumnIndexToModel(column)))) {
+                setText(value + (sortDescending ? " \u25BC" : " \u25B2"));
+            }
             return this;
         }
     }
@@ -577,49 +586,41 @@ public class EmployeeManagementPanel extends JPanel implements StyleConstants{
                     (row % 2 == 0 ? BG_PRIMARY : BG_SECONDARY));
 
             // Get employee from the current row and check permissions
-            String employeeId = (String) table.getValueAt(row, 0);
-            updateButtonVisibility(employeeId);
+            updateButtonVisibility(tableModel.getEmployee(table.convertRowIndexToModel(row)));
             setOpaque(true);
             return this;
         }
 
-        private void updateButtonVisibility(String employeeId) {
-            try {
-                Employee employee = employeeDAO.findByEmployeeId(employeeId);
-                Employee currentUser = AuditDAO.getActionUser(); // Get current user
+        // decided from the row itself, painting must not query the database
+        private void updateButtonVisibility(EmployeeSummary employee) {
+            ActingUser currentUser = UserContext.current(); // Get current user
 
-                boolean canEdit = false;
-                boolean canDelete = false;
+            boolean canEdit = false;
+            boolean canDelete = false;
 
-                if (employee != null && currentUser != null) {
-                    // Admin can do everything
-                    if (currentUser.getRole() == UserRole.ADMINISTRATOR) {
-                        canEdit = true;
-                        canDelete = true;
-                    }
-                    // HR personnel can edit but not delete
-                    else if (currentUser.getRole() == UserRole.HR_PERSONNEL) {
-                        canEdit = true;
-                        canDelete=true;
-                    }
-                    // Managers can edit their own employees
-                    else if (currentUser.getRole() == UserRole.MANAGER) {
-                        canEdit = employee.getDepartment().getId().equals(currentUser.getDepartment().getId());
-                    }
-                    // Regular employees can only see their own info
-                    else {
-                        canEdit = employee.getId().equals(currentUser.getId());
-                    }
+            if (employee != null && currentUser != null) {
+                // Admin can do everything
+                if (currentUser.role() == UserRole.ADMINISTRATOR) {
+                    canEdit = true;
+                    canDelete = true;
+                }
+                // HR personnel can edit but not delete
+                else if (currentUser.role() == UserRole.HR_PERSONNEL) {
+                    canEdit = true;
+                    canDelete=true;
+                }
+                // Managers can edit their own employees
+                else if (currentUser.role() == UserRole.MANAGER) {
+                    canEdit = employee.departmentId() != null && employee.departmentId().equals(currentUser.departmentId());
+                }
+                // Regular employees can only see their own info
+                else {
+                    canEdit = employee.id().equals(currentUser.id());
                 }
-
-                editButton.setVisible(canEdit);
-                deleteButton.setVisible(canDelete);
-
-            } catch (SQLException e) {
-                // Handle error - hide buttons in case of error
-                editButton.setVisible(false);
-                deleteButton.setVisible(false);
             }
+
+            editButton.setVisible(canEdit);
+            deleteButton.setVisible(canDelete);
         }
     }
     private class ButtonEditor extends DefaultCellEditor {
@@ -661,21 +662,24 @@ public class EmployeeManagementPanel extends JPanel implements StyleConstants{
         }
 
         private boolean canEditEmployee(String employeeId) {
+            if (employeeId == null) {
+                return false; // row still loading
+            }
             try {
                 Employee employee = employeeDAO.findByEmployeeId(employeeId);
-                Employee currentUser = AuditDAO.getActionUser();
+                ActingUser currentUser = UserContext.current();
 
                 if (employee != null && currentUser != null) {
-                    if (currentUser.getRole() == UserRole.ADMINISTRATOR) {
+                    if (currentUser.role() == UserRole.ADMINISTRATOR) {
                         return true;
                     }
-                    if (currentUser.getRole() == UserRole.HR_PERSONNEL) {
+                    if (currentUser.role() == UserRole.HR_PERSONNEL) {
                         return true;
                     }
-                    if (currentUser.getRole() == UserRole.MANAGER) {
-                        return employee.getDepartment().getId().equals(currentUser.getDepartment().getId());
+                    if (currentUser.role() == UserRole.MANAGER) {
+                        return employee.getDepartment().getId().equals(currentUser.departmentId());
                     }
-                    return employee.getId().equals(currentUser.getId());
+                    return employee.getId().equals(currentUser.id());
                 }
             } catch (SQLException e) {
                 // Handle error
@@ -684,8 +688,8 @@ public class EmployeeManagementPanel extends JPanel implements StyleConstants{
         }
 
         private boolean canDeleteEmployee(String employeeId) {
-            Employee currentUser = AuditDAO.getActionUser();
-            return currentUser != null && (currentUser.getRole() == UserRole.ADMINISTRATOR || currentUser.getRole() == UserRole.HR_PERSONNEL);
+            ActingUser currentUser = UserContext.current();
+            return currentUser != null && (currentUser.role() == UserRole.ADMINISTRATOR || currentUser.role() == UserRole.HR_PERSONNEL);
         }
 
         @Override
@@ -710,7 +714,7 @@ public class EmployeeManagementPanel extends JPanel implements StyleConstants{
     // Add utility methods for export and print functionality
     private void addExportButton(JPanel toolbar) {
         MButton exportButton = new MButton("Export", MButton.ButtonType.SECONDARY)
-                .withSize(120, 38);;
+                .withSize(120, 38);
         exportButton.addActionListener(e -> exportToExcel());
         toolbar.add(exportButton);
     }
@@ -738,20 +742,65 @@ public class EmployeeManagementPanel extends JPanel implements StyleConstants{
         });
 
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try {
-                String filePath = fileChooser.getSelectedFile().getAbsolutePath();
-                if (!filePath.toLowerCase().endsWith(".xlsx")) {
-                    filePath += ".xlsx";
-                }
-
-                // Export logic to be implemented
-                showSuccess("Export completed successfully");
-            } catch (Exception e) {
-                showError("Error exporting data: " + e.getMessage());
+            String filePath = fileChooser.getSelectedFile().getAbsolutePath();
+            if (!filePath.toLowerCase().endsWith(".xlsx")) {
+                filePath += ".xlsx";
             }
+            exportInBackground(criteria, UserContext.current(), tableModel.getRowCount(), Path.of(filePath));
         }
     }
 
+    // reads and writes the rows on a worker thread, the progress dialog can cancel it. the table holds only the
+    // pages on screen, so the rows of the query are read again, streamed from the cursor into the workbook
+    private void exportInBackground(SearchCriteria query, ActingUser currentUser, int rows, Path target) {
+        ProgressMonitor progressMonitor = new ProgressMonitor(this, "Exporting employees", "", 0, 100);
+        progressMonitor.setMillisToDecideToPopup(200);
+
+        SwingWorker<Integer, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                // rows is the count of the table, rows added since then must not push the progress past 100
+                AtomicInteger exported = new AtomicInteger();
+                boolean completed = new EmployeeExcelExporter().export(
+                        handler -> employeeDAO.streamSummaries(query, currentUser, handler), target,
+                        written -> {
+                            exported.set(written);
+                            setProgress(Math.min(100, written * 100 / Math.max(1, rows)));
+                        },
+                        // the monitor is asked between rows, the progress events stop once the percentage stalls
+                        () -> isCancelled() || progressMonitor.isCanceled());
+                return completed ? exported.get() : null;
+            }
+
+            @Override
+            protected void done() {
+                progressMonitor.close();
+                try {
+                    Integer exported = isCancelled() ? null : get();
+                    if (exported != null) {
+                        showSuccess("Exported " + exported + " employees to " + target.getFileName());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    showError("Error exporting data: " + e.getCause().getMessage());
+                }
+            }
+        };
+        worker.addPropertyChangeListener(event -> {
+            if ("progress".equals(event.getPropertyName())) {
+                if (progressMonitor.isCanceled()) {
+                    ((SwingWorker<?, ?>) event.getSource()).cancel(false);
+                    return;
+                }
+                int percent = (Integer) event.getNewValue();
+                progressMonitor.setProgress(percent);
+                progressMonitor.setNote(percent + "% of " + rows + " rows");
+            }
+        });
+        worker.execute();
+    }
+
     private void printEmployeeList() {
         try {
             MessageFormat header = new MessageFormat("Employee List - {0}");
@@ -0,0 +1,73 @@
+package io.hahnsoftware.emp.ui;
+
+import io.hahnsoftware.emp.dao.EmployeeDAO;
+import io.hahnsoftware.emp.model.SearchCriteria;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.records.EmployeeSummary;
+import io.hahnsoftware.emp.ui.table.EmployeeTableModel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * loads the row count and first page the employee table shows for a query, on the worker thread of the panel.
+ * after a typing pause the shown result is narrowed in memory when it is indexed, any other change reads the
+ * database. the result of a typing pause is read in full into a search index when it has at most
+ * EmployeeSearchIndex.MAX_ROWS rows, so the next pauses narrow it whatever its size.
+ */
+final class EmployeeResultLoader {
+
+    /**
+     * the row count and first page of a query, loaded together when the query changes. index holds the ids of every
+     * row with their search keys when the whole result was read, null otherwise.
+     */
+    record FirstPage(SearchCriteria criteria, ActingUser caller, EmployeeTableModel.PageSource source,
+                     int rowCount, List<EmployeeSummary> rows, EmployeeSearchIndex index) {
+
+        // a query that only adds to the search text of this indexed result matches a subset of its rows
+        boolean narrowsTo(SearchCriteria next, ActingUser nextCaller) {
+            return index != null
+                    && Objects.equals(caller, nextCaller)
+                    && Objects.equals(criteria.getStatus(), next.getStatus())
+                    && criteria.getSortBy().equals(next.getSortBy())
+                    && criteria.getSortDirection().equals(next.getSortDirection())
+                    && next.getText().toLowerCase().startsWith(criteria.getText().toLowerCase());
+        }
+    }
+
+    private final EmployeeDAO employeeDAO;
+
+    EmployeeResultLoader(EmployeeDAO employeeDAO) {
+        this.employeeDAO = employeeDAO;
+    }
+
+    // shown is the result the table shows, null before the first load
+    FirstPage load(SearchCriteria query, ActingUser caller, FirstPage shown, boolean searchEdited) throws Exception {
+        if (searchEdited && shown != null && shown.narrowsTo(query, caller)) {
+            return indexed(query, caller, shown.index().narrow(query.getText()));
+        }
+        int rowCount = (int) employeeDAO.countSummaries(query, caller);
+        if (searchEdited && rowCount <= EmployeeSearchIndex.MAX_ROWS) {
+            // the search keys are built once here and reused by every narrowing of this result
+            EmployeeSearchIndex.Builder index = new EmployeeSearchIndex.Builder();
+            employeeDAO.streamSummaries(query, caller, index::add);
+            return indexed(query, caller, index.build());
+        }
+        EmployeeTableModel.PageSource source =
+                (offset, limit) -> employeeDAO.findSummaryRange(query, caller, offset, limit);
+        List<EmployeeSummary> rows = source.fetch(0, EmployeeTableModel.PAGE_SIZE);
+        EmployeeSearchIndex index = rows.size() >= rowCount ? EmployeeSearchIndex.of(rows) : null;
+        return new FirstPage(query, caller, source, rowCount, rows, index);
+    }
+
+    // the pages of an indexed result are read by id, rows deleted since it was read are left out
+    private FirstPage indexed(SearchCriteria query, ActingUser caller, EmployeeSearchIndex index) throws Exception {
+        EmployeeTableModel.PageSource source = (offset, limit) -> {
+            List<Long> ids = index.ids(offset, limit);
+            Map<Long, EmployeeSummary> found = employeeDAO.findSummariesByIds(ids, caller);
+            return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+        };
+        return new FirstPage(query, caller, source, index.size(), source.fetch(0, EmployeeTableModel.PAGE_SIZE), index);
+    }
+}
@@ -0,0 +1,94 @@
+package io.hahnsoftware.emp.ui;
+
+import io.hahnsoftware.emp.records.EmployeeSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * the ids of a complete search result in its order, with their search text lowered once when the result is loaded.
+ * a query that extends the one of the result only removes rows, so it is answered by narrowing these in memory
+ * instead of asking the database again, the rows of a page are then read by id. matches like the free text of
+ * EmployeeDAO: any of the same columns contains the text, ignoring case. a key is about a hundred characters, so
+ * results of more than MAX_ROWS rows are not indexed.
+ */
+final class EmployeeSearchIndex {
+    static final int MAX_ROWS = 100_000;
+    // between the columns, so a query cannot match across two of them
+    private static final char SEPARATOR = '\u0000';
+
+    private final long[] ids;
+    private final String[] keys;
+
+    private EmployeeSearchIndex(long[] ids, String[] keys) {
+        this.ids = ids;
+        this.keys = keys;
+    }
+
+    static EmployeeSearchIndex of(List<EmployeeSummary> rows) {
+        Builder builder = new Builder();
+        rows.forEach(builder::add);
+        return builder.build();
+    }
+
+    // collects the rows of a result as they are read, only the id and key of each is kept
+    static final class Builder {
+        private long[] ids = new long[64];
+        private final List<String> keys = new ArrayList<>();
+
+        void add(EmployeeSummary employee) {
+            if (keys.size() == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[keys.size()] = employee.id();
+            keys.add(key(employee));
+        }
+
+        EmployeeSearchIndex build() {
+            return new EmployeeSearchIndex(Arrays.copyOf(ids, keys.size()), keys.toArray(new String[0]));
+        }
+    }
+
+    // the same columns as the free text search of EmployeeDAO, in the same order
+    private static String key(EmployeeSummary employee) {
+        StringBuilder key = new StringBuilder(96);
+        for (String column : new String[]{employee.fullName(), employee.employeeId(), employee.departmentName(),
+                employee.role().name(), employee.username(), employee.jobTitle()}) {
+            if (column != null) {
+                key.append(column);
+            }
+            key.append(SEPARATOR);
+        }
+        return key.toString().toLowerCase();
+    }
+
+    // the rows whose key contains the text, in their current order
+    EmployeeSearchIndex narrow(String text) {
+        String lower = text.toLowerCase();
+        long[] matchedIds = new long[ids.length];
+        List<String> matchedKeys = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].contains(lower)) {
+                matchedIds[matchedKeys.size()] = ids[i];
+                matchedKeys.add(keys[i]);
+            }
+        }
+        return new EmployeeSearchIndex(Arrays.copyOf(matchedIds, matchedKeys.size()),
+                matchedKeys.toArray(new String[0]));
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    // the ids of the rows at offset to offset + limit
+    List<Long> ids(int offset, int limit) {
+        int end = (int) Math.min(ids.length, (long) offset + limit);
+        List<Long> page = new ArrayList<>(Math.max(0, end - offset));
+        for (int i = offset; i < end; i++) {
+            page.add(ids[i]);
+        }
+        return page;
+    }
+}
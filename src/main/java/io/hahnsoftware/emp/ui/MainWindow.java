@@ -1,6 +1,7 @@
 package io.hahnsoftware.emp.ui;
 
-import io.hahnsoftware.emp.dao.AuditDAO;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.util.UserContext;
 import io.hahnsoftware.emp.dao.DepartmentDAO;
 import io.hahnsoftware.emp.dao.EmployeeDAO;
 import io.hahnsoftware.emp.model.Department;
@@ -47,7 +48,7 @@ public class MainWindow extends JFrame {
 
     private void onLoginSuccess(Employee employee) {
         // Initialize dashboard panel only after successful login
-        AuditDAO.setActionUser(employee);
+        UserContext.setSessionUser(ActingUser.of(employee));
         if (dashboardPanel == null) {
             dashboardPanel = new DashboardPanel(this::onLogout);
             dashboardPanel.setCurrentUser();
@@ -58,7 +59,7 @@ public class MainWindow extends JFrame {
     }
 
     public void onLogout() {
-        AuditDAO.setActionUser(null);
+        UserContext.setSessionUser(null);
 
         // Remove and cleanup dashboard
         if (dashboardPanel != null) {
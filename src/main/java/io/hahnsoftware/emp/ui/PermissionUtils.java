@@ -1,29 +1,35 @@
 package io.hahnsoftware.emp.ui;
 
-import io.hahnsoftware.emp.dao.AuditDAO;
 import io.hahnsoftware.emp.model.Employee;
 import io.hahnsoftware.emp.model.UserRole;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.util.UserContext;
 
 public class PermissionUtils {
     // can view, edit, update, delete features
     public static boolean canAccessAll() {
-        return AuditDAO.getActionUser() != null && AuditDAO.getActionUser().getRole().equals(UserRole.ADMINISTRATOR);
+        return hasRole(UserRole.ADMINISTRATOR);
     }
 
     // can edit and view employee only
     public static boolean canAccessViewAndEditEmployee(Employee employeeTarget) {
-        return canAccessAll() || AuditDAO.getActionUser() != null && AuditDAO.getActionUser().getRole().equals(UserRole.MANAGER) && employeeTarget.isCurrentUserManager();
+        return canAccessAll() || hasRole(UserRole.MANAGER) && employeeTarget.isCurrentUserManager();
     }
 
     public static boolean canAccessAllEmployee() {
-        return canAccessAll() || AuditDAO.getActionUser() != null && AuditDAO.getActionUser().getRole().equals(UserRole.ADMINISTRATOR) || AuditDAO.getActionUser() != null && AuditDAO.getActionUser().getRole().equals(UserRole.HR_PERSONNEL);
+        return canAccessAll() || hasRole(UserRole.ADMINISTRATOR) || hasRole(UserRole.HR_PERSONNEL);
     }
 
     public static boolean canViewEmployeePanel() {
-        return AuditDAO.getActionUser() != null && AuditDAO.getActionUser().getRole().equals(UserRole.MANAGER);
+        return hasRole(UserRole.MANAGER);
     }
 
     public static boolean canViewLogAudit() {
-        return canAccessAll() || AuditDAO.getActionUser() != null && AuditDAO.getActionUser().getRole().equals(UserRole.ADMINISTRATOR);
+        return canAccessAll() || hasRole(UserRole.ADMINISTRATOR);
+    }
+
+    private static boolean hasRole(UserRole role) {
+        ActingUser currentUser = UserContext.current();
+        return currentUser != null && currentUser.hasRole(role);
     }
 }
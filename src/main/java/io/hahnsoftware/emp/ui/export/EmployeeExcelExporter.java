@@ -0,0 +1,122 @@
+package io.hahnsoftware.emp.ui.export;
+
+import io.hahnsoftware.emp.dao.EmployeeDAO;
+import io.hahnsoftware.emp.records.EmployeeSummary;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * writes employees to an .xlsx file with the streaming SXSSF writer. the rows come from a {@link RowSource}, usually
+ * a database cursor, and only the last {@value #ROW_WINDOW} of them stay in memory, older rows are flushed to a
+ * compressed temporary file, so the size of the export does not change the heap it needs. the file is written next to the target and moved in place once complete, a
+ * cancelled or failed export leaves no partial file behind.
+ */
+public class EmployeeExcelExporter {
+    private static final int ROW_WINDOW = 100;
+    private static final String[] HEADERS = {
+            "Employee ID", "Full Name", "Department", "Job Title", "Status", "Hire Date",
+            "Email", "Phone", "Role"
+    };
+
+    // hands every row of the export to the handler in order, e.g. EmployeeDAO.streamSummaries
+    @FunctionalInterface
+    public interface RowSource {
+        void forEach(EmployeeDAO.RowHandler<EmployeeSummary> handler) throws SQLException, IOException;
+    }
+
+    // thrown from the row handler to end the read of the source on cancel
+    private static class Cancelled extends IOException {
+    }
+
+    /**
+     * @param progress receives the number of rows written so far
+     * @param cancelled checked between rows, the export stops and returns false once it answers true
+     * @return true when the file was written, false when the export was cancelled
+     */
+    public boolean export(RowSource employees, Path target, IntConsumer progress, BooleanSupplier cancelled)
+            throws IOException, SQLException {
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Employees");
+            writeHeader(workbook, sheet);
+
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+
+            int[] rowIndex = {1};
+            try {
+                employees.forEach(employee -> {
+                    if (cancelled.getAsBoolean()) {
+                        throw new Cancelled();
+                    }
+                    writeRow(sheet.createRow(rowIndex[0]++), employee, dateStyle);
+                    progress.accept(rowIndex[0] - 1);
+                });
+            } catch (Cancelled e) {
+                return false;
+            }
+
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                workbook.write(out);
+            }
+            if (cancelled.getAsBoolean()) {
+                return false;
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } finally {
+            // removes the temporary files of the flushed rows
+            workbook.dispose();
+            workbook.close();
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private void writeHeader(SXSSFWorkbook workbook, SXSSFSheet sheet) {
+        Font bold = workbook.createFont();
+        bold.setBold(true);
+        CellStyle headerStyle = workbook.createCellStyle();
+        headerStyle.setFont(bold);
+
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < HEADERS.length; i++) {
+            Cell cell = header.createCell(i);
+            cell.setCellValue(HEADERS[i]);
+            cell.setCellStyle(headerStyle);
+            // fixed widths, auto sizing would need every row in memory
+            sheet.setColumnWidth(i, 20 * 256);
+        }
+        sheet.createFreezePane(0, 1);
+    }
+
+    private void writeRow(Row row, EmployeeSummary employee, CellStyle dateStyle) {
+        row.createCell(0).setCellValue(employee.employeeId());
+        row.createCell(1).setCellValue(employee.fullName());
+        row.createCell(2).setCellValue(employee.departmentName() != null ? employee.departmentName() : "");
+        row.createCell(3).setCellValue(employee.jobTitle());
+        row.createCell(4).setCellValue(employee.status() != null ? employee.status().name() : "");
+        if (employee.hireDate() != null) {
+            Cell hireDate = row.createCell(5);
+            hireDate.setCellValue(employee.hireDate());
+            hireDate.setCellStyle(dateStyle);
+        }
+        row.createCell(6).setCellValue(employee.email());
+        row.createCell(7).setCellValue(employee.phone());
+        row.createCell(8).setCellValue(employee.role() != null ? employee.role().name() : "");
+    }
+}
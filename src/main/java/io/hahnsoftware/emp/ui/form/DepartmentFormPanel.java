@@ -6,6 +6,7 @@ import io.hahnsoftware.emp.model.Department;
 import io.hahnsoftware.emp.model.Employee;
 import io.hahnsoftware.emp.ui.StyleConstants;
 import io.hahnsoftware.emp.ui.button.MButton;
+import io.hahnsoftware.emp.util.UserContext;
 import net.miginfocom.swing.MigLayout;
 
 import javax.swing.*;
@@ -126,7 +127,7 @@ public class DepartmentFormPanel extends JPanel implements StyleConstants {
 
     private void loadManagers() {
         try {
-            java.util.List<Employee> managers = employeeDAO.findAllManagers();
+            java.util.List<Employee> managers = employeeDAO.findAllManagers(UserContext.current());
             managerComboBox.removeAllItems();
             managerComboBox.addItem(null); // Add a null option for no manager
             for (Employee manager : managers) {
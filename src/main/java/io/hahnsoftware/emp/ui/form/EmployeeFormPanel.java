@@ -47,6 +47,8 @@ public class EmployeeFormPanel extends JPanel implements StyleConstants {
     private final JPasswordField confirmPasswordField;
 
     private Long editingEmployeeId;
+    // version shown in the form, saving fails if someone else updated the employee meanwhile
+    private Long editingVersion;
 
     public EmployeeFormPanel(Runnable onSaveComplete) {
         this.onSaveComplete = onSaveComplete;
@@ -302,6 +304,7 @@ public class EmployeeFormPanel extends JPanel implements StyleConstants {
 
     public void setEmployee(Employee employee) {
         editingEmployeeId = employee != null ? employee.getId() : null;
+        editingVersion = employee != null ? employee.getVersion() : null;
 
         if (employee != null) {
             employeeIdField.setText(employee.getEmployeeId());
@@ -450,6 +453,7 @@ public class EmployeeFormPanel extends JPanel implements StyleConstants {
                     // Use a method that allows password change
                     employeeDAO.updatePassword(employee, password);
                 } else {
+                    employee.setVersion(editingVersion);
                     employeeDAO.update(employee);
                 }
                 showSuccessAndClose("Employee updated successfully");
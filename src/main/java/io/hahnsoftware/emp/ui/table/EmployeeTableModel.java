@@ -0,0 +1,201 @@
+package io.hahnsoftware.emp.ui.table;
+
+import io.hahnsoftware.emp.records.EmployeeSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * employee table that holds only the pages around the scroll position. the row count comes from the database,
+ * a page is fetched on a worker thread the first time one of its rows is painted, and the pages next to it are
+ * prefetched so scrolling rarely shows a row that is still loading. at most MAX_CACHED_PAGES pages are kept, the
+ * least recently painted one is dropped first. a page that fails to load is logged and shown as failed, it is
+ * asked for again after a delay that doubles with every failure up to MAX_RETRY_DELAY_MS. the failure listener
+ * hears only the first failure of a query. all methods run on the EDT.
+ */
+public class EmployeeTableModel extends AbstractTableModel {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeTableModel.class);
+    public static final int PAGE_SIZE = 50;
+    private static final int MAX_CACHED_PAGES = 10;
+    private static final int FIRST_RETRY_DELAY_MS = 1000;
+    private static final int MAX_RETRY_DELAY_MS = 30000;
+    private static final String[] COLUMNS = {"ID", "Full Name", "Department", "Job Title", "Status", "Hire Date", "Actions"};
+    // the SearchCriteria sort field of each column, null where the column cannot be sorted
+    private static final String[] SORT_FIELDS = {"employeeId", "fullName", "departmentName", "jobTitle", "status",
+            "hireDate", null};
+    public static final int ACTIONS_COLUMN = 6;
+
+    // fetches limit rows starting at offset of the current query, called on a worker thread
+    @FunctionalInterface
+    public interface PageSource {
+        List<EmployeeSummary> fetch(int offset, int limit) throws Exception;
+    }
+
+    private final Map<Integer, List<EmployeeSummary>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<EmployeeSummary>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> loading = new HashSet<>();
+    // pages whose last load failed, with the number of failures in a row
+    private final Map<Integer, Integer> failures = new HashMap<>();
+    // pages waiting for their retry delay
+    private final Set<Integer> backingOff = new HashSet<>();
+    private Consumer<Exception> failureListener = e -> { };
+    private boolean failureReported;
+    private PageSource source;
+    private int rowCount;
+    // bumped by every reset, pages fetched for an older query are dropped when they arrive
+    private int generation;
+
+    public static String sortField(int column) {
+        return column >= 0 && column < SORT_FIELDS.length ? SORT_FIELDS[column] : null;
+    }
+
+    // told about the first page that fails to load after each reset
+    public void setFailureListener(Consumer<Exception> failureListener) {
+        this.failureListener = failureListener;
+    }
+
+    /**
+     * switches to a new query: the cached pages are dropped and the first page, fetched together with the row count,
+     * is shown right away.
+     */
+    public void reset(PageSource source, int rowCount, List<EmployeeSummary> firstPage) {
+        this.source = source;
+        this.rowCount = rowCount;
+        generation++;
+        pages.clear();
+        loading.clear();
+        failures.clear();
+        backingOff.clear();
+        failureReported = false;
+        pages.put(0, firstPage);
+        fireTableDataChanged();
+    }
+
+    // the employee of a row, null while its page is loading
+    public EmployeeSummary getEmployee(int row) {
+        if (row < 0 || row >= rowCount) {
+            return null;
+        }
+        int page = row / PAGE_SIZE;
+        List<EmployeeSummary> rows = pages.get(page);
+        if (rows == null) {
+            request(page);
+            return null;
+        }
+        request(page - 1);
+        request(page + 1);
+        int index = row % PAGE_SIZE;
+        return index < rows.size() ? rows.get(index) : null;
+    }
+
+    private void request(int page) {
+        if (source == null || page < 0 || (long) page * PAGE_SIZE >= rowCount
+                || pages.containsKey(page) || backingOff.contains(page) || !loading.add(page)) {
+            return;
+        }
+        PageSource pageSource = source;
+        int pageGeneration = generation;
+        new SwingWorker<List<EmployeeSummary>, Void>() {
+            @Override
+            protected List<EmployeeSummary> doInBackground() throws Exception {
+                return pageSource.fetch(page * PAGE_SIZE, PAGE_SIZE);
+            }
+
+            @Override
+            protected void done() {
+                if (pageGeneration != generation) {
+                    return;
+                }
+                loading.remove(page);
+                try {
+                    pages.put(page, get());
+                    failures.remove(page);
+                } catch (Exception e) {
+                    failed(page, e instanceof ExecutionException && e.getCause() instanceof Exception cause ? cause : e);
+                }
+                fireRowsUpdated(page);
+            }
+        }.execute();
+    }
+
+    // left unloaded until the retry delay is over, then the repaint of its rows asks again
+    private void failed(int page, Exception e) {
+        int count = failures.merge(page, 1, Integer::sum);
+        int delay = (int) Math.min(MAX_RETRY_DELAY_MS, (long) FIRST_RETRY_DELAY_MS << Math.min(count - 1, 16));
+        log.warn("Failed to load employee rows from {}, retrying in {} ms", page * PAGE_SIZE, delay, e);
+        if (!failureReported) {
+            failureReported = true;
+            failureListener.accept(e);
+        }
+
+        backingOff.add(page);
+        int pageGeneration = generation;
+        Timer retry = new Timer(delay, event -> {
+            if (pageGeneration == generation) {
+                backingOff.remove(page);
+                fireRowsUpdated(page);
+            }
+        });
+        retry.setRepeats(false);
+        retry.start();
+    }
+
+    private void fireRowsUpdated(int page) {
+        int first = page * PAGE_SIZE;
+        fireTableRowsUpdated(first, Math.min(rowCount, first + PAGE_SIZE) - 1);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == ACTIONS_COLUMN; // Only actions column is editable
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        EmployeeSummary employee = getEmployee(row);
+        if (employee == null) {
+            if (column != 1) {
+                return null;
+            }
+            return failures.containsKey(row / PAGE_SIZE) ? "Failed to load, retrying..." : "Loading...";
+        }
+        return switch (column) {
+            case 0 -> employee.employeeId();
+            case 1 -> employee.fullName();
+            case 2 -> employee.departmentName();
+            case 3 -> employee.jobTitle();
+            case 4 -> employee.status();
+            case 5 -> employee.hireDate();
+            default -> "Edit Delete";
+        };
+    }
+}
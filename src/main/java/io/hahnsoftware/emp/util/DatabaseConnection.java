@@ -1,30 +1,26 @@
 package io.hahnsoftware.emp.util;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 import java.io.IOException;
-import java.io.InputStream;
 
 /**
- * this class for connection to database, we use singleton to optimize connections objects
+ * this class gives access to the database through a connection pool shared by the REST api and the swing client.
+ * every caller borrows its own connection with {@link #getConnection()} and must close it (try-with-resources)
+ * to hand it back to the pool, so concurrent requests never share a JDBC session or its transaction.
  */
 public class DatabaseConnection {
-    private static Connection connection = null;
+    private static HikariDataSource dataSource = null;
 
-    public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
+    public static synchronized DataSource getDataSource() throws SQLException {
+        if (dataSource == null || dataSource.isClosed()) {
             try {
-                Properties props = new Properties();
-                // Load properties from classpath
-                try (InputStream inputStream = DatabaseConnection.class.getClassLoader()
-                        .getResourceAsStream("database.properties")) {
-                    if (inputStream == null) {
-                        throw new IOException("Properties file 'database.properties' not found in classpath");
-                    }
-                    props.load(inputStream);
-                }
+                Properties props = DatabaseProperties.load();
 
                 String url = props.getProperty("db.url");
                 String user = props.getProperty("db.user");
@@ -34,50 +30,44 @@ public class DatabaseConnection {
                     throw new IOException("Database properties are missing required values");
                 }
 
-                // Register JDBC driver
-                Class.forName("oracle.jdbc.OracleDriver");
+                HikariConfig config = new HikariConfig();
+                config.setPoolName("employee-pool");
+                config.setDriverClassName(props.getProperty("db.driver", "oracle.jdbc.OracleDriver"));
+                config.setJdbcUrl(url);
+                config.setUsername(user);
+                config.setPassword(password);
+                config.setAutoCommit(false); // For transaction management
 
-                connection = DriverManager.getConnection(url, user, password);
-                connection.setAutoCommit(false); // For transaction management
+                // Pool sizing, acquisition timeout, validation and leak detection
+                config.setMinimumIdle(DatabaseProperties.intProperty(props, "db.pool.minIdle", 2));
+                config.setMaximumPoolSize(DatabaseProperties.intProperty(props, "db.pool.maxSize", 10));
+                config.setConnectionTimeout(DatabaseProperties.longProperty(props, "db.pool.connectionTimeoutMs", 30000));
+                config.setValidationTimeout(DatabaseProperties.longProperty(props, "db.pool.validationTimeoutMs", 5000));
+                config.setLeakDetectionThreshold(DatabaseProperties.longProperty(props, "db.pool.leakDetectionThresholdMs", 0));
+                String testQuery = props.getProperty("db.pool.testQuery");
+                if (testQuery != null && !testQuery.isBlank()) {
+                    config.setConnectionTestQuery(testQuery);
+                }
 
+                dataSource = new HikariDataSource(config);
             } catch (IOException e) {
                 throw new SQLException("Could not load database properties: " + e.getMessage(), e);
-            } catch (ClassNotFoundException e) {
-                throw new SQLException("Oracle JDBC Driver not found", e);
+            } catch (RuntimeException e) {
+                throw new SQLException("Could not initialize the connection pool: " + e.getMessage(), e);
             }
         }
-        return connection;
+        return dataSource;
     }
 
-    public static void closeConnection() {
-        if (connection != null) {
-            try {
-                if (!connection.isClosed()) {
-                    connection.close();
-                }
-            } catch (SQLException e) {
-                System.err.println("Error closing connection: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }
-    }
-
-    public static void commitTransaction() throws SQLException {
-        if (connection != null && !connection.isClosed()) {
-            connection.commit();
-        }
+    // borrow a connection from the pool, closing it returns it to the pool
+    public static Connection getConnection() throws SQLException {
+        return getDataSource().getConnection();
     }
 
-    public static void rollbackTransaction() {
-        if (connection != null) {
-            try {
-                if (!connection.isClosed()) {
-                    connection.rollback();
-                }
-            } catch (SQLException e) {
-                System.err.println("Error rolling back transaction: " + e.getMessage());
-                e.printStackTrace();
-            }
+    public static synchronized void closeConnection() {
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
         }
+        dataSource = null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+package io.hahnsoftware.emp.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+// database.properties, read by the connection pool and for the tuning values of the data access helpers
+public final class DatabaseProperties {
+    private static final Logger log = LoggerFactory.getLogger(DatabaseProperties.class);
+
+    private DatabaseProperties() {
+    }
+
+    // the file from the classpath, the db.* system properties win over it
+    public static Properties load() throws IOException {
+        Properties props = new Properties();
+        try (InputStream inputStream = DatabaseProperties.class.getClassLoader()
+                .getResourceAsStream("database.properties")) {
+            if (inputStream == null) {
+                throw new IOException("Properties file 'database.properties' not found in classpath");
+            }
+            props.load(inputStream);
+        }
+        // e.g. to point benchmarks at another database
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("db.")) {
+                props.setProperty(key, System.getProperty(key));
+            }
+        }
+        return props;
+    }
+
+    // the same properties for tuning values that all have a default, empty when the file cannot be read
+    public static Properties loadOrDefaults() {
+        try {
+            return load();
+        } catch (IOException e) {
+            log.warn("Could not load database.properties, using defaults", e);
+            return new Properties();
+        }
+    }
+
+    public static int intProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public static long longProperty(Properties props, String key, long defaultValue) {
+        String value = props.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
+    }
+}
@@ -0,0 +1,38 @@
+package io.hahnsoftware.emp.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// parses the fields= parameter of sparse fieldset requests against the fields a resource allows
+public final class FieldSelection {
+
+    private FieldSelection() {
+    }
+
+    /**
+     * the requested fields in the order of allowed, without duplicates, so two spellings of the same selection
+     * share one cache entry. id is always included. throws IllegalArgumentException naming the first field that
+     * is not allowed.
+     */
+    public static List<String> parse(String fields, List<String> allowed) {
+        List<String> requested = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            requested.add(name);
+        }
+
+        List<String> selection = new ArrayList<>();
+        for (String name : allowed) {
+            if (name.equals("id") || requested.contains(name)) {
+                selection.add(name);
+            }
+        }
+        return List.copyOf(selection);
+    }
+}
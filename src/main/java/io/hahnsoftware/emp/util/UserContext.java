@@ -0,0 +1,41 @@
+package io.hahnsoftware.emp.util;
+
+import io.hahnsoftware.emp.records.ActingUser;
+
+/**
+ * holds the user the current operation runs for.
+ * the REST api binds the caller to the request thread with {@link #bind(ActingUser)} and clears it when the
+ * request completes, so concurrent requests never see each other's user. the swing client has one logged in
+ * user for the whole session and sets it with {@link #setSessionUser(ActingUser)}, which is also visible from
+ * its background workers. a user bound to the thread wins over the session user.
+ */
+public final class UserContext {
+    private static final ThreadLocal<ActingUser> requestUser = new ThreadLocal<>();
+    private static volatile ActingUser sessionUser;
+
+    private UserContext() {
+    }
+
+    public static ActingUser current() {
+        ActingUser user = requestUser.get();
+        return user != null ? user : sessionUser;
+    }
+
+    // id of the current user, null when nobody is logged in
+    public static Long currentUserId() {
+        ActingUser user = current();
+        return user != null ? user.id() : null;
+    }
+
+    public static void bind(ActingUser user) {
+        requestUser.set(user);
+    }
+
+    public static void clear() {
+        requestUser.remove();
+    }
+
+    public static void setSessionUser(ActingUser user) {
+        sessionUser = user;
+    }
+}
@@ -0,0 +1,138 @@
+package io.hahnsoftware.emp.benchmark;
+
+import io.hahnsoftware.emp.model.Department;
+import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.model.EmploymentStatus;
+import io.hahnsoftware.emp.model.UserRole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * datasets shared by the JMH benchmarks: employees spread over departments of {@value #DEPARTMENT_SIZE}, the
+ * first employee of each department being its manager. the same generator fills the in memory lists and the
+ * embedded H2 database, so the numbers of the different benchmarks are comparable.
+ */
+public final class BenchmarkData {
+    public static final int DEPARTMENT_SIZE = 100;
+
+    private static final String[] JOB_TITLES = {
+            "Software Engineer", "Senior Software Engineer", "QA Engineer", "Product Manager",
+            "HR Specialist", "Accountant", "Sales Representative", "Support Analyst"
+    };
+    private static final String[] FIRST_NAMES = {"Jane", "John", "Amina", "Youssef", "Maria", "Li", "Omar", "Sara"};
+    private static final String[] LAST_NAMES = {"Smith", "El Amrani", "Garcia", "Chen", "Haddad", "Muller", "Rossi"};
+    private static final EmploymentStatus[] STATUSES = EmploymentStatus.values();
+
+    private BenchmarkData() {
+    }
+
+    public static List<Employee> employees(int rows) {
+        List<Employee> employees = new ArrayList<>(rows);
+        List<Department> departments = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Employee employee = employee(i);
+            employee.setId(i + 1L);
+            if (i % DEPARTMENT_SIZE == 0) {
+                // like the DAO, the manager of a department is loaded without its own department
+                Employee manager = employee(i);
+                manager.setId(employee.getId());
+                Department department = new Department();
+                department.setId((long) departments.size() + 1);
+                department.setName(departmentName(departments.size()));
+                department.setManager(manager);
+                departments.add(department);
+            }
+            employee.setDepartment(departments.get(i / DEPARTMENT_SIZE));
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    /**
+     * creates the schema of schema.sql in an H2 database running in Oracle mode and inserts the dataset.
+     * the url must allow the TIMESTAMP column name, e.g. {@code jdbc:h2:mem:bench;MODE=Oracle;DB_CLOSE_DELAY=-1;NON_KEYWORDS=TIMESTAMP}
+     */
+    public static void seedH2(String url, int rows) throws SQLException, IOException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                for (String statement : Files.readString(Path.of("schema.sql")).split(";")) {
+                    if (!statement.isBlank()) {
+                        stmt.execute(statement);
+                    }
+                }
+            }
+
+            int departmentCount = (rows + DEPARTMENT_SIZE - 1) / DEPARTMENT_SIZE;
+            try (PreparedStatement stmt = connection.prepareStatement("INSERT INTO departments (name) VALUES (?)")) {
+                for (int d = 0; d < departmentCount; d++) {
+                    stmt.setString(1, departmentName(d));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+
+            String sql = "INSERT INTO employees (employee_id, full_name, username, password_hash, role, job_title, " +
+                    "department_id, hire_date, status, email, phone, address) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                for (int i = 0; i < rows; i++) {
+                    Employee employee = employee(i);
+                    stmt.setString(1, employee.getEmployeeId());
+                    stmt.setString(2, employee.getFullName());
+                    stmt.setString(3, employee.getUsername());
+                    stmt.setString(4, employee.getPasswordHash());
+                    stmt.setString(5, employee.getRole().name());
+                    stmt.setString(6, employee.getJobTitle());
+                    stmt.setLong(7, i / DEPARTMENT_SIZE + 1L);
+                    stmt.setDate(8, Date.valueOf(employee.getHireDate()));
+                    stmt.setString(9, employee.getStatus().name());
+                    stmt.setString(10, employee.getEmail());
+                    stmt.setString(11, employee.getPhone());
+                    stmt.setString(12, employee.getAddress());
+                    stmt.addBatch();
+                    if (i % 1000 == 999) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+
+            try (Statement stmt = connection.createStatement()) {
+                // identity columns start at 1, so the manager of department d is employee (d - 1) * size + 1
+                stmt.execute("UPDATE departments SET manager_id = (id - 1) * " + DEPARTMENT_SIZE + " + 1");
+            }
+            connection.commit();
+        }
+    }
+
+    private static Employee employee(int i) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(String.format("EMP%06d", i + 1));
+        employee.setFullName(FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length] + " " + i);
+        employee.setUsername("user" + i);
+        employee.setPasswordHash("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z5Y5P6oG1Ql9Ff7mS4tG1Q1e");
+        employee.setRole(i % DEPARTMENT_SIZE == 0 ? UserRole.MANAGER : UserRole.EMPLOYEE);
+        employee.setJobTitle(JOB_TITLES[i % JOB_TITLES.length]);
+        employee.setHireDate(LocalDate.of(2010, 1, 1).plusDays(i % 5000));
+        employee.setStatus(STATUSES[i % STATUSES.length]);
+        employee.setEmail("user" + i + "@example.com");
+        employee.setPhone(String.format("+2126%08d", i));
+        employee.setAddress(i + " Main Street");
+        return employee;
+    }
+
+    private static String departmentName(int index) {
+        return "Department " + (index + 1);
+    }
+}
@@ -0,0 +1,100 @@
+package io.hahnsoftware.emp.dao;
+
+import io.hahnsoftware.emp.records.AuditLogPage;
+import io.hahnsoftware.emp.util.DatabaseConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditDAOTest {
+
+    @Mock private Connection mockConnection;
+    @Mock private PreparedStatement mockPreparedStatement;
+    @Mock private ResultSet mockResultSet;
+
+    private MockedStatic<DatabaseConnection> mockedDatabaseConnection;
+    private AuditDAO auditDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        mockedDatabaseConnection = mockStatic(DatabaseConnection.class);
+        mockedDatabaseConnection.when(DatabaseConnection::getConnection).thenReturn(mockConnection);
+        auditDAO = new AuditDAO(mock(EmployeeDAO.class));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        mockedDatabaseConnection.close();
+    }
+
+    @Test
+    void getAuditLogPage_SeeksPastTheCursorAndTruncatesChanges() throws SQLException {
+        LocalDateTime newest = LocalDateTime.of(2024, 3, 1, 12, 0);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        // three rows for a page of two, the third only tells that another page follows
+        int[] row = {-1};
+        long[] ids = {30L, 20L, 10L};
+        long[] changesLengths = {12L, 5000L, 12L};
+        when(mockResultSet.next()).thenAnswer(invocation -> ++row[0] < ids.length);
+        when(mockResultSet.getLong(anyInt())).thenAnswer(invocation -> switch ((int) invocation.getArgument(0)) {
+            case 1 -> ids[row[0]];
+            case 9 -> changesLengths[row[0]];
+            default -> 7L;
+        });
+        when(mockResultSet.getString(anyInt())).thenAnswer(invocation ->
+                (int) invocation.getArgument(0) == 6 ? "admin" : "{\"name\":\"x\"}");
+        when(mockResultSet.getTimestamp(7)).thenAnswer(invocation ->
+                Timestamp.valueOf(newest.minusMinutes(row[0])));
+
+        AuditLogPage first = auditDAO.getAuditLogPage("EMPLOYEE", null, null, null, null, 2);
+
+        assertEquals(2, first.items().size());
+        assertEquals(30L, first.items().get(0).id());
+        assertEquals("admin", first.items().get(0).username());
+        assertFalse(first.items().get(0).changesTruncated());
+        assertTrue(first.items().get(1).changesTruncated());
+        assertNotNull(first.nextCursor());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection).prepareStatement(sql.capture());
+        assertFalse(sql.getValue().contains("SELECT *"));
+        assertTrue(sql.getValue().contains("SUBSTR(a.changes, 1, " + AuditDAO.CHANGES_PREVIEW_LENGTH + ")"));
+        assertTrue(sql.getValue().endsWith("ORDER BY a.timestamp DESC, a.id DESC FETCH NEXT ? ROWS ONLY"));
+        verify(mockPreparedStatement).setObject(1, "EMPLOYEE");
+        verify(mockPreparedStatement).setObject(2, 3);
+
+        // the next page continues after the last entry of the first
+        when(mockResultSet.next()).thenReturn(false);
+        AuditLogPage second = auditDAO.getAuditLogPage("EMPLOYEE", null, null, null, first.nextCursor(), 2);
+
+        assertTrue(second.items().isEmpty());
+        assertNull(second.nextCursor());
+        verify(mockConnection, times(2)).prepareStatement(sql.capture());
+        assertTrue(sql.getValue().contains("AND (a.timestamp < ? OR (a.timestamp = ? AND a.id < ?))"));
+        verify(mockPreparedStatement).setObject(2, Timestamp.valueOf(newest.minusMinutes(1)));
+        verify(mockPreparedStatement).setObject(3, Timestamp.valueOf(newest.minusMinutes(1)));
+        verify(mockPreparedStatement).setObject(4, 20L);
+    }
+
+    @Test
+    void getAuditLogPage_RejectsAnInvalidCursor() throws SQLException {
+        assertThrows(IllegalArgumentException.class,
+                () -> auditDAO.getAuditLogPage(null, null, null, null, "not-a-cursor", 50));
+        verify(mockConnection, never()).prepareStatement(anyString());
+    }
+}
@@ -0,0 +1,137 @@
+package io.hahnsoftware.emp.dao;
+
+import io.hahnsoftware.emp.records.AuditWriterStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogWriterTest {
+
+    @Mock private Connection mockConnection;
+    @Mock private PreparedStatement mockPreparedStatement;
+
+    private AuditLogWriter writer;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Test
+    void close_WritesQueuedEntriesInBatches() throws SQLException {
+        writer = new AuditLogWriter(100, 10, 50, 100, () -> mockConnection);
+
+        for (long i = 1; i <= 25; i++) {
+            writer.enqueue("CREATE", "EMPLOYEE", i, 1L, "{}");
+        }
+        writer.close();
+
+        verify(mockPreparedStatement, times(25)).addBatch();
+        verify(mockPreparedStatement, never()).executeUpdate();
+        AuditWriterStats stats = writer.getStats();
+        assertEquals(25, stats.enqueued());
+        assertEquals(25, stats.written());
+        assertEquals(0, stats.failed());
+        assertEquals(0, stats.queueDepth());
+        assertTrue(stats.maxBatchSize() <= 10);
+        verify(mockPreparedStatement, times((int) stats.batches())).executeBatch();
+        verify(mockConnection, times((int) stats.batches())).commit();
+    }
+
+    @Test
+    void enqueue_AfterClose_WritesOnCallerThread() throws SQLException {
+        writer = new AuditLogWriter(100, 10, 50, 100, () -> mockConnection);
+        writer.close();
+
+        writer.enqueue("DELETE", "EMPLOYEE", 7L, 1L, "{}");
+
+        verify(mockPreparedStatement, times(1)).executeBatch();
+        verify(mockConnection, times(1)).commit();
+        assertEquals(1, writer.getStats().callerRunsWrites());
+    }
+
+    @Test
+    void badEntryInABatch_LosesOnlyItself() throws SQLException {
+        // the insert of entity 2 violates a constraint, whether batched with others or alone
+        List<Long> batched = new ArrayList<>();
+        when(mockPreparedStatement.executeBatch()).thenAnswer(call -> {
+            boolean bad = batched.contains(2L);
+            int rows = batched.size();
+            batched.clear();
+            if (bad) {
+                throw new SQLIntegrityConstraintViolationException("parent key not found");
+            }
+            return new int[rows];
+        });
+        doAnswer(call -> batched.add(call.getArgument(1))).when(mockPreparedStatement).setLong(eq(3), anyLong());
+        writer = new AuditLogWriter(100, 10, 500, 100, () -> mockConnection);
+
+        for (long i = 1; i <= 3; i++) {
+            writer.enqueue("UPDATE", "EMPLOYEE", i, 1L, "{}");
+        }
+        writer.close();
+
+        AuditWriterStats stats = writer.getStats();
+        assertEquals(1, stats.failed());
+        assertEquals(2, stats.written());
+        // the batch, then each row alone
+        verify(mockPreparedStatement, times(4)).executeBatch();
+        verify(mockConnection, times(2)).rollback();
+        verify(mockConnection, times(2)).commit();
+    }
+
+    @Test
+    void transientFailure_IsRetried() throws SQLException {
+        when(mockPreparedStatement.executeBatch())
+                .thenThrow(new SQLTransientConnectionException("connection reset"))
+                .thenReturn(new int[1]);
+        writer = new AuditLogWriter(100, 10, 50, 100, () -> mockConnection);
+
+        writer.enqueue("UPDATE", "EMPLOYEE", 3L, 1L, "{}");
+        writer.close();
+
+        assertEquals(0, writer.getStats().failed());
+        assertEquals(1, writer.getStats().written());
+        verify(mockConnection).rollback();
+        verify(mockConnection).commit();
+    }
+
+    @Test
+    void failedBatch_IsRolledBackAndCounted() throws SQLException {
+        when(mockPreparedStatement.executeBatch()).thenThrow(new SQLException("insert failed"));
+        writer = new AuditLogWriter(100, 10, 50, 100, () -> mockConnection);
+
+        writer.enqueue("UPDATE", "EMPLOYEE", 3L, 1L, "{}");
+        writer.close();
+
+        verify(mockConnection).rollback();
+        verify(mockConnection, never()).commit();
+        assertEquals(1, writer.getStats().failed());
+        assertEquals(0, writer.getStats().written());
+    }
+}
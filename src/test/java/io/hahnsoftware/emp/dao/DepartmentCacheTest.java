@@ -0,0 +1,164 @@
+package io.hahnsoftware.emp.dao;
+
+import io.hahnsoftware.emp.model.Department;
+import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.records.DepartmentCacheStats;
+import io.hahnsoftware.emp.records.ResourceVersion;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DepartmentCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final DepartmentCache cache = new DepartmentCache(2, 60_000, now::get);
+
+    private DepartmentCache.Loader<Department> loader(long id, String name) {
+        return () -> {
+            loads.incrementAndGet();
+            return department(id, name, null);
+        };
+    }
+
+    @Test
+    void getById_LoadsOnceAndReturnsCopies() throws SQLException {
+        Department first = cache.getById(1L, loader(1L, "IT"));
+        first.setName("changed by caller");
+        Department second = cache.getById(1L, loader(1L, "IT"));
+
+        assertEquals(1, loads.get());
+        assertEquals("IT", second.getName());
+        DepartmentCacheStats stats = cache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    void cacheHit_KeepsTheVersion() throws SQLException {
+        DepartmentCache.Loader<Department> versioned = () -> {
+            Department department = department(1L, "IT", null);
+            department.setVersion(7L);
+            return department;
+        };
+        cache.getById(1L, versioned);
+
+        assertEquals(7L, cache.getById(1L, versioned).getVersion());
+        assertEquals(7L, cache.getByName("IT", versioned).getVersion());
+        cache.getAll(() -> List.of(versioned.load()));
+        assertEquals(7L, cache.getAll(() -> List.of(versioned.load())).get(0).getVersion());
+        assertEquals(3, cache.getStats().hits());
+    }
+
+    @Test
+    void getByName_UsesEntriesLoadedById() throws SQLException {
+        cache.getById(1L, loader(1L, "IT"));
+
+        Department byName = cache.getByName("IT", loader(1L, "IT"));
+
+        assertEquals(1L, byName.getId());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void expiredEntry_IsLoadedAgain() throws SQLException {
+        cache.getById(1L, loader(1L, "IT"));
+        now.addAndGet(60_000);
+
+        cache.getById(1L, loader(1L, "IT"));
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStats().evictions());
+    }
+
+    @Test
+    void leastRecentlyUsed_IsEvictedWhenFull() throws SQLException {
+        cache.getById(1L, loader(1L, "IT"));
+        cache.getById(2L, loader(2L, "HR"));
+        cache.getById(1L, loader(1L, "IT"));
+        cache.getById(3L, loader(3L, "Sales"));
+
+        assertEquals(2, cache.getStats().size());
+        assertEquals(1, cache.getStats().evictions());
+        cache.getById(2L, loader(2L, "HR"));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void getAll_AtAnotherVersion_DropsTheCacheAndLoadsAgain() throws SQLException {
+        ResourceVersion v1 = new ResourceVersion("1", null);
+        ResourceVersion v2 = new ResourceVersion("2", null);
+        DepartmentCache.Loader<List<Department>> all = () -> {
+            loads.incrementAndGet();
+            return List.of(department(1L, "IT", null));
+        };
+        cache.getAll(v1, all);
+        cache.getAll(v1, all);
+        cache.getAll(all);
+        assertEquals(1, loads.get());
+
+        // another process wrote the table, the cached list and departments are as old as v1
+        cache.getAll(v2, all);
+        cache.getAll(v2, all);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStats().invalidations());
+    }
+
+    @Test
+    void invalidate_DropsDepartmentAndCachedList() throws SQLException {
+        List<Department> all = List.of(department(1L, "IT", null), department(2L, "HR", null));
+        cache.getAll(() -> {
+            loads.incrementAndGet();
+            return all;
+        });
+        cache.getAll(() -> {
+            loads.incrementAndGet();
+            return all;
+        });
+        assertEquals(1, loads.get());
+
+        cache.invalidate(1L);
+        cache.getById(1L, loader(1L, "IT renamed"));
+        assertNull(cache.getByName("IT", () -> null));
+        assertEquals("IT renamed", cache.getByName("IT renamed", loader(1L, "IT renamed")).getName());
+    }
+
+    @Test
+    void invalidateManagedBy_DropsDepartmentsOfThatManager() throws SQLException {
+        Employee manager = new Employee();
+        manager.setId(5L);
+        manager.setFullName("Jane Manager");
+        cache.getById(1L, () -> department(1L, "IT", manager));
+        cache.getById(2L, loader(2L, "HR"));
+
+        cache.invalidateManagedBy(5L);
+
+        assertEquals(1, cache.getStats().size());
+        assertEquals(1, cache.getStats().invalidations());
+    }
+
+    @Test
+    void loadOverlappingInvalidation_IsNotStored() throws SQLException {
+        Department loaded = cache.getById(1L, () -> {
+            cache.invalidate(1L);
+            return department(1L, "stale", null);
+        });
+
+        assertEquals("stale", loaded.getName());
+        assertEquals(0, cache.getStats().size());
+    }
+
+    private static Department department(long id, String name, Employee manager) {
+        Department department = new Department();
+        department.setId(id);
+        department.setName(name);
+        department.setManager(manager);
+        return department;
+    }
+}
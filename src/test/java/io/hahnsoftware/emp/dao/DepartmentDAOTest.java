@@ -0,0 +1,71 @@
+package io.hahnsoftware.emp.dao;
+
+import io.hahnsoftware.emp.model.Department;
+import io.hahnsoftware.emp.util.DatabaseConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DepartmentDAOTest {
+
+    @Mock private Connection mockConnection;
+    @Mock private PreparedStatement mockPreparedStatement;
+    @Mock private ResultSet mockResultSet;
+    @Mock private AuditLogWriter auditWriter;
+
+    private MockedStatic<DatabaseConnection> mockedDatabaseConnection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        mockedDatabaseConnection = mockStatic(DatabaseConnection.class);
+        mockedDatabaseConnection.when(DatabaseConnection::getConnection).thenReturn(mockConnection);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        DepartmentCache.getInstance().invalidateAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedDatabaseConnection.close();
+        DepartmentCache.getInstance().invalidateAll();
+    }
+
+    @Test
+    void updateDepartment_WithAStaleVersionReadThroughTheCache_IsRejected() throws SQLException {
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.wasNull()).thenReturn(true);
+        // the row as first loaded, at version 3
+        when(mockResultSet.getLong("id")).thenReturn(5L);
+        when(mockResultSet.getString("name")).thenReturn("IT");
+        when(mockResultSet.getLong("version")).thenReturn(3L);
+        when(mockResultSet.getLong("manager_id")).thenReturn(0L);
+        // the row at update time, another writer moved it to version 4
+        when(mockResultSet.getString(1)).thenReturn("IT");
+        when(mockResultSet.getLong(2)).thenReturn(0L);
+        when(mockResultSet.getLong(3)).thenReturn(4L);
+
+        DepartmentDAO departmentDAO = new DepartmentDAO(new EmployeeDAO(auditWriter));
+        departmentDAO.findById(5L);
+        Department cached = departmentDAO.findById(5L);
+
+        assertEquals(1, DepartmentCache.getInstance().getStats().hits());
+        assertEquals(3L, cached.getVersion());
+        cached.setName("Engineering");
+        assertThrows(StaleVersionException.class, () -> departmentDAO.updateDepartment(cached));
+        verify(mockPreparedStatement, never()).executeUpdate();
+    }
+}
@@ -1,30 +1,47 @@
 package io.hahnsoftware.emp.dao;
 
 import io.hahnsoftware.emp.model.*;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.records.EmployeeKeys;
+import io.hahnsoftware.emp.records.EmployeeSummary;
+import io.hahnsoftware.emp.records.ResourceVersion;
 import io.hahnsoftware.emp.util.DatabaseConnection;
+import io.hahnsoftware.emp.util.UserContext;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mindrot.jbcrypt.BCrypt;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class EmployeeDAOTest {
 
+    private static final ActingUser ADMIN = new ActingUser(1L, "admin", UserRole.ADMINISTRATOR, null);
+
     @Mock private Connection mockConnection;
     @Mock private PreparedStatement mockPreparedStatement;
     @Mock private ResultSet mockResultSet;
+    @Mock private AuditLogWriter auditWriter;
 
     private Employee testEmployee;
     private Department testDepartment;
@@ -48,7 +65,14 @@ class EmployeeDAOTest {
 
         Employee manager = new Employee();
         manager.setId(1L);
+        manager.setEmployeeId("MGR001");
+        manager.setFullName("Jane Manager");
+        manager.setUsername("janemanager");
         manager.setRole(UserRole.MANAGER);
+        manager.setJobTitle("Engineering Manager");
+        manager.setHireDate(LocalDate.now());
+        manager.setStatus(EmploymentStatus.ACTIVE);
+        manager.setEmail("jane@example.com");
         testDepartment.setManager(manager);
 
         testEmployee = new Employee();
@@ -70,7 +94,7 @@ class EmployeeDAOTest {
         Employee adminUser = new Employee();
         adminUser.setId(999L);
         adminUser.setRole(UserRole.ADMINISTRATOR);
-        AuditDAO.setActionUser(adminUser);
+        UserContext.bind(ActingUser.of(adminUser));
 
         // Mock Connection behavior
         lenient().when(mockConnection.prepareStatement(anyString(), any(String[].class)))
@@ -87,6 +111,7 @@ class EmployeeDAOTest {
             mockedDatabaseConnection.close();
             mockedDatabaseConnection = null;
         }
+        UserContext.clear();
     }
 
     @Test
@@ -97,14 +122,68 @@ class EmployeeDAOTest {
         lenient().when(mockResultSet.getLong(1)).thenReturn(1L);
 
 
-        EmployeeDAO employeeDAO = new EmployeeDAO();
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
         Employee result = employeeDAO.create(testEmployee, "password123", true);
 
         assertNotNull(result);
         assertEquals(testEmployee.getEmployeeId(), result.getEmployeeId());
-        verify(mockPreparedStatement, times(2)).executeUpdate(); // Verify 2 executeUpdate calls
-        verify(mockConnection, times(2)).commit(); // Changed to expect 2 commit calls
+        // the employee row is committed here, the audit row is handed to the background writer
+        verify(mockPreparedStatement, times(1)).executeUpdate();
+        verify(mockConnection, times(1)).commit();
+        verify(auditWriter).enqueue(eq(AuditDAO.ActionAudit.CREATE.name()), eq(AuditDAO.Entities.EMPLOYEE.name()),
+                eq(1L), any(), anyString());
+    }
+
+    @Test
+    void createBatch_InsertsRowsAndAuditInOneBatchEach() throws SQLException {
+        Employee second = copyOf(testEmployee, "EMP002");
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, true, false);
+        when(mockResultSet.getString("employee_id")).thenReturn("EMP001", "EMP002");
+        when(mockResultSet.getLong("id")).thenReturn(11L, 12L);
+
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        employeeDAO.createBatch(List.of(testEmployee, second), (chunk, e) -> fail(e));
+
+        assertEquals(11L, testEmployee.getId());
+        assertEquals(12L, second.getId());
+        // two employee rows and two audit rows, written as one batch each in a single transaction
+        verify(mockPreparedStatement, times(4)).addBatch();
+        verify(mockPreparedStatement, times(2)).executeBatch();
+        verify(mockPreparedStatement, never()).executeUpdate();
+        verify(mockConnection, times(1)).commit();
+    }
+
+    @Test
+    void createBatch_FailedChunkIsRolledBackAndReported() throws SQLException {
+        testEmployee.setId(null);
+        when(mockPreparedStatement.executeBatch()).thenThrow(new BatchUpdateException("unique constraint", new int[0]));
+        List<Employee> failed = new java.util.ArrayList<>();
+
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        employeeDAO.createBatch(List.of(testEmployee), (chunk, e) -> failed.addAll(chunk));
+
+        assertEquals(List.of(testEmployee), failed);
+        assertNull(testEmployee.getId());
+        verify(mockConnection).rollback();
+        verify(mockConnection, never()).commit();
     }
+
+    private static Employee copyOf(Employee source, String employeeId) {
+        Employee copy = new Employee();
+        copy.setEmployeeId(employeeId);
+        copy.setFullName(source.getFullName());
+        copy.setUsername(source.getUsername() + employeeId);
+        copy.setPasswordHash(source.getPasswordHash());
+        copy.setRole(source.getRole());
+        copy.setJobTitle(source.getJobTitle());
+        copy.setDepartment(source.getDepartment());
+        copy.setHireDate(source.getHireDate());
+        copy.setStatus(source.getStatus());
+        copy.setEmail(employeeId + "@example.com");
+        return copy;
+    }
+
     @Test
     void findByUsername_Success() throws SQLException {
 
@@ -113,7 +192,7 @@ class EmployeeDAOTest {
         setupMockResultSet(mockResultSet, testEmployee);
 
         // Act
-        EmployeeDAO employeeDAO = new EmployeeDAO();
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
         Employee result = employeeDAO.findByUsername("johndoe");
 
         // Assert
@@ -129,7 +208,7 @@ class EmployeeDAOTest {
         setupMockResultSet(mockResultSet, testEmployee);
 
         // Act
-        EmployeeDAO employeeDAO = new EmployeeDAO();
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
         Employee result = employeeDAO.validateCredentials("johndoe", "password123");
 
         // Assert
@@ -137,6 +216,518 @@ class EmployeeDAOTest {
         assertEquals(testEmployee.getUsername(), result.getUsername());
     }
 
+    @Test
+    void findAll_LoadsDepartmentAndManagerInOneStatement() throws SQLException {
+        lenient().when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        lenient().when(mockResultSet.next()).thenReturn(true, true, true, false);
+        setupMockResultSet(mockResultSet, testEmployee);
+        lenient().when(mockResultSet.getLong("id")).thenReturn(1L, 2L, 3L);
+
+        // Act
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        List<Employee> result = employeeDAO.findAll(ADMIN);
+
+        // Assert: one statement for the whole list, no per-row department or manager lookups
+        assertEquals(3, result.size());
+        verify(mockConnection, times(1)).prepareStatement(anyString());
+        verify(mockConnection, never()).createStatement();
+        verify(mockPreparedStatement, times(1)).executeQuery();
+
+        // employees of the same department share one Department instance
+        assertSame(result.get(0).getDepartment(), result.get(1).getDepartment());
+        assertSame(result.get(1).getDepartment(), result.get(2).getDepartment());
+        assertEquals("IT Department", result.get(0).getDepartment().getName());
+        assertEquals("Jane Manager", result.get(0).getDepartment().getManager().getFullName());
+    }
+
+    @Test
+    void findAll_ScopesRestrictedCallersInTheQuery() throws SQLException {
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(false);
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+
+        employeeDAO.findAll(new ActingUser(7L, "johndoe", UserRole.EMPLOYEE, 1L));
+        employeeDAO.findAll(new ActingUser(2L, "janemanager", UserRole.MANAGER, 3L));
+        employeeDAO.findAll(null);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection, times(3)).prepareStatement(sql.capture());
+        assertTrue(sql.getAllValues().get(0).endsWith(" WHERE 1=1 AND e.id = ?"));
+        assertTrue(sql.getAllValues().get(1).endsWith(" WHERE 1=1 AND e.department_id = ?"));
+        assertTrue(sql.getAllValues().get(2).endsWith(" WHERE 1=1 AND 1=0"));
+        verify(mockPreparedStatement).setObject(1, 7L);
+        verify(mockPreparedStatement).setObject(1, 3L);
+    }
+
+    @Test
+    void findAllSummaries_ReadsFlatProjectionWithoutPasswordHash() throws SQLException {
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, false);
+        when(mockResultSet.getLong(1)).thenReturn(7L);
+        when(mockResultSet.getString(2)).thenReturn("EMP007");
+        when(mockResultSet.getString(3)).thenReturn("John Doe");
+        when(mockResultSet.getString(4)).thenReturn("Software Engineer");
+        when(mockResultSet.getLong(5)).thenReturn(1L);
+        when(mockResultSet.getString(6)).thenReturn("IT Department");
+        when(mockResultSet.getString(7)).thenReturn("Jane Manager");
+        when(mockResultSet.getDate(8)).thenReturn(Date.valueOf("2020-01-15"));
+        when(mockResultSet.getString(9)).thenReturn("ACTIVE");
+        when(mockResultSet.getString(10)).thenReturn("EMPLOYEE");
+        when(mockResultSet.getString(11)).thenReturn("johndoe");
+
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        List<EmployeeSummary> result = employeeDAO.findAllSummaries(ADMIN);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection).prepareStatement(sql.capture());
+        assertFalse(sql.getValue().contains("password_hash"));
+        assertFalse(sql.getValue().contains("*"));
+        assertEquals(new EmployeeSummary(7L, "EMP007", "John Doe", "Software Engineer", 1L, "IT Department",
+                "Jane Manager", LocalDate.of(2020, 1, 15), EmploymentStatus.ACTIVE, UserRole.EMPLOYEE, "johndoe",
+                null, null), result.get(0));
+    }
+
+    @Test
+    void findAllFields_FetchesOnlySelectedColumnsWithReusedSql() throws SQLException {
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, false, true, false);
+        when(mockResultSet.getLong(1)).thenReturn(7L);
+        when(mockResultSet.getString(2)).thenReturn("John Doe");
+        when(mockResultSet.getString(3)).thenReturn("IT Department");
+
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        List<String> fields = List.of("id", "fullName", "departmentName");
+        List<Map<String, Object>> result = employeeDAO.findAllFields(fields, ADMIN);
+        employeeDAO.findAllFields(List.of("id", "fullName", "departmentName"), ADMIN);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection, times(2)).prepareStatement(sql.capture());
+        assertEquals("SELECT e.id, e.full_name, d.name FROM employees e "
+                + "LEFT JOIN departments d ON d.id = e.department_id WHERE 1=1", sql.getAllValues().get(0));
+        assertEquals(sql.getAllValues().get(0), sql.getAllValues().get(1));
+        assertEquals(List.of("id", "fullName", "departmentName"), List.copyOf(result.get(0).keySet()));
+        assertEquals(7L, result.get(0).get("id"));
+        assertEquals("IT Department", result.get(0).get("departmentName"));
+    }
+
+    @Test
+    void update_WritesWithCompareAndSetAndReturnsTheCallerValues() throws SQLException {
+        testEmployee.setVersion(3L);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        setupMockResultSet(mockResultSet, testEmployee);
+        when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+
+        Employee result = new EmployeeDAO(auditWriter).update(testEmployee);
+
+        assertSame(testEmployee, result);
+        assertEquals(4L, result.getVersion());
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        // the joined pre-read without a lock and the update, nothing is read back
+        verify(mockConnection, times(2)).prepareStatement(sql.capture());
+        assertFalse(sql.getAllValues().get(0).contains("FOR UPDATE"));
+        assertTrue(sql.getAllValues().get(1).endsWith("WHERE id = ? AND version = ?"));
+        verify(mockPreparedStatement).setLong(13, 3L);
+        verify(mockPreparedStatement, times(1)).executeQuery();
+    }
+
+    @Test
+    void update_OfAnEmployeeWithoutDepartment_WritesNoTombstone() throws SQLException {
+        testEmployee.setVersion(3L);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        setupMockResultSet(mockResultSet, testEmployee);
+        // department_id is NULL in the stored row
+        when(mockResultSet.wasNull()).thenReturn(true);
+        when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+
+        new EmployeeDAO(auditWriter).update(testEmployee);
+
+        verify(mockConnection, never()).prepareStatement(contains("deleted_records"));
+        verify(mockConnection).commit();
+    }
+
+    @Test
+    void delete_OfAnEmployeeWithoutDepartment_WritesNoTombstone() throws SQLException {
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        setupMockResultSet(mockResultSet, testEmployee);
+        when(mockResultSet.wasNull()).thenReturn(true);
+        when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+
+        new EmployeeDAO(auditWriter).delete(testEmployee.getEmployeeId());
+
+        verify(mockConnection, never()).prepareStatement(contains("deleted_records"));
+        verify(mockConnection).commit();
+    }
+
+    @Test
+    void update_WithStaleVersionIsRejected() throws SQLException {
+        testEmployee.setVersion(3L);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        setupMockResultSet(mockResultSet, testEmployee);
+        when(mockResultSet.getLong("version")).thenReturn(5L);
+
+        assertThrows(StaleVersionException.class, () -> new EmployeeDAO(auditWriter).update(testEmployee));
+        verify(mockPreparedStatement, never()).executeUpdate();
+    }
+
+    @Test
+    void update_WithoutVersionLocksThePreRead() throws SQLException {
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        setupMockResultSet(mockResultSet, testEmployee);
+        when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+
+        new EmployeeDAO(auditWriter).update(testEmployee);
+
+        verify(mockConnection).prepareStatement(endsWith("WHERE e.id = ? FOR UPDATE OF e.id"));
+        assertEquals(1L, testEmployee.getVersion());
+    }
+
+    @Test
+    void patch_WritesOnlyTheGivenColumnsWithCachedStatements() throws SQLException {
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getLong(1)).thenReturn(2L);
+        when(mockResultSet.getString(2)).thenReturn("1234567890");
+        when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+        Map<String, Object> values = new HashMap<>();
+        values.put("phone", "5550001111");
+
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        Map<String, Object> result = employeeDAO.patch(1L, values, 2L);
+        employeeDAO.patch(1L, values, 2L);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection, times(4)).prepareStatement(sql.capture());
+        assertEquals("SELECT e.version, e.phone FROM employees e WHERE e.id = ?", sql.getAllValues().get(0));
+        assertEquals("UPDATE employees SET phone = ?, updated_at = CURRENT_TIMESTAMP, version = version + 1 "
+                + "WHERE id = ? AND version = ?", sql.getAllValues().get(1));
+        assertSame(sql.getAllValues().get(1), sql.getAllValues().get(3));
+        verify(mockPreparedStatement, times(2)).setString(1, "5550001111");
+        assertEquals(List.of("id", "phone", "version"), List.copyOf(result.keySet()));
+        assertEquals(3L, result.get("version"));
+    }
+
+    @Test
+    void findTakenKeys_LooksUpEachKindOfKeyInPaddedInLists() throws SQLException {
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, false, false);
+        when(mockResultSet.getString(1)).thenReturn("EMP002");
+
+        EmployeeKeys taken = new EmployeeDAO(auditWriter).findTakenKeys(new EmployeeKeys(
+                Set.of("EMP001", "EMP002"), Set.of("jane"), Set.of()));
+
+        assertEquals(Set.of("EMP002"), taken.employeeIds());
+        assertTrue(taken.usernames().isEmpty());
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        // no statement for the empty list of emails
+        verify(mockConnection, times(2)).prepareStatement(sql.capture());
+        assertTrue(sql.getAllValues().get(0).startsWith("SELECT e.employee_id FROM employees e WHERE e.employee_id IN (?"));
+        assertTrue(sql.getAllValues().get(1).startsWith("SELECT e.username FROM employees e WHERE e.username IN (?"));
+        assertEquals(16, sql.getAllValues().get(1).chars().filter(c -> c == '?').count());
+        verify(mockPreparedStatement).setObject(16, "jane");
+    }
+
+    @Test
+    void findTakenKeys_MatchesEmailsIgnoringCase() throws SQLException {
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, false);
+        when(mockResultSet.getString(1)).thenReturn("jim@example.com");
+
+        EmployeeKeys taken = new EmployeeDAO(auditWriter).findTakenKeys(new EmployeeKeys(
+                Set.of(), Set.of(), Set.of("Jim@Example.com")));
+
+        assertEquals(Set.of("jim@example.com"), taken.emails());
+        verify(mockConnection).prepareStatement(startsWith(
+                "SELECT LOWER(e.email) FROM employees e WHERE LOWER(e.email) IN (?"));
+        verify(mockPreparedStatement, atLeastOnce()).setObject(anyInt(), eq("jim@example.com"));
+        verify(mockPreparedStatement, never()).setObject(anyInt(), eq("Jim@Example.com"));
+    }
+
+    @Test
+    void findSummariesByIds_ChunksAndPadsTheInLists() throws SQLException {
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(false);
+        List<Long> ids = LongStream.rangeClosed(1, 1003).boxed().toList();
+
+        new EmployeeDAO(auditWriter).findSummariesByIds(ids, ADMIN);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection, times(2)).prepareStatement(sql.capture());
+        assertEquals(1000, sql.getAllValues().get(0).chars().filter(c -> c == '?').count());
+        // the 3 left over ids are padded to the smallest list size with the last id
+        assertEquals(16, sql.getAllValues().get(1).chars().filter(c -> c == '?').count());
+        verify(mockPreparedStatement).setLong(16, 1003L);
+        verify(mockConnection, times(1)).close();
+    }
+
+    @Test
+    void findVersionById_UsesNewestJoinedTimestampWithoutLoadingTheEmployee() throws SQLException {
+        Timestamp employeeUpdated = Timestamp.valueOf("2024-03-01 10:00:00");
+        Timestamp departmentUpdated = Timestamp.valueOf("2024-03-05 08:30:00");
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        // no manager on the department, so m.updated_at and d.manager_id are null
+        Object[] row = {employeeUpdated, departmentUpdated, null, 1L, null};
+        when(mockResultSet.getObject(anyInt())).thenAnswer(invocation -> row[(int) invocation.getArgument(0) - 1]);
+
+        ResourceVersion version = new EmployeeDAO(auditWriter).findVersionById(1L, ADMIN);
+
+        assertEquals(departmentUpdated.toInstant(), version.lastModified());
+        assertEquals(version.eTag("a"), version.eTag("a"));
+        assertNotEquals(version.eTag("a"), version.eTag("b"));
+        assertTrue(version.eTag("a").startsWith("W/\""));
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection).prepareStatement(sql.capture());
+        assertTrue(sql.getValue().startsWith("SELECT e.updated_at, d.updated_at, m.updated_at"));
+        verify(mockResultSet, never()).getString(anyString());
+    }
+
+    @Test
+    void findById_LoadsDepartmentAndManagerInOneStatement() throws SQLException {
+        lenient().when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        lenient().when(mockResultSet.next()).thenReturn(true);
+        setupMockResultSet(mockResultSet, testEmployee);
+
+        // Act
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        Employee result = employeeDAO.findById(1L);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(testDepartment.getManager().getId(), result.getDepartment().getManager().getId());
+        verify(mockConnection, times(1)).prepareStatement(anyString());
+        verify(mockPreparedStatement, times(1)).executeQuery();
+    }
+
+    @Test
+    void findById_WithAManagerWithoutHireDate_LeavesItNull() throws SQLException {
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        setupMockResultSet(mockResultSet, testEmployee);
+        when(mockResultSet.getDate("mgr_hire_date")).thenReturn(null);
+
+        Employee result = new EmployeeDAO(auditWriter).findById(1L);
+
+        assertNull(result.getDepartment().getManager().getHireDate());
+        assertEquals(testEmployee.getHireDate(), result.getHireDate());
+    }
+
+    @Test
+    void search_ReturnsPageWithTotalCount() throws SQLException {
+        lenient().when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        // count row, then two employee rows
+        lenient().when(mockResultSet.next()).thenReturn(true, true, true, false);
+        lenient().when(mockResultSet.getLong(1)).thenReturn(5L);
+        setupMockResultSet(mockResultSet, testEmployee);
+        lenient().when(mockResultSet.getLong("id")).thenReturn(1L, 2L);
+
+        // Act
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        PageResult<Employee> result = employeeDAO.search(new SearchCriteria()
+                .withJobTitle("engineer")
+                .withPagination(0, 2), ADMIN);
+
+        // Assert
+        assertEquals(2, result.getItems().size());
+        assertEquals(5L, result.getTotalElements());
+        assertEquals(3, result.getTotalPages());
+        assertNotNull(result.getNextCursor());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection, times(2)).prepareStatement(sql.capture());
+        assertTrue(sql.getAllValues().get(0).startsWith("SELECT COUNT(*)"));
+        assertTrue(sql.getAllValues().get(1).contains("LOWER(e.job_title) LIKE ?"));
+        assertTrue(sql.getAllValues().get(1).endsWith("OFFSET ? ROWS FETCH NEXT ? ROWS ONLY"));
+    }
+
+    @Test
+    void search_WithText_FiltersTheCountAndThePage() throws SQLException {
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, false);
+        when(mockResultSet.getLong(1)).thenReturn(0L);
+
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        PageResult<EmployeeSummary> result = employeeDAO.searchSummaries(new SearchCriteria()
+                .withText("50%_Off").withPagination(0, 20), ADMIN);
+
+        assertEquals(0L, result.getTotalElements());
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection, times(2)).prepareStatement(sql.capture());
+        String count = sql.getAllValues().get(0);
+        String page = sql.getAllValues().get(1);
+        assertTrue(count.startsWith("SELECT COUNT(*) FROM employees e LEFT JOIN departments d ON d.id = e.department_id"));
+        for (String query : List.of(count, page)) {
+            assertTrue(query.contains("(LOWER(e.full_name) LIKE ? ESCAPE '\\' OR "), query);
+            assertTrue(query.contains("OR LOWER(d.name) LIKE ? ESCAPE '\\'"), query);
+        }
+        // six text columns in the count and in the page
+        verify(mockPreparedStatement, times(12)).setObject(anyInt(), eq("%50\\%\\_off%"));
+    }
+
+    @Test
+    void search_WithCursor_UsesKeysetInsteadOfOffset() throws SQLException {
+        lenient().when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        lenient().when(mockResultSet.next()).thenReturn(true, false);
+        lenient().when(mockResultSet.getLong(1)).thenReturn(0L);
+
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        String cursor = java.util.Base64.getUrlEncoder().withoutPadding().encodeToString("VJohn Doe|1".getBytes());
+        PageResult<Employee> result = employeeDAO.search(new SearchCriteria()
+                .withSort("fullName", "ASC")
+                .withCursor(cursor), ADMIN);
+
+        assertTrue(result.getItems().isEmpty());
+        assertNull(result.getNextCursor());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection, times(2)).prepareStatement(sql.capture());
+        String pageSql = sql.getAllValues().get(1);
+        assertTrue(pageSql.contains("(e.full_name > ? OR (e.full_name = ? AND e.id > ?) OR e.full_name IS NULL)"));
+        assertTrue(pageSql.contains("ORDER BY e.full_name ASC NULLS LAST, e.id ASC"));
+        assertFalse(pageSql.contains("OFFSET"));
+    }
+
+    @Test
+    void search_WithCursor_PagesAcrossRowsWithoutSortValue() throws SQLException {
+        lenient().when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        // first search: count row and two employee rows, second search: count row and no rows
+        lenient().when(mockResultSet.next()).thenReturn(true, true, true, false, true, false);
+        lenient().when(mockResultSet.getLong(1)).thenReturn(3L);
+        setupMockResultSet(mockResultSet, testEmployee);
+        lenient().when(mockResultSet.getLong("id")).thenReturn(1L, 2L);
+        lenient().when(mockResultSet.getString("job_title")).thenReturn("Engineer", (String) null);
+
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        PageResult<Employee> first = employeeDAO.search(new SearchCriteria()
+                .withSort("jobTitle", "ASC").withPagination(0, 2), ADMIN);
+        assertNull(first.getItems().get(1).getJobTitle());
+        assertEquals("N|2", new String(java.util.Base64.getUrlDecoder().decode(first.getNextCursor())));
+
+        employeeDAO.search(new SearchCriteria()
+                .withSort("jobTitle", "ASC").withPagination(0, 2).withCursor(first.getNextCursor()), ADMIN);
+
+        // past a null only the remaining nulls follow, there is no value to compare against
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection, times(4)).prepareStatement(sql.capture());
+        String pageSql = sql.getAllValues().get(3);
+        assertTrue(pageSql.contains("AND (e.job_title IS NULL AND e.id > ?) ORDER BY e.job_title ASC NULLS LAST"));
+        verify(mockPreparedStatement).setObject(1, 2L);
+        verify(mockPreparedStatement, never()).setObject(anyInt(), eq("null"));
+    }
+
+    @Test
+    void search_RejectsAMalformedCursorBeforeQuerying() throws SQLException {
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        java.util.Base64.Encoder encoder = java.util.Base64.getUrlEncoder().withoutPadding();
+
+        for (String cursor : List.of("not base64!", encoder.encodeToString("John Doe|1".getBytes()),
+                encoder.encodeToString("VJohn Doe|x".getBytes()))) {
+            assertThrows(IllegalArgumentException.class, () -> employeeDAO.search(new SearchCriteria()
+                    .withSort("fullName", "ASC").withCursor(cursor), ADMIN), cursor);
+        }
+        // a value that does not parse for the sort column
+        String date = encoder.encodeToString("Vsoon|1".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> employeeDAO.searchSummaries(new SearchCriteria()
+                .withSort("hireDate", "ASC").withCursor(date), ADMIN));
+        verify(mockConnection, never()).prepareStatement(anyString());
+    }
+
+    @Test
+    void checkCriteria_RejectsWhatTheQueriesCannotUse() {
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+
+        employeeDAO.checkCriteria(new SearchCriteria().withDepartment("3").withSort("hireDate", "DESC"));
+        assertThrows(IllegalArgumentException.class,
+                () -> employeeDAO.checkCriteria(new SearchCriteria().withSort("password_hash", "ASC")));
+        assertThrows(IllegalArgumentException.class,
+                () -> employeeDAO.checkCriteria(new SearchCriteria().withDepartment("IT")));
+        mockedDatabaseConnection.verifyNoInteractions();
+    }
+
+    @Test
+    void search_RejectsUnknownSortField() throws SQLException {
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        assertThrows(IllegalArgumentException.class,
+                () -> employeeDAO.search(new SearchCriteria().withSort("password_hash", "ASC"), ADMIN));
+    }
+
+    @Test
+    void findSummaryRange_FiltersSortsAndScopesInTheQuery() throws SQLException {
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(false);
+
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        ActingUser employee = new ActingUser(7L, "johndoe", UserRole.EMPLOYEE, 1L);
+        List<EmployeeSummary> rows = employeeDAO.findSummaryRange(new SearchCriteria()
+                .withText("50%_Off").withStatus("ACTIVE").withSort("departmentName", "DESC"), employee, 100, 50);
+
+        assertTrue(rows.isEmpty());
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection).prepareStatement(sql.capture());
+        assertTrue(sql.getValue().contains("AND e.status = ? AND (LOWER(e.full_name) LIKE ? ESCAPE '\\' OR "));
+        assertTrue(sql.getValue().contains("OR LOWER(d.name) LIKE ? ESCAPE '\\'"));
+        assertTrue(sql.getValue().endsWith("AND e.id = ? ORDER BY d.name DESC NULLS FIRST, e.id DESC OFFSET ? ROWS FETCH NEXT ? ROWS ONLY"));
+        verify(mockPreparedStatement, times(6)).setObject(anyInt(), eq("%50\\%\\_off%"));
+        verify(mockPreparedStatement).setObject(8, 7L);
+        verify(mockPreparedStatement).setObject(9, 100L);
+        verify(mockPreparedStatement).setObject(10, 50);
+    }
+
+    @Test
+    void streamEmployees_UsesForwardOnlyCursorScopedToManagerDepartment() throws Exception {
+        when(mockConnection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, true, false);
+        setupMockResultSet(mockResultSet, testEmployee);
+
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        List<Employee> streamed = new java.util.ArrayList<>();
+        ActingUser manager = new ActingUser(1L, "janemanager", UserRole.MANAGER, 1L);
+        employeeDAO.streamEmployees(new SearchCriteria().withStatus("ACTIVE").withSort("fullName", "DESC"),
+                manager, streamed::add);
+
+        assertEquals(2, streamed.size());
+        assertTrue(streamed.get(0).isCurrentUserManager());
+        verify(mockPreparedStatement).setFetchSize(500);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection).prepareStatement(sql.capture(), anyInt(), anyInt());
+        assertTrue(sql.getValue().contains("AND e.status = ? AND e.department_id = ?"));
+        assertTrue(sql.getValue().endsWith("ORDER BY e.full_name DESC NULLS FIRST, e.id DESC"));
+        verify(mockPreparedStatement).setObject(2, 1L);
+    }
+
+    @Test
+    void streamSummaries_ReadsTheSummaryRangeQueryWithAForwardOnlyCursor() throws Exception {
+        when(mockConnection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, true, true, false);
+        when(mockResultSet.getString(anyInt())).thenAnswer(call -> switch ((int) call.getArgument(0)) {
+            case 2 -> "EMP001";
+            case 9 -> "ACTIVE";
+            case 10 -> "EMPLOYEE";
+            default -> null;
+        });
+
+        EmployeeDAO employeeDAO = new EmployeeDAO(auditWriter);
+        List<EmployeeSummary> streamed = new java.util.ArrayList<>();
+        employeeDAO.streamSummaries(new SearchCriteria().withStatus("ACTIVE").withSort("fullName", "ASC"),
+                ADMIN, streamed::add);
+
+        assertEquals(3, streamed.size());
+        assertEquals("EMP001", streamed.get(0).employeeId());
+        verify(mockPreparedStatement).setFetchSize(500);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection).prepareStatement(sql.capture(), anyInt(), anyInt());
+        assertTrue(sql.getValue().endsWith("ORDER BY e.full_name ASC NULLS LAST, e.id ASC"));
+        assertFalse(sql.getValue().contains("OFFSET"));
+    }
+
     private void setupMockResultSet(ResultSet rs, Employee employee) throws SQLException {
         lenient().when(rs.getLong("id")).thenReturn(employee.getId());
         lenient().when(rs.getString("employee_id")).thenReturn(employee.getEmployeeId());
@@ -151,6 +742,21 @@ class EmployeeDAOTest {
         lenient().when(rs.getString("email")).thenReturn(employee.getEmail());
         lenient().when(rs.getString("phone")).thenReturn(employee.getPhone());
         lenient().when(rs.getString("address")).thenReturn(employee.getAddress());
+        lenient().when(rs.getLong("version")).thenReturn(employee.getVersion() != null ? employee.getVersion() : 0L);
+
+        // joined department and manager columns
+        Department department = employee.getDepartment();
+        Employee manager = department.getManager();
+        lenient().when(rs.getString("dept_name")).thenReturn(department.getName());
+        lenient().when(rs.getLong("dept_manager_id")).thenReturn(manager.getId());
+        lenient().when(rs.getString("mgr_employee_id")).thenReturn(manager.getEmployeeId());
+        lenient().when(rs.getString("mgr_full_name")).thenReturn(manager.getFullName());
+        lenient().when(rs.getString("mgr_username")).thenReturn(manager.getUsername());
+        lenient().when(rs.getString("mgr_role")).thenReturn(manager.getRole().name());
+        lenient().when(rs.getString("mgr_job_title")).thenReturn(manager.getJobTitle());
+        lenient().when(rs.getDate("mgr_hire_date")).thenReturn(Date.valueOf(manager.getHireDate()));
+        lenient().when(rs.getString("mgr_status")).thenReturn(manager.getStatus().name());
+        lenient().when(rs.getString("mgr_email")).thenReturn(manager.getEmail());
         lenient().when(rs.wasNull()).thenReturn(false);
     }
 }
\ No newline at end of file
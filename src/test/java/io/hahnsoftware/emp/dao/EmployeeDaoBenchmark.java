@@ -0,0 +1,111 @@
+package io.hahnsoftware.emp.dao;
+
+import io.hahnsoftware.emp.benchmark.BenchmarkData;
+import io.hahnsoftware.emp.model.Department;
+import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.model.PageResult;
+import io.hahnsoftware.emp.model.SearchCriteria;
+import io.hahnsoftware.emp.model.UserRole;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.records.EmployeeSummary;
+import io.hahnsoftware.emp.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * employee reads against an embedded H2 database in Oracle mode, seeded with {@link BenchmarkData}.
+ * {@code mapResultSet} walks an already executed result set to measure the row mapping alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeDaoBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private EmployeeDAO employeeDAO;
+    private ActingUser admin;
+    private SearchCriteria firstPage;
+    private String nextCursor;
+
+    private Connection mappingConnection;
+    private PreparedStatement mappingStatement;
+    private ResultSet mappingResultSet;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url = "jdbc:h2:mem:employees" + rows + ";MODE=Oracle;DB_CLOSE_DELAY=-1;NON_KEYWORDS=TIMESTAMP";
+        BenchmarkData.seedH2(url, rows);
+
+        System.setProperty("db.driver", "org.h2.Driver");
+        System.setProperty("db.url", url);
+        System.setProperty("db.user", "sa");
+        System.setProperty("db.password", "");
+        DatabaseConnection.closeConnection();
+        employeeDAO = new EmployeeDAO();
+
+        admin = new ActingUser(1L, "admin", UserRole.ADMINISTRATOR, null);
+        firstPage = new SearchCriteria().withJobTitle("engineer").withSort("fullName", "ASC").withPagination(0, 20);
+        nextCursor = employeeDAO.search(firstPage, admin).getNextCursor();
+
+        mappingConnection = DriverManager.getConnection(url, "sa", "");
+        mappingStatement = mappingConnection.prepareStatement(EmployeeDAO.EMPLOYEE_SELECT,
+                ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        mappingResultSet = mappingStatement.executeQuery();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        mappingResultSet.close();
+        mappingStatement.close();
+        mappingConnection.close();
+        DatabaseConnection.closeConnection();
+    }
+
+    @Benchmark
+    public List<Employee> findAll() throws Exception {
+        return employeeDAO.findAll(admin);
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> findAllSummaries() throws Exception {
+        return employeeDAO.findAllSummaries(admin);
+    }
+
+    @Benchmark
+    public PageResult<Employee> searchFirstPage() throws Exception {
+        return employeeDAO.search(firstPage.withCursor(null), admin);
+    }
+
+    @Benchmark
+    public PageResult<Employee> searchNextPageByCursor() throws Exception {
+        return employeeDAO.search(firstPage.withCursor(nextCursor), admin);
+    }
+
+    @Benchmark
+    public PageResult<EmployeeSummary> searchSummariesFirstPage() throws Exception {
+        return employeeDAO.searchSummaries(firstPage.withCursor(null), admin);
+    }
+
+    @Benchmark
+    public void mapResultSet(Blackhole blackhole) throws Exception {
+        Map<Long, Department> departments = new HashMap<>();
+        mappingResultSet.beforeFirst();
+        while (mappingResultSet.next()) {
+            blackhole.consume(employeeDAO.mapResultSetToEmployee(mappingResultSet, departments));
+        }
+    }
+}
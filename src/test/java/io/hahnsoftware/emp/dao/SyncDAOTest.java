@@ -0,0 +1,78 @@
+package io.hahnsoftware.emp.dao;
+
+import io.hahnsoftware.emp.model.UserRole;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.util.DatabaseConnection;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SyncDAOTest {
+
+    @Test
+    void changedSince_ReadsTheTokenTimeMinusTheOverlap() {
+        SyncDAO syncDAO = new SyncDAO();
+        Timestamp syncedAt = Timestamp.valueOf("2024-03-01 10:00:00.123456");
+
+        Timestamp since = syncDAO.changedSince(syncDAO.encodeToken(syncedAt));
+
+        assertEquals(syncedAt.toInstant().minusMillis(SyncDAO.OVERLAP_MILLIS), since.toInstant());
+    }
+
+    @Test
+    void changedSince_RejectsForeignTokens() {
+        SyncDAO syncDAO = new SyncDAO();
+
+        assertThrows(IllegalArgumentException.class, () -> syncDAO.changedSince("not a token"));
+        assertThrows(IllegalArgumentException.class, () -> syncDAO.changedSince("c3luYzp5ZXN0ZXJkYXk"));
+    }
+
+    @Test
+    void isExpired_OnceTheTombstonesMayBePruned() {
+        SyncDAO syncDAO = new SyncDAO();
+        Timestamp now = Timestamp.valueOf("2024-03-01 10:00:00");
+
+        assertFalse(syncDAO.isExpired(Timestamp.from(now.toInstant().minusMillis(SyncDAO.RETENTION_MILLIS)), now));
+        assertTrue(syncDAO.isExpired(Timestamp.from(now.toInstant().minusMillis(SyncDAO.RETENTION_MILLIS + 1)), now));
+    }
+
+    @Test
+    void findRemovedEmployeesSince_ManagerGetsWhoLeftTheDepartmentAndIsNotVisibleAgain() throws SQLException {
+        Connection connection = mock(Connection.class);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(connection.prepareStatement(anyString())).thenReturn(stmt);
+        when(stmt.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, false);
+        when(rs.getLong(1)).thenReturn(7L);
+        Timestamp since = Timestamp.valueOf("2024-03-01 10:00:00");
+
+        List<Long> removed;
+        try (MockedStatic<DatabaseConnection> db = mockStatic(DatabaseConnection.class)) {
+            db.when(DatabaseConnection::getConnection).thenReturn(connection);
+            removed = new SyncDAO().findRemovedEmployeesSince(since,
+                    new ActingUser(3L, "manager", UserRole.MANAGER, 20L));
+        }
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture());
+        assertEquals("SELECT DISTINCT r.entity_id FROM deleted_records r WHERE r.deleted_at >= ? AND r.entity_type = ?" +
+                " AND r.department_id = ? AND NOT EXISTS (SELECT 1 FROM employees e WHERE e.id = r.entity_id" +
+                " AND e.department_id = ?) ORDER BY r.entity_id", sql.getValue());
+        verify(stmt).setObject(1, since);
+        verify(stmt).setObject(2, "EMPLOYEE");
+        verify(stmt).setObject(3, 20L);
+        verify(stmt).setObject(4, 20L);
+        assertEquals(List.of(7L), removed);
+    }
+}
@@ -0,0 +1,67 @@
+package io.hahnsoftware.emp.security;
+
+import io.hahnsoftware.emp.model.UserRole;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * tokens per second. {@code legacyFilter} repeats what the request filter did before: rebuild the key
+ * and the parser for each of the three parses of the token. {@code singleParse} is the current path and
+ * {@code generateToken} the login path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+    private static final String SECRET = "77A9A1C84825BCC945BC1682FA26377A9A1C84825BCC945BC1682FA263ABC";
+
+    private JwtUtil jwtUtil;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, TimeUnit.HOURS.toMillis(1));
+        userDetails = new EmployeeUserDetails(new ActingUser(42L, "janemanager", UserRole.MANAGER, 7L),
+                "hash", Collections.emptyList());
+        token = jwtUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public boolean legacyFilter() {
+        String username = legacyClaims(token).getSubject();
+        Date expiration = legacyClaims(token).getExpiration();
+        return legacyClaims(token).getSubject().equals(username) && !expiration.before(new Date());
+    }
+
+    @Benchmark
+    public ActingUser singleParse() {
+        return jwtUtil.extractActingUser(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userDetails);
+    }
+
+    private static Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
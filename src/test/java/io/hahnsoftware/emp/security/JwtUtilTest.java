@@ -0,0 +1,47 @@
+package io.hahnsoftware.emp.security;
+
+import io.hahnsoftware.emp.model.UserRole;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "77A9A1C84825BCC945BC1682FA26377A9A1C84825BCC945BC1682FA263ABC";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60000L);
+
+    @Test
+    void extractActingUser_ReadsClaimsWrittenAtLogin() {
+        ActingUser manager = new ActingUser(42L, "janemanager", UserRole.MANAGER, 7L);
+        String token = jwtUtil.generateToken(new EmployeeUserDetails(manager, "hash",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_MANAGER"))));
+
+        assertEquals(manager, jwtUtil.extractActingUser(token));
+    }
+
+    @Test
+    void extractActingUser_ReturnsNullForTokenWithoutClaims() {
+        String token = jwtUtil.generateToken(new User("legacy", "hash", Collections.emptyList()));
+
+        assertNull(jwtUtil.extractActingUser(token));
+    }
+
+    @Test
+    void extractActingUser_RejectsTamperedAndExpiredTokens() {
+        ActingUser admin = new ActingUser(1L, "admin", UserRole.ADMINISTRATOR, null);
+        EmployeeUserDetails details = new EmployeeUserDetails(admin, "hash", Collections.emptyList());
+        String token = jwtUtil.generateToken(details);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        String expired = new JwtUtil(SECRET, -1000L).generateToken(details);
+
+        assertThrows(JwtException.class, () -> jwtUtil.extractActingUser(tampered));
+        assertThrows(JwtException.class, () -> jwtUtil.extractActingUser(expired));
+    }
+}
@@ -0,0 +1,159 @@
+package io.hahnsoftware.emp.service;
+
+import io.hahnsoftware.emp.dao.DepartmentDAO;
+import io.hahnsoftware.emp.dao.EmployeeDAO;
+import io.hahnsoftware.emp.model.Department;
+import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.records.BulkCreateResult;
+import io.hahnsoftware.emp.records.EmployeeKeys;
+import io.hahnsoftware.emp.records.ImportSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mindrot.jbcrypt.BCrypt;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeCsvImporterTest {
+    private static final String HEADER =
+            "id,employeeId,fullName,jobTitle,department,manager,hireDate,status,email,phone,address,username,role,password\r\n";
+
+    @Mock private EmployeeDAO employeeDAO;
+    @Mock private DepartmentDAO departmentDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Department it = new Department();
+        it.setId(1L);
+        it.setName("IT");
+        lenient().when(departmentDAO.findAll()).thenReturn(List.of(it));
+        lenient().when(employeeDAO.findTakenKeys(any())).thenReturn(new EmployeeKeys(Set.of(), Set.of(), Set.of()));
+    }
+
+    @Test
+    void dryRun_ReportsInvalidRowsWithoutWriting() throws Exception {
+        String csv = HEADER
+                + ",EMP001,\"Doe, John\",Dev,it,,2020-01-15,ACTIVE,john@example.com,,\"12 Main St\nFloor 2\",john,EMPLOYEE,pw\r\n"
+                + ",EMP002,Jane,Dev,Sales,,2020-01-15,ACTIVE,jane@example.com,,,jane,EMPLOYEE,pw\r\n"
+                + ",EMP003,Jim,Dev,IT,,someday,ACTIVE,jim@example.com,,,jim,EMPLOYEE,pw\r\n"
+                + "\r\n"
+                + ",EMP001,Copy,Dev,IT,,2020-01-15,ACTIVE,copy@example.com,,,copy,EMPLOYEE,pw\r\n";
+        List<BulkCreateResult> rejected = new ArrayList<>();
+
+        ImportSummary summary = new EmployeeCsvImporter(employeeDAO, departmentDAO)
+                .importCsv(new StringReader(csv), true, rejected::add);
+
+        assertTrue(summary.dryRun());
+        assertEquals(4, summary.rows());
+        assertEquals(1, summary.valid());
+        assertEquals(3, summary.invalid());
+        assertEquals(0, summary.created());
+        assertEquals(List.of(4, 5, 7), rejected.stream().map(BulkCreateResult::index).toList());
+        assertEquals(List.of("Department not found: Sales"), rejected.get(0).errors());
+        assertEquals(List.of("Invalid hire date: someday"), rejected.get(1).errors());
+        assertEquals(List.of("Duplicate employee ID: EMP001"), rejected.get(2).errors());
+        verify(employeeDAO, never()).createBatch(any(), any());
+    }
+
+    @Test
+    void import_InsertsValidRowsWithHashedPasswords() throws Exception {
+        List<Employee> inserted = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            long id = 10;
+            for (Employee employee : employees) {
+                employee.setId(id++);
+            }
+            inserted.addAll(employees);
+            return null;
+        }).when(employeeDAO).createBatch(any(), any());
+        String csv = "employeeId,fullName,jobTitle,department,hireDate,status,email,username,role,password\n"
+                + "EMP001,John,Dev,IT,2020-01-15,active,john@example.com,john,employee,secret1\n"
+                + "EMP002,Jane,Dev,IT,2020-01-15,ACTIVE,jane@example.com,jane,MANAGER,\n";
+        List<BulkCreateResult> rejected = new ArrayList<>();
+
+        ImportSummary summary = new EmployeeCsvImporter(employeeDAO, departmentDAO)
+                .importCsv(new StringReader(csv), false, rejected::add);
+
+        assertEquals(1, summary.created());
+        assertEquals(1, summary.invalid());
+        assertEquals(List.of("Password is required"), rejected.get(0).errors());
+        assertEquals(1, inserted.size());
+        assertEquals("IT", inserted.get(0).getDepartment().getName());
+        assertTrue(BCrypt.checkpw("secret1", inserted.get(0).getPasswordHash()));
+        assertTrue(summary.rowsPerSecond() > 0);
+    }
+
+    @Test
+    void keysTakenInTheDatabase_RejectOnlyTheirRow() throws Exception {
+        when(employeeDAO.findTakenKeys(any())).thenReturn(
+                new EmployeeKeys(Set.of(), Set.of("jane"), Set.of("jim@example.com")));
+        List<Employee> inserted = new ArrayList<>();
+        doAnswer(invocation -> {
+            inserted.addAll(invocation.getArgument(0));
+            return null;
+        }).when(employeeDAO).createBatch(any(), any());
+        String csv = "employeeId,fullName,jobTitle,department,hireDate,status,email,username,role,password\n"
+                + "EMP001,John,Dev,IT,2020-01-15,ACTIVE,john@example.com,john,EMPLOYEE,pw\n"
+                + "EMP002,Jane,Dev,IT,2020-01-15,ACTIVE,jane@example.com,jane,EMPLOYEE,pw\n"
+                + "EMP003,Jim,Dev,IT,2020-01-15,ACTIVE,jim@example.com,jim,EMPLOYEE,pw\n";
+
+        List<BulkCreateResult> dryRunRejected = new ArrayList<>();
+        ImportSummary dryRun = new EmployeeCsvImporter(employeeDAO, departmentDAO)
+                .importCsv(new StringReader(csv), true, dryRunRejected::add);
+        List<BulkCreateResult> rejected = new ArrayList<>();
+        ImportSummary summary = new EmployeeCsvImporter(employeeDAO, departmentDAO)
+                .importCsv(new StringReader(csv), false, rejected::add);
+
+        // the dry run predicts what the import does, the clashing rows never reach the insert
+        assertEquals(1, dryRun.valid());
+        assertEquals(2, dryRun.invalid());
+        assertEquals(1, summary.created());
+        assertEquals(2, summary.invalid());
+        assertEquals(0, summary.failed());
+        for (List<BulkCreateResult> results : List.of(dryRunRejected, rejected)) {
+            assertEquals(List.of("Username already exists: jane"), results.get(0).errors());
+            assertEquals(List.of("Email already exists: jim@example.com"), results.get(1).errors());
+        }
+        assertEquals(List.of("EMP001"), inserted.stream().map(Employee::getEmployeeId).toList());
+    }
+
+    @Test
+    void emails_AreComparedIgnoringCase() throws Exception {
+        when(employeeDAO.findTakenKeys(any())).thenReturn(
+                new EmployeeKeys(Set.of(), Set.of(), Set.of("jim@example.com")));
+        String csv = "employeeId,fullName,jobTitle,department,hireDate,status,email,username,role,password\n"
+                + "EMP001,John,Dev,IT,2020-01-15,ACTIVE,john@example.com,john,EMPLOYEE,pw\n"
+                + "EMP002,Johnny,Dev,IT,2020-01-15,ACTIVE,John@Example.com,johnny,EMPLOYEE,pw\n"
+                + "EMP003,Jim,Dev,IT,2020-01-15,ACTIVE,Jim@Example.com,jim,EMPLOYEE,pw\n";
+        List<BulkCreateResult> rejected = new ArrayList<>();
+
+        ImportSummary summary = new EmployeeCsvImporter(employeeDAO, departmentDAO)
+                .importCsv(new StringReader(csv), true, rejected::add);
+
+        // in the file and against the database alike
+        assertEquals(1, summary.valid());
+        assertEquals(List.of("Duplicate email: John@Example.com"), rejected.get(0).errors());
+        assertEquals(List.of("Email already exists: Jim@Example.com"), rejected.get(1).errors());
+    }
+
+    @Test
+    void missingColumns_AreRejectedBeforeAnyRow() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new EmployeeCsvImporter(employeeDAO, departmentDAO)
+                        .importCsv(new StringReader("employeeId,fullName\nEMP001,John\n"), true, result -> { }));
+
+        assertTrue(e.getMessage().startsWith("Missing CSV columns: jobTitle, department"));
+    }
+}
@@ -0,0 +1,73 @@
+package io.hahnsoftware.emp.service;
+
+import io.hahnsoftware.emp.model.Department;
+import io.hahnsoftware.emp.model.Employee;
+import io.hahnsoftware.emp.model.EmploymentStatus;
+import io.hahnsoftware.emp.model.UserRole;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeExportWriterTest {
+
+    @Test
+    void csv_WritesHeaderAndQuotesOnlyWhenNeeded() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EmployeeExportWriter writer = new EmployeeExportWriter(ExportFormat.CSV, out);
+        writer.write(employee());
+        writer.finish();
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("id,employeeId,fullName,jobTitle,department,manager,hireDate,status,email,phone,address,username,role",
+                lines[0]);
+        assertEquals("7,EMP007,\"Doe, John\",\"Lead \"\"Ops\"\"\",IT,Jane Manager,2020-01-15,ACTIVE,john@example.com,,"
+                + "12 Main St,johndoe,EMPLOYEE", lines[1]);
+        assertFalse(out.toString(StandardCharsets.UTF_8).contains("secret-hash"));
+    }
+
+    @Test
+    void ndjson_WritesOneObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EmployeeExportWriter writer = new EmployeeExportWriter(ExportFormat.NDJSON, out);
+        writer.write(employee());
+        writer.write(employee());
+        writer.finish();
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":7,\"employeeId\":\"EMP007\",\"fullName\":\"Doe, John\""));
+        assertTrue(lines[0].contains("\"phone\":null"));
+        assertFalse(lines[0].contains("secret-hash"));
+    }
+
+    private static Employee employee() {
+        Employee manager = new Employee();
+        manager.setId(1L);
+        manager.setFullName("Jane Manager");
+
+        Department department = new Department();
+        department.setId(1L);
+        department.setName("IT");
+        department.setManager(manager);
+
+        Employee employee = new Employee();
+        employee.setId(7L);
+        employee.setEmployeeId("EMP007");
+        employee.setFullName("Doe, John");
+        employee.setJobTitle("Lead \"Ops\"");
+        employee.setDepartment(department);
+        employee.setHireDate(LocalDate.of(2020, 1, 15));
+        employee.setStatus(EmploymentStatus.ACTIVE);
+        employee.setEmail("john@example.com");
+        employee.setAddress("12 Main St");
+        employee.setUsername("johndoe");
+        employee.setPasswordHash("secret-hash");
+        employee.setRole(UserRole.EMPLOYEE);
+        return employee;
+    }
+}
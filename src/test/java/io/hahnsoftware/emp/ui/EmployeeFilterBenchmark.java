@@ -0,0 +1,109 @@
+package io.hahnsoftware.emp.ui;
+
+import io.hahnsoftware.emp.benchmark.BenchmarkData;
+import io.hahnsoftware.emp.dao.EmployeeDAO;
+import io.hahnsoftware.emp.model.SearchCriteria;
+import io.hahnsoftware.emp.model.UserRole;
+import io.hahnsoftware.emp.records.ActingUser;
+import io.hahnsoftware.emp.records.EmployeeSummary;
+import io.hahnsoftware.emp.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the query behind the search field and status combo of EmployeeManagementPanel: the row count and first page the
+ * table shows after a filter change, loaded by {@link EmployeeResultLoader} as the panel does, against an embedded
+ * H2 database seeded with {@link BenchmarkData}. the keystroke benchmarks are the cost of one typing pause: the
+ * first one reads the result from the database and indexes it, the following ones narrow the shown result. the
+ * broad ones type a letter every row matches, so the whole table is indexed and narrowed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeFilterBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private EmployeeResultLoader loader;
+    private ActingUser admin;
+    private ActingUser manager;
+    // the unfiltered table the panel opens with, and indexed results of a typing pause
+    private EmployeeResultLoader.FirstPage opened;
+    private EmployeeResultLoader.FirstPage typed;
+    private EmployeeResultLoader.FirstPage typedBroad;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url = "jdbc:h2:mem:filter" + rows + ";MODE=Oracle;DB_CLOSE_DELAY=-1;NON_KEYWORDS=TIMESTAMP";
+        BenchmarkData.seedH2(url, rows);
+
+        System.setProperty("db.driver", "org.h2.Driver");
+        System.setProperty("db.url", url);
+        System.setProperty("db.user", "sa");
+        System.setProperty("db.password", "");
+        DatabaseConnection.closeConnection();
+        loader = new EmployeeResultLoader(new EmployeeDAO());
+
+        admin = new ActingUser(1L, "admin", UserRole.ADMINISTRATOR, null);
+        manager = new ActingUser(1L, "user0", UserRole.MANAGER, 1L);
+        opened = loader.load(query(""), admin, null, false);
+        typed = loader.load(query("user99"), admin, opened, true);
+        typedBroad = loader.load(query("e"), admin, opened, true);
+        if (typed.index() == null || typedBroad.index() == null) {
+            throw new IllegalStateException("typing pauses of " + rows + " rows are not indexed");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseConnection.closeConnection();
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> adminSearchText() throws Exception {
+        return loader.load(query("engineer"), admin, null, false).rows();
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> adminNoMatch() throws Exception {
+        return loader.load(query("zzz"), admin, null, false).rows();
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> managerStatusOnly() throws Exception {
+        return loader.load(new SearchCriteria().withText("").withStatus("ACTIVE").withSort("fullName", "ASC"),
+                manager, null, false).rows();
+    }
+
+    // the first pause after opening the table: count, then the whole result read into the index
+    @Benchmark
+    public List<EmployeeSummary> keystrokeQuery() throws Exception {
+        return loader.load(query("user99"), admin, opened, true).rows();
+    }
+
+    // a later pause: narrowed in memory, the first page read by id
+    @Benchmark
+    public List<EmployeeSummary> keystrokeNarrowed() throws Exception {
+        return loader.load(query("user990"), admin, typed, true).rows();
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> keystrokeBroadQuery() throws Exception {
+        return loader.load(query("e"), admin, opened, true).rows();
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> keystrokeBroadNarrowed() throws Exception {
+        return loader.load(query("em"), admin, typedBroad, true).rows();
+    }
+
+    private static SearchCriteria query(String text) {
+        return new SearchCriteria().withText(text).withSort("id", "ASC");
+    }
+}
@@ -0,0 +1,59 @@
+package io.hahnsoftware.emp.ui;
+
+import io.hahnsoftware.emp.benchmark.BenchmarkData;
+import io.hahnsoftware.emp.records.EmployeeSummary;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSearchIndexTest {
+
+    @Test
+    void narrow_MatchesAnySearchedColumnIgnoringCase() {
+        List<EmployeeSummary> employees = BenchmarkData.employees(300).stream().map(EmployeeSummary::of).toList();
+        EmployeeSearchIndex index = EmployeeSearchIndex.of(employees);
+
+        for (String text : List.of("", "ENGINEER", "user1", "emp0002", "department 2", "employee", "zzz")) {
+            String lower = text.toLowerCase();
+            List<Long> expected = employees.stream()
+                    .filter(e -> e.fullName().toLowerCase().contains(lower)
+                            || e.employeeId().toLowerCase().contains(lower)
+                            || (e.departmentName() != null && e.departmentName().toLowerCase().contains(lower))
+                            || e.role().name().toLowerCase().contains(lower)
+                            || e.username().toLowerCase().contains(lower)
+                            || e.jobTitle().toLowerCase().contains(lower))
+                    .map(EmployeeSummary::id)
+                    .toList();
+            EmployeeSearchIndex narrowed = index.narrow(text);
+            assertEquals(expected.size(), narrowed.size(), text);
+            assertEquals(expected, narrowed.ids(0, Integer.MAX_VALUE), text);
+        }
+    }
+
+    @Test
+    void narrow_OfANarrowedIndexEqualsNarrowingOnce() {
+        EmployeeSearchIndex index = EmployeeSearchIndex.of(
+                BenchmarkData.employees(300).stream().map(EmployeeSummary::of).toList());
+
+        List<Long> stepwise = index.narrow("u").narrow("us").narrow("user2").ids(0, Integer.MAX_VALUE);
+
+        assertEquals(index.narrow("user2").ids(0, Integer.MAX_VALUE), stepwise);
+        assertFalse(stepwise.isEmpty());
+        // the end of one column and the start of the next are not one match
+        assertEquals(0, index.narrow("2software").size());
+    }
+
+    @Test
+    void ids_PagesThroughTheResultInOrder() {
+        EmployeeSearchIndex.Builder builder = new EmployeeSearchIndex.Builder();
+        BenchmarkData.employees(300).stream().map(EmployeeSummary::of).forEach(builder::add);
+        EmployeeSearchIndex index = builder.build();
+
+        assertEquals(300, index.size());
+        assertEquals(List.of(51L, 52L, 53L), index.ids(50, 3));
+        assertEquals(List.of(299L, 300L), index.ids(298, 50));
+        assertTrue(index.ids(300, 50).isEmpty());
+    }
+}
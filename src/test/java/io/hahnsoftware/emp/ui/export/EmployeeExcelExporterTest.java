@@ -0,0 +1,79 @@
+package io.hahnsoftware.emp.ui.export;
+
+import io.hahnsoftware.emp.benchmark.BenchmarkData;
+import io.hahnsoftware.emp.records.EmployeeSummary;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeExcelExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void export_WritesEveryRowAndReportsProgress() throws Exception {
+        List<EmployeeSummary> employees = summaries(250);
+        Path target = tempDir.resolve("employees.xlsx");
+        AtomicInteger lastProgress = new AtomicInteger();
+
+        assertTrue(new EmployeeExcelExporter().export(source(employees), target, lastProgress::set, () -> false));
+
+        assertEquals(250, lastProgress.get());
+        try (InputStream in = Files.newInputStream(target); XSSFWorkbook workbook = new XSSFWorkbook(in)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(250, sheet.getLastRowNum());
+            assertEquals("Employee ID", sheet.getRow(0).getCell(0).getStringCellValue());
+            EmployeeSummary last = employees.get(249);
+            assertEquals(last.employeeId(), sheet.getRow(250).getCell(0).getStringCellValue());
+            assertEquals(last.hireDate(), sheet.getRow(250).getCell(5).getDateCellValue()
+                    .toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+        }
+        assertFalse(Files.exists(tempDir.resolve("employees.xlsx.part")));
+    }
+
+    @Test
+    void export_CancelledLeavesNoFileAndStopsReadingTheSource() throws Exception {
+        Path target = tempDir.resolve("cancelled.xlsx");
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger read = new AtomicInteger();
+        EmployeeExcelExporter.RowSource rows = handler -> {
+            for (EmployeeSummary employee : summaries(500)) {
+                read.incrementAndGet();
+                handler.handle(employee);
+            }
+        };
+
+        boolean completed = new EmployeeExcelExporter().export(rows, target,
+                written::set, () -> written.get() >= 100);
+
+        assertFalse(completed);
+        assertEquals(100, written.get());
+        assertEquals(101, read.get());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static EmployeeExcelExporter.RowSource source(List<EmployeeSummary> employees) {
+        return handler -> {
+            for (EmployeeSummary employee : employees) {
+                handler.handle(employee);
+            }
+        };
+    }
+
+    private static List<EmployeeSummary> summaries(int rows) {
+        return BenchmarkData.employees(rows).stream().map(EmployeeSummary::of).toList();
+    }
+}
@@ -0,0 +1,50 @@
+package io.hahnsoftware.emp.ui.table;
+
+import io.hahnsoftware.emp.benchmark.BenchmarkData;
+import io.hahnsoftware.emp.records.EmployeeSummary;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeTableModelTest {
+
+    @Test
+    void failedPage_IsReportedOnceAndNotAskedForAgainWhileBackingOff() throws Exception {
+        EmployeeTableModel model = new EmployeeTableModel();
+        AtomicInteger fetches = new AtomicInteger();
+        AtomicInteger reported = new AtomicInteger();
+        List<EmployeeSummary> firstPage = BenchmarkData.employees(EmployeeTableModel.PAGE_SIZE).stream()
+                .map(EmployeeSummary::of).toList();
+        SwingUtilities.invokeAndWait(() -> {
+            model.setFailureListener(e -> reported.incrementAndGet());
+            model.reset((offset, limit) -> {
+                fetches.incrementAndGet();
+                throw new SQLException("connection lost");
+            }, 500, firstPage);
+            // the row of the second page starts its load
+            model.getValueAt(EmployeeTableModel.PAGE_SIZE, 1);
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (reported.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Object[] failedCell = new Object[1];
+        SwingUtilities.invokeAndWait(() -> {
+            // repaints during the back off do not load it again
+            for (int i = 0; i < 10; i++) {
+                failedCell[0] = model.getValueAt(EmployeeTableModel.PAGE_SIZE, 1);
+            }
+        });
+
+        assertEquals(1, reported.get());
+        assertEquals(1, fetches.get());
+        assertEquals("Failed to load, retrying...", failedCell[0]);
+    }
+}
@@ -0,0 +1,25 @@
+package io.hahnsoftware.emp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldSelectionTest {
+    private static final List<String> ALLOWED = List.of("id", "name", "managerId", "managerName");
+
+    @Test
+    void parse_NormalizesOrderAndAlwaysIncludesId() {
+        assertEquals(List.of("id", "name", "managerName"), FieldSelection.parse("managerName, name,name", ALLOWED));
+        assertEquals(FieldSelection.parse("name,managerName", ALLOWED), FieldSelection.parse("managerName,name", ALLOWED));
+        assertEquals(List.of("id"), FieldSelection.parse("", ALLOWED));
+    }
+
+    @Test
+    void parse_RejectsFieldsOutsideTheWhitelist() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> FieldSelection.parse("name,passwordHash", ALLOWED));
+        assertEquals("Unknown field: passwordHash", e.getMessage());
+    }
+}
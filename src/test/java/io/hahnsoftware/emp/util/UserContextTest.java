@@ -0,0 +1,59 @@
+package io.hahnsoftware.emp.util;
+
+import io.hahnsoftware.emp.model.UserRole;
+import io.hahnsoftware.emp.records.ActingUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserContextTest {
+
+    private final ActingUser admin = new ActingUser(1L, "admin", UserRole.ADMINISTRATOR, null);
+    private final ActingUser manager = new ActingUser(2L, "manager", UserRole.MANAGER, 10L);
+
+    @AfterEach
+    void cleanUp() {
+        UserContext.clear();
+        UserContext.setSessionUser(null);
+    }
+
+    @Test
+    void boundUser_IsNotVisibleToOtherThreads() throws InterruptedException {
+        UserContext.bind(admin);
+        CountDownLatch otherBound = new CountDownLatch(1);
+        AtomicReference<ActingUser> seenByOther = new AtomicReference<>();
+
+        Thread other = new Thread(() -> {
+            UserContext.bind(manager);
+            otherBound.countDown();
+            seenByOther.set(UserContext.current());
+            UserContext.clear();
+        });
+        other.start();
+        otherBound.await();
+        other.join();
+
+        assertEquals(admin, UserContext.current());
+        assertEquals(manager, seenByOther.get());
+    }
+
+    @Test
+    void sessionUser_IsUsedWhenNothingIsBound() throws InterruptedException {
+        UserContext.setSessionUser(manager);
+        AtomicReference<Long> seenByWorker = new AtomicReference<>();
+
+        Thread worker = new Thread(() -> seenByWorker.set(UserContext.currentUserId()));
+        worker.start();
+        worker.join();
+
+        assertEquals(2L, seenByWorker.get());
+        UserContext.bind(admin);
+        assertEquals(1L, UserContext.currentUserId());
+        UserContext.clear();
+        assertEquals(2L, UserContext.currentUserId());
+    }
+}